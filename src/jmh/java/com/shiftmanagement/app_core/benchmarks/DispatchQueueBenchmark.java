@@ -0,0 +1,87 @@
+package com.shiftmanagement.app_core.benchmarks;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+import com.shiftmanagement.app_core.services.DispatchQueueService;
+import com.shiftmanagement.app_core.services.ServiceDayProvider;
+
+/**
+ * Pops per second from one specialty queue shared by eight dispatching threads, each of which
+ * enqueues a shift before taking the next one, so the queue stays at its initial depth; and the
+ * position of the last waiting shift, the worst case of the O(position) walk of ahead(). One shift
+ * in ten is a priority one, except the last, which has to wait behind the whole queue.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class DispatchQueueBenchmark {
+
+    private static final String SPECIALTY = "Psicologia";
+    private static final int DEPTH = 10_000;
+
+    private final AtomicLong ids = new AtomicLong();
+    private DispatchQueueService queue;
+    private LocalDate today;
+    private Shift last;
+
+    @Setup
+    public void setUp() {
+        ServiceDayProvider serviceDayProvider = new ServiceDayProvider(Clock.systemDefaultZone());
+        today = serviceDayProvider.today();
+        queue = new DispatchQueueService(null, serviceDayProvider);
+        for (int i = 0; i < DEPTH; i++) {
+            last = shift(ids.incrementAndGet(), i % 10 == 0 && i < DEPTH - 1);
+            queue.offer(last);
+        }
+    }
+
+    @Benchmark
+    public Optional<Shift> offerAndPoll() {
+        queue.offer(nextShift());
+        return queue.poll(SPECIALTY);
+    }
+
+    @Benchmark
+    public OptionalInt aheadOfTheLast() {
+        return queue.ahead(last);
+    }
+
+    private Shift nextShift() {
+        long id = ids.incrementAndGet();
+        return shift(id, id % 10 == 0);
+    }
+
+    private Shift shift(long id, boolean priority) {
+        Shift shift = new Shift("1", SPECIALTY, priority);
+        shift.setId(String.valueOf(id));
+        shift.setTurnCode("PS-" + id);
+        shift.setStatus(ShiftStatus.ASSIGNED);
+        shift.setServiceDate(today);
+        shift.setCreatedAt(LocalDateTime.now());
+        return shift;
+    }
+}
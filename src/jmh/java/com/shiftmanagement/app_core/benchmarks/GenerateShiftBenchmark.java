@@ -0,0 +1,99 @@
+package com.shiftmanagement.app_core.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.shiftmanagement.app_core.model.Prefix;
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+import com.shiftmanagement.app_core.model.User;
+import com.shiftmanagement.app_core.repository.ShiftRepository;
+import com.shiftmanagement.app_core.repository.TurnSequenceRepository;
+import com.shiftmanagement.app_core.services.ServiceDayProvider;
+import com.shiftmanagement.app_core.services.ShiftMetrics;
+import com.shiftmanagement.app_core.services.ShiftService;
+import com.shiftmanagement.app_core.services.UserService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Overhead of the reactive generateShift pipeline with in-memory stubs for the user service,
+ * the turn sequence and the repository, against the same steps done synchronously.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenerateShiftBenchmark {
+
+    private static final User USER = new User("user", "1000000", "STUDENT", "secret");
+
+    private ServiceDayProvider serviceDayProvider;
+    private ShiftService shiftService;
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        serviceDayProvider = new ServiceDayProvider(Clock.systemDefaultZone());
+        UserService userService = new UserService(null, null, 1, Duration.ofMinutes(1), null, false, Duration.ZERO, null) {
+            @Override
+            public Mono<User> getUserbyId(String id) {
+                return Mono.just(USER);
+            }
+        };
+        TurnSequenceRepository turnSequenceRepository = new TurnSequenceRepository(null) {
+            @Override
+            public Mono<Long> next(String specialty, LocalDate serviceDate) {
+                return Mono.just(++sequence);
+            }
+        };
+        ShiftRepository shiftRepository = (ShiftRepository) Proxy.newProxyInstance(
+            ShiftRepository.class.getClassLoader(), new Class<?>[] { ShiftRepository.class },
+            (proxy, method, args) -> {
+                if (method.getName().equals("insert") && args.length == 1 && args[0] instanceof Shift) {
+                    return Mono.just(args[0]);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+        shiftService = new ShiftService(shiftRepository, userService, turnSequenceRepository, serviceDayProvider,
+            null, List.of(), new ShiftMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    public Shift reactivePipeline() {
+        return shiftService.generateShift(new Shift("1000000", "Psicologia", false)).block();
+    }
+
+    @Benchmark
+    public Shift synchronousBaseline() {
+        Shift shift = new Shift("1000000", "Psicologia", false);
+        Prefix prefix = Prefix.forSpecialty(shift.getSpecialty());
+        LocalDate serviceDate = serviceDayProvider.today();
+        shift.setTurnCode(prefix + "-" + ++sequence);
+        shift.setStatus(ShiftStatus.ASSIGNED);
+        shift.setCreatedAt(serviceDayProvider.now());
+        shift.setServiceDate(serviceDate);
+        shift.setUserId(USER.numberId());
+        shift.setUsername(USER.userName());
+        shift.setUserRole(USER.role());
+        return shift;
+    }
+}
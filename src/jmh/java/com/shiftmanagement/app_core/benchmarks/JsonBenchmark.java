@@ -0,0 +1,96 @@
+package com.shiftmanagement.app_core.benchmarks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+import com.shiftmanagement.app_core.model.User;
+
+/**
+ * Jackson encoding and decoding of Shift and User lists, with the mapper Spring configures for the API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int size;
+
+    private ObjectMapper mapper;
+    private ObjectReader shiftListReader;
+    private ObjectReader userListReader;
+    private List<Shift> shifts;
+    private List<User> users;
+    private byte[] shiftsJson;
+    private byte[] usersJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        shiftListReader = mapper.readerFor(new TypeReference<List<Shift>>() { });
+        userListReader = mapper.readerFor(new TypeReference<List<User>>() { });
+
+        LocalDateTime createdAt = LocalDateTime.of(2025, 5, 12, 8, 0);
+        shifts = new ArrayList<>(size);
+        users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String numberId = String.valueOf(1_000_000 + i);
+            Shift shift = new Shift(numberId, i % 3 == 0 ? "Psicologia" : "Medicina General", i % 10 == 0);
+            shift.setId(String.format("%024x", i));
+            shift.setTurnCode((i % 3 == 0 ? "PS-" : "MG-") + i);
+            shift.setStatus(ShiftStatus.ASSIGNED);
+            shift.setCreatedAt(createdAt.plusSeconds(i));
+            shift.setServiceDate(LocalDate.of(2025, 5, 12));
+            shift.setUsername("user" + i);
+            shift.setUserRole("STUDENT");
+            shifts.add(shift);
+            users.add(new User("user" + i, numberId, "STUDENT", "secret" + i));
+        }
+        shiftsJson = mapper.writeValueAsBytes(shifts);
+        usersJson = mapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] encodeShifts() throws Exception {
+        return mapper.writeValueAsBytes(shifts);
+    }
+
+    @Benchmark
+    public List<Shift> decodeShifts() throws Exception {
+        return shiftListReader.readValue(shiftsJson);
+    }
+
+    @Benchmark
+    public byte[] encodeUsers() throws Exception {
+        return mapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public List<User> decodeUsers() throws Exception {
+        return userListReader.readValue(usersJson);
+    }
+}
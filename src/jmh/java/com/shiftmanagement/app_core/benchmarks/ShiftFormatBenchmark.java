@@ -0,0 +1,100 @@
+package com.shiftmanagement.app_core.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+
+/**
+ * Encoding time of a list of shifts in each response format, with and without Blackbird,
+ * and the cost of gzip on top. The bytes on the wire of every combination are printed once
+ * at setup, so they appear next to the timings in the run log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShiftFormatBenchmark {
+
+    @Param({ "json", "cbor", "smile" })
+    public String format;
+
+    @Param({ "true", "false" })
+    public boolean blackbird;
+
+    @Param({ "1000", "10000" })
+    public int size;
+
+    private ObjectMapper mapper;
+    private List<Shift> shifts;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json().factory(switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        });
+        if (blackbird) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        mapper = builder.build();
+
+        LocalDateTime createdAt = LocalDateTime.of(2025, 5, 12, 8, 0);
+        shifts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Shift shift = new Shift(String.valueOf(1_000_000 + i), i % 3 == 0 ? "Psicologia" : "Medicina General", i % 10 == 0);
+            shift.setId(String.format("%024x", i));
+            shift.setTurnCode((i % 3 == 0 ? "PS-" : "MG-") + i);
+            shift.setStatus(ShiftStatus.ASSIGNED);
+            shift.setCreatedAt(createdAt.plusSeconds(i));
+            shift.setServiceDate(LocalDate.of(2025, 5, 12));
+            shift.setUsername("user" + i);
+            shift.setUserRole("STUDENT");
+            shifts.add(shift);
+        }
+        System.out.printf("%n%s, %d shifts: %d bytes, %d bytes gzipped%n",
+            format, size, encode().length, encodeGzip().length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(shifts);
+    }
+
+    @Benchmark
+    public byte[] encodeGzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            mapper.writeValue(gzip, shifts);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,61 @@
+package com.shiftmanagement.app_core.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.shiftmanagement.app_core.model.Prefix;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+
+/**
+ * Prefix resolution and turn-code formatting done by ShiftService.generateShift,
+ * and the status state machine checked on every transition.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TurnCodeBenchmark {
+
+    private static final ShiftStatus[] STATUSES = ShiftStatus.values();
+
+    @Param({ "Psicologia", "Medicina General", "Odontologia" })
+    public String specialty;
+
+    private long number;
+
+    @Benchmark
+    public Prefix resolvePrefix() {
+        return Prefix.forSpecialty(specialty);
+    }
+
+    @Benchmark
+    public String formatTurnCode() {
+        return Prefix.forSpecialty(specialty) + "-" + ++number;
+    }
+
+    /** Every from/to pair of the state machine, the work of one batch of 16 transition checks. */
+    @Benchmark
+    public int checkTransitions() {
+        int allowed = 0;
+        for (ShiftStatus from : STATUSES) {
+            for (ShiftStatus to : STATUSES) {
+                if (from.canTransitionTo(to)) {
+                    allowed++;
+                }
+            }
+        }
+        return allowed;
+    }
+}
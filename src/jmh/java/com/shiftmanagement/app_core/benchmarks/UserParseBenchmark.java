@@ -0,0 +1,50 @@
+package com.shiftmanagement.app_core.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shiftmanagement.app_core.model.User;
+
+/**
+ * The parse UserService does for every user lookup, against a shared mapper reading the bytes directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserParseBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private byte[] userJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        userJson = mapper.writeValueAsBytes(new User("user", "1000000", "STUDENT", "secret"));
+    }
+
+    /** Bytes to String, then a new ObjectMapper, as in UserService.fetchUser. */
+    @Benchmark
+    public User newMapperPerCall() throws Exception {
+        String jsonResponse = new String(userJson, StandardCharsets.UTF_8);
+        return new ObjectMapper().readValue(jsonResponse, User.class);
+    }
+
+    @Benchmark
+    public User sharedMapper() throws Exception {
+        return mapper.readValue(userJson, User.class);
+    }
+}
@@ -0,0 +1,124 @@
+package com.shiftmanagement.app_core.repository;
+
+import java.net.InetSocketAddress;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.shiftmanagement.app_core.Config.MongoIndexConfig;
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+import com.shiftmanagement.app_core.model.StatusTransition;
+import com.shiftmanagement.app_core.model.TransitionResult;
+import com.shiftmanagement.app_core.services.ServiceDayProvider;
+import com.shiftmanagement.app_core.services.ShiftMetrics;
+import com.shiftmanagement.app_core.services.ShiftService;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Time to cancel a full batch of waiting shifts at closing time through changeShiftStatuses: the
+ * read by turn code, the bulk of conditional updates and the results, with the application's indexes.
+ * It runs against the MongoDB in MONGODB_TEST_URI when set, and an in-memory server otherwise. The
+ * in-memory server scans its documents for every conditional update, so only the first gives a
+ * figure to hold against a latency target. It sits in this package because the repository
+ * implementation is package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BulkTransitionBenchmark {
+
+    private static final int SHIFTS = ShiftService.MAX_BATCH_SIZE;
+
+    private MongoServer server;
+    private MongoClient client;
+    private ReactiveMongoTemplate template;
+    private LocalDate today;
+    private ShiftService shiftService;
+    private List<StatusTransition> closing;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String uri = System.getenv("MONGODB_TEST_URI");
+        if (uri == null) {
+            server = new MongoServer(new MemoryBackend());
+            InetSocketAddress address = server.bind();
+            uri = "mongodb://" + address.getHostString() + ":" + address.getPort();
+        }
+        client = MongoClients.create(uri);
+        template = new ReactiveMongoTemplate(client, "BulkTransitionBenchmark");
+        new MongoIndexConfig(template, (MongoMappingContext) template.getConverter().getMappingContext())
+            .ensureIndexes(template.getCollectionName(Shift.class))
+            .blockLast();
+        ShiftRepository shiftRepository = new ReactiveMongoRepositoryFactory(template)
+            .getRepository(ShiftRepository.class, RepositoryFragments.just(new ShiftRepositoryCustomImpl(template)));
+        ServiceDayProvider serviceDayProvider = new ServiceDayProvider(Clock.systemDefaultZone());
+        today = serviceDayProvider.today();
+        shiftService = new ShiftService(shiftRepository, null, null, serviceDayProvider, null, List.of(),
+            new ShiftMetrics(new SimpleMeterRegistry()));
+        closing = IntStream.rangeClosed(1, SHIFTS)
+            .mapToObj(i -> new StatusTransition("PS-" + i, ShiftStatus.CANCELED))
+            .toList();
+    }
+
+    @Setup(Level.Invocation)
+    public void fillTheDay() {
+        List<Shift> waiting = IntStream.rangeClosed(1, SHIFTS).mapToObj(i -> {
+            Shift shift = new Shift(String.valueOf(1_000_000 + i), "Psicologia", false);
+            shift.setTurnCode("PS-" + i);
+            shift.setStatus(ShiftStatus.ASSIGNED);
+            shift.setServiceDate(today);
+            return shift;
+        }).toList();
+        template.remove(new Query(), Shift.class)
+            .thenMany(template.insertAll(waiting))
+            .blockLast();
+    }
+
+    @Benchmark
+    public List<TransitionResult> cancelAtClosingTime() {
+        List<TransitionResult> results = shiftService.changeShiftStatuses(closing).block();
+        if (results.stream().anyMatch(result -> !result.applied())) {
+            throw new IllegalStateException("Not every transition was applied");
+        }
+        return results;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        template.getMongoDatabase().flatMap(db -> Mono.from(db.drop())).block();
+        client.close();
+        if (server != null) {
+            server.shutdownNow();
+        }
+    }
+}
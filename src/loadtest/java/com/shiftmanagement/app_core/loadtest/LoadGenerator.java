@@ -0,0 +1,99 @@
+package com.shiftmanagement.app_core.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import com.shiftmanagement.app_core.loadtest.Scenario.Load;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Open-model load generator. Requests are sent on a fixed schedule and never wait for earlier
+ * answers, and each latency is measured from the time the request was due, not the time it was
+ * sent, so a slow server shows up in the percentiles instead of lowering the offered load.
+ */
+final class LoadGenerator {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private LoadGenerator() {
+    }
+
+    static Map<String, EndpointResult> run(Scenario scenario) {
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        Scheduler ticks = Schedulers.newSingle("load-ticks");
+        try {
+            long start = System.nanoTime();
+            Flux.fromIterable(scenario.loads())
+                .flatMap(load -> drive(load, start, scenario.duration(), ticks,
+                    stats.computeIfAbsent(load.endpoint(), endpoint -> new EndpointStats())))
+                .then()
+                .block();
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            Map<String, EndpointResult> results = new LinkedHashMap<>();
+            stats.forEach((endpoint, endpointStats) -> results.put(endpoint, endpointStats.result(seconds)));
+            return results;
+        } finally {
+            ticks.dispose();
+        }
+    }
+
+    private static Mono<Void> drive(Load load, long start, Duration duration, Scheduler ticks, EndpointStats stats) {
+        long interval = load.interval().toNanos();
+        long count = duration.toNanos() / interval;
+        return Flux.interval(Duration.ZERO, load.interval(), ticks)
+            .take(count)
+            .onBackpressureBuffer()
+            .flatMap(n -> {
+                long due = start + n * interval;
+                return Mono.defer(() -> load.request().apply(n).exchangeToMono(response -> response.releaseBody()
+                        .thenReturn(response.statusCode().value())))
+                    .onErrorReturn(0)
+                    .doOnNext(status -> stats.record(status, System.nanoTime() - due));
+            }, Integer.MAX_VALUE)
+            .then();
+    }
+
+    private static final class EndpointStats {
+
+        private final Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 3);
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+
+        void record(int status, long latencyNanos) {
+            recorder.recordValue(Math.min(MAX_LATENCY_MICROS, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+            if (status == 0 || status >= 500) {
+                serverErrors.increment();
+            } else if (status >= 400) {
+                clientErrors.increment();
+            }
+        }
+
+        EndpointResult result(double seconds) {
+            Histogram histogram = recorder.getIntervalHistogram();
+            return new EndpointResult(histogram, histogram.getTotalCount() / seconds,
+                clientErrors.sum(), serverErrors.sum());
+        }
+    }
+
+    /**
+     * What one endpoint got during the run.
+     *
+     * @param latencies latencies in microseconds, from the due time of each request
+     * @param throughput completed requests per second
+     * @param clientErrors answers with a 4xx status
+     * @param serverErrors answers with a 5xx status, and requests that failed without an answer
+     */
+    record EndpointResult(Histogram latencies, double throughput, long clientErrors, long serverErrors) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.shiftmanagement.app_core.loadtest;
+
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.shiftmanagement.app_core.AppCoreApplication;
+import com.shiftmanagement.app_core.loadtest.LoadGenerator.EndpointResult;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Runs a load test scenario against the app started in this JVM, backed by an in-memory MongoDB
+ * and a stub of the user service, and prints throughput, latency percentiles and errors per endpoint.
+ * <p>
+ * Usage: {@code mvn -Ploadtest -DskipTests verify -Dloadtest.scenario=mondayRush}. The latency of the
+ * user service stub is set with {@code -Dloadtest.user-service-latency=50ms} and the run length of
+ * the scenario can be overridden with {@code -Dloadtest.duration=1m}.
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) {
+        String name = args.length > 0 ? args[0] : "mondayRush";
+        Function<WebClient, Scenario> factory = Scenarios.all().get(name);
+        if (factory == null) {
+            throw new IllegalArgumentException("Unknown scenario " + name + ", expected one of " + Scenarios.all().keySet());
+        }
+        Duration latency = DurationStyle.detectAndParse(System.getProperty("loadtest.user-service-latency", "50ms"));
+
+        MongoServer mongo = new MongoServer(new MemoryBackend());
+        InetSocketAddress mongoAddress = mongo.bind();
+        try (UserServiceStub userService = UserServiceStub.start(latency);
+             ConfigurableApplicationContext app = new SpringApplicationBuilder(AppCoreApplication.class)
+                 .run(
+                     "--server.port=0",
+                     "--spring.data.mongodb.uri=mongodb://" + mongoAddress.getHostString() + ":" + mongoAddress.getPort(),
+                     "--spring.data.mongodb.database=LoadTest",
+                     "--api.auth.url=" + userService.url(),
+                     "--app.archive.enabled=false",
+                     "--spring.main.banner-mode=off",
+                     "--logging.level.root=WARN",
+                     "--logging.level.de.bwaldvogel=ERROR")) {
+
+            String port = app.getEnvironment().getProperty("local.server.port");
+            ConnectionProvider connections = ConnectionProvider.builder("loadtest")
+                .maxConnections(2_000)
+                .pendingAcquireMaxCount(-1)
+                .build();
+            WebClient client = WebClient.builder()
+                .baseUrl("http://127.0.0.1:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+
+            Scenario scenario = factory.apply(client);
+            String duration = System.getProperty("loadtest.duration");
+            if (duration != null) {
+                scenario = new Scenario(scenario.name(), DurationStyle.detectAndParse(duration), scenario.loads());
+            }
+            System.out.printf("Running %s for %s, user service latency %s%n", scenario.name(), scenario.duration(), latency);
+            report(scenario, LoadGenerator.run(scenario), System.out);
+            connections.disposeLater().block();
+        } finally {
+            mongo.shutdownNow();
+        }
+    }
+
+    private static void report(Scenario scenario, Map<String, EndpointResult> results, PrintStream out) {
+        out.printf("%n%-46s %9s %9s %10s %10s %10s %10s %7s %7s%n",
+            "Endpoint (" + scenario.name() + ")", "Requests", "Req/s", "p50 ms", "p99 ms", "p99.9 ms", "Max ms", "4xx %", "5xx %");
+        results.forEach((endpoint, result) -> {
+            long total = result.latencies().getTotalCount();
+            out.printf("%-46s %9d %9.1f %10.2f %10.2f %10.2f %10.2f %7.2f %7.2f%n",
+                endpoint, total, result.throughput(),
+                millis(result, 50), millis(result, 99), millis(result, 99.9),
+                result.latencies().getMaxValue() / 1000.0,
+                percent(result.clientErrors(), total), percent(result.serverErrors(), total));
+        });
+    }
+
+    private static double millis(EndpointResult result, double percentile) {
+        return result.latencies().getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static double percent(long count, long total) {
+        return total == 0 ? 0 : 100.0 * count / total;
+    }
+}
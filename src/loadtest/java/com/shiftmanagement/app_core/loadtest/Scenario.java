@@ -0,0 +1,31 @@
+package com.shiftmanagement.app_core.loadtest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * A load test run: for how long, and which request streams are injected at which rates.
+ *
+ * @param name the scenario name, used on the command line
+ * @param duration how long requests are injected
+ * @param loads the request streams, each one at its own constant arrival rate
+ */
+record Scenario(String name, Duration duration, List<Load> loads) {
+
+    /**
+     * One stream of requests arriving at a constant rate, whether or not earlier ones have answered.
+     *
+     * @param endpoint the name the results are reported under
+     * @param perSecond arrivals per second
+     * @param request builds the n-th request of the stream
+     */
+    record Load(String endpoint, double perSecond, LongFunction<WebClient.RequestHeadersSpec<?>> request) {
+
+        Duration interval() {
+            return Duration.ofNanos(Math.round(1_000_000_000 / perSecond));
+        }
+    }
+}
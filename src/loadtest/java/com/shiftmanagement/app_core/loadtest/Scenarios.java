@@ -0,0 +1,71 @@
+package com.shiftmanagement.app_core.loadtest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.shiftmanagement.app_core.loadtest.Scenario.Load;
+
+/**
+ * The scenarios that can be run, by name. Rates are per second.
+ */
+final class Scenarios {
+
+    private static final String[] SPECIALTIES = { "Psicologia", "Medicina General", "Odontologia" };
+
+    private Scenarios() {
+    }
+
+    static Map<String, Function<WebClient, Scenario>> all() {
+        return Map.of(
+            "mondayRush", Scenarios::mondayRush,
+            "smoke", Scenarios::smoke);
+    }
+
+    /**
+     * Monday morning: 2000 shifts created per minute, 200 public screens polling the board every
+     * 5 seconds, and 3 desks per specialty calling the next shift every 20 seconds.
+     */
+    static Scenario mondayRush(WebClient client) {
+        return new Scenario("mondayRush", Duration.ofMinutes(5), List.of(
+            create(client, 2000 / 60.0),
+            board(client, 200 / 5.0),
+            callNext(client, 3 * SPECIALTIES.length / 20.0)));
+    }
+
+    /** A short, light run to check the harness end to end. */
+    static Scenario smoke(WebClient client) {
+        return new Scenario("smoke", Duration.ofSeconds(20), List.of(
+            create(client, 10),
+            board(client, 5),
+            callNext(client, 1)));
+    }
+
+    private static Load create(WebClient client, double perSecond) {
+        return new Load("POST /api/shifts", perSecond, n -> client.post()
+            .uri("/api/shifts")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(Map.of(
+                "userId", String.valueOf(1_000_000 + n % 50_000),
+                "specialty", specialty(n),
+                "specialPriority", n % 10 == 0)));
+    }
+
+    private static Load board(WebClient client, double perSecond) {
+        return new Load("GET /api/shifts/board/specialty/{specialty}", perSecond, n -> client.get()
+            .uri("/api/shifts/board/specialty/{specialty}", specialty(n)));
+    }
+
+    private static Load callNext(WebClient client, double perSecond) {
+        return new Load("POST /api/shifts/specialty/{specialty}/next", perSecond, n -> client.post()
+            .uri("/api/shifts/specialty/{specialty}/next", specialty(n)));
+    }
+
+    private static String specialty(long n) {
+        return SPECIALTIES[(int) (n % SPECIALTIES.length)];
+    }
+}
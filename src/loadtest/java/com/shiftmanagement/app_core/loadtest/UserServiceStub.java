@@ -0,0 +1,63 @@
+package com.shiftmanagement.app_core.loadtest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * In-process stand-in for the external user service: the login endpoint and the user lookup,
+ * each answering after a fixed injected latency.
+ */
+final class UserServiceStub implements AutoCloseable {
+
+    private final DisposableServer server;
+
+    private UserServiceStub(DisposableServer server) {
+        this.server = server;
+    }
+
+    static UserServiceStub start(Duration latency) {
+        String token = token();
+        DisposableServer server = HttpServer.create()
+            .host("127.0.0.1")
+            .port(0)
+            .route(routes -> routes
+                .post("/user-service/login", (request, response) -> request.receive().then()
+                    .then(Mono.delay(latency))
+                    .then(response.header("Content-Type", "application/json")
+                        .sendString(Mono.just("{\"token\":\"" + token + "\"}")).then()))
+                .get("/user-service/users/by-number-id/{id}", (request, response) -> Mono.delay(latency)
+                    .then(response.header("Content-Type", "application/json")
+                        .sendString(Mono.just(user(request.param("id")))).then())))
+            .bindNow();
+        return new UserServiceStub(server);
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private static String user(String id) {
+        return "{\"userName\":\"user" + id + "\",\"numberId\":\"" + id
+            + "\",\"role\":\"STUDENT\",\"password\":\"secret\"}";
+    }
+
+    /** An unsigned JWT valid for a day, so the app never refreshes it during a run. */
+    private static String token() {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        long exp = Instant.now().plus(Duration.ofDays(1)).getEpochSecond();
+        return encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8))
+            + "." + encoder.encodeToString(("{\"sub\":\"loadtest\",\"exp\":" + exp + "}").getBytes(StandardCharsets.UTF_8))
+            + ".sig";
+    }
+}
@@ -3,8 +3,10 @@ package com.shiftmanagement.app_core;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 @EnableReactiveMongoRepositories(basePackages = "com.shiftmanagement.app_core.repository")
 public class AppCoreApplication {
 
@@ -0,0 +1,168 @@
+package com.shiftmanagement.app_core.Config;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Caps the number of concurrent requests to {@code /api/shifts/**} with a limit that adapts to
+ * the observed latency, so an overloaded app answers some requests fast with a 503 instead of
+ * answering all of them late.
+ * <p>
+ * Requests are admitted by priority. Status changes, calling the next shift and creating shifts
+ * may use the whole limit; single reads and board screens only 90% of it, and list reads and
+ * exports 75%, so under overload the bulk reads are shed first and the desks keep working.
+ * The event stream is not limited, since its connections stay open by design.
+ * <p>
+ * The filter runs after the Spring Security chain, so requests without a valid token are rejected
+ * before they take a slot.
+ */
+@Component
+@Order(AdaptiveConcurrencyFilter.ORDER)
+public class AdaptiveConcurrencyFilter implements WebFilter {
+
+    /** Right after Spring Security's WebFilterChainProxy, registered at order -100. */
+    public static final int ORDER = -100 + 10;
+
+    public static final String LIMIT_GAUGE = "shifts.concurrency.limit";
+    public static final String IN_FLIGHT_GAUGE = "shifts.concurrency.in-flight";
+    public static final String SHED_COUNTER = "shifts.concurrency.shed";
+
+    private static final String API_PREFIX = "/api/shifts";
+    private static final String EVENT_STREAM_PATH = "/api/shifts/stream";
+
+    public enum Priority {
+        CRITICAL(1.0),
+        NORMAL(0.9),
+        BULK(0.75);
+
+        private final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+    }
+
+    private final boolean enabled;
+    private final GradientLimit limit;
+    private final String retryAfterSeconds;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<Priority, Counter> shed = new EnumMap<>(Priority.class);
+
+    public AdaptiveConcurrencyFilter(MeterRegistry meterRegistry,
+                                     @Value("${app.concurrency.enabled:true}") boolean enabled,
+                                     @Value("${app.concurrency.initial-limit:100}") int initialLimit,
+                                     @Value("${app.concurrency.min-limit:10}") int minLimit,
+                                     @Value("${app.concurrency.max-limit:1000}") int maxLimit,
+                                     @Value("${app.concurrency.retry-after:1s}") Duration retryAfter) {
+        this.enabled = enabled;
+        this.limit = new GradientLimit(initialLimit, minLimit, maxLimit, 1000);
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+
+        Gauge.builder(LIMIT_GAUGE, limit, GradientLimit::getLimit)
+            .description("Current adaptive limit of concurrent shift API requests")
+            .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_GAUGE, inFlight, AtomicInteger::get)
+            .description("Shift API requests in flight")
+            .register(meterRegistry);
+        for (Priority priority : Priority.values()) {
+            shed.put(priority, Counter.builder(SHED_COUNTER)
+                .description("Shift API requests rejected with 503 by the concurrency limit")
+                .tag("priority", priority.name().toLowerCase())
+                .register(meterRegistry));
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        if (!enabled || !path.startsWith(API_PREFIX) || path.startsWith(EVENT_STREAM_PATH)) {
+            return chain.filter(exchange);
+        }
+        Priority priority = priorityOf(exchange.getRequest(), path);
+        int startedWith = tryAcquire(priority);
+        if (startedWith < 0) {
+            shed.get(priority).increment();
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return exchange.getResponse().setComplete();
+        }
+        // long exports would only teach the limit that the service is slow
+        boolean sampled = !exchange.getRequest().getHeaders().getAccept().contains(MediaType.APPLICATION_NDJSON);
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+            .doFinally(signal -> {
+                inFlight.decrementAndGet();
+                if (sampled && signal != SignalType.CANCEL) {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    boolean dropped = signal == SignalType.ON_ERROR
+                        || status != null && status.value() == HttpStatus.SERVICE_UNAVAILABLE.value();
+                    limit.onSample(System.nanoTime() - start, startedWith, dropped);
+                }
+            });
+    }
+
+    /**
+     * Takes a slot if the requests in flight leave room for this priority.
+     *
+     * @return the number of requests in flight counting this one, or -1 if it must be shed
+     */
+    private int tryAcquire(Priority priority) {
+        int allowed = Math.max(1, (int) (limit.getLimit() * priority.share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    private static Priority priorityOf(ServerHttpRequest request, String path) {
+        HttpMethod method = request.getMethod();
+        if (HttpMethod.PUT.equals(method) || HttpMethod.PATCH.equals(method)
+            || HttpMethod.POST.equals(method) && (path.equals(API_PREFIX) || path.endsWith("/next"))) {
+            return Priority.CRITICAL;
+        }
+        if (HttpMethod.GET.equals(method) && (path.equals(API_PREFIX) || path.startsWith(API_PREFIX + "/role/")
+            || path.startsWith(API_PREFIX + "/user/") || path.startsWith(API_PREFIX + "/status/")
+            || path.startsWith(API_PREFIX + "/priority/") || path.startsWith(API_PREFIX + "/history")
+            || path.startsWith(API_PREFIX + "/specialty/") && !path.endsWith("/next"))) {
+            return Priority.BULK;
+        }
+        if (HttpMethod.POST.equals(method) && path.startsWith(API_PREFIX + "/batch")) {
+            return Priority.BULK;
+        }
+        return Priority.NORMAL;
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,103 @@
+package com.shiftmanagement.app_core.Config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+/**
+ * Verifies a token once and serves its claims from memory while it stays valid. Entries are keyed by
+ * the SHA-256 of the token, so raw tokens are never held, and expire after the TTL or at the exp claim
+ * of the token, whichever comes first. Concurrent requests with the same token share one verification,
+ * and tokens that fail are not kept, so a later attempt is verified again.
+ */
+public class CachingJwtDecoder implements ReactiveJwtDecoder, MeterBinder {
+
+    public static final String CACHE_NAME = "verified-tokens";
+
+    private final ReactiveJwtDecoder delegate;
+    private final AsyncCache<String, Verification> cache;
+
+    public CachingJwtDecoder(ReactiveJwtDecoder delegate, int maxEntries, Duration ttl, Clock clock) {
+        this.delegate = delegate;
+        this.cache = maxEntries <= 0 || ttl.isZero() || ttl.isNegative() ? null : Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfter(new UntilExpiry(ttl, clock))
+            .recordStats()
+            .buildAsync();
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) {
+        if (cache == null) {
+            return delegate.decode(token);
+        }
+        return Mono.fromFuture(cache.get(hash(token), (key, executor) -> delegate.decode(token)
+                .map(jwt -> new Verification(jwt, null))
+                .onErrorResume(error -> Mono.just(new Verification(null, error)))
+                .toFuture()), true)
+            .flatMap(verification -> verification.error() != null
+                ? Mono.error(verification.error())
+                : Mono.justOrEmpty(verification.jwt()));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache != null) {
+            CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+        }
+    }
+
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /** A rejected token is kept as its error, so callers waiting on it share the outcome; it expires at once. */
+    private record Verification(Jwt jwt, Throwable error) {
+    }
+
+    private record UntilExpiry(Duration ttl, Clock clock) implements Expiry<String, Verification> {
+
+        @Override
+        public long expireAfterCreate(String key, Verification verification, long currentTime) {
+            Jwt jwt = verification.jwt();
+            if (jwt == null) {
+                return 0;
+            }
+            if (jwt.getExpiresAt() == null) {
+                return ttl.toNanos();
+            }
+            Duration left = Duration.between(clock.instant(), jwt.getExpiresAt());
+            return left.isNegative() ? 0 : Math.min(ttl.toNanos(), left.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Verification verification, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Verification verification, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
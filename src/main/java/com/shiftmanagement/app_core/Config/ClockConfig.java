@@ -0,0 +1,21 @@
+package com.shiftmanagement.app_core.Config;
+
+import java.time.Clock;
+import java.time.ZoneId;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Provides the application {@link Clock}, set to the campus time zone so that
+ * service days roll over at local midnight regardless of the host time zone.
+ */
+@Configuration
+public class ClockConfig {
+
+    @Bean
+    Clock clock(@Value("${app.campus.time-zone:America/Bogota}") String timeZone) {
+        return Clock.system(ZoneId.of(timeZone));
+    }
+}
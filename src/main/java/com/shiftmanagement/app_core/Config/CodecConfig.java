@@ -0,0 +1,109 @@
+package com.shiftmanagement.app_core.Config;
+
+import java.util.List;
+import java.util.Map;
+
+import org.reactivestreams.Publisher;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.AbstractJackson2Encoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeType;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Jackson setup shared by the API and the user service clients. Boot builds a single
+ * {@link ObjectMapper} with every {@link Module} bean, so adding Blackbird here makes all JSON
+ * go through generated accessors instead of reflection.
+ * <p>
+ * Kiosks and screens may also ask for CBOR or Smile with the Accept header. Both binary formats
+ * use a mapper built from the same Boot builder, so they share modules and settings with JSON.
+ */
+@Configuration
+public class CodecConfig {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    public CodecCustomizer binaryCodecs(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper smileMapper = builder.factory(new SmileFactory()).build();
+        ObjectMapper cborMapper = builder.factory(new CBORFactory()).build();
+        // without explicit types the Jackson codecs claim the JSON ones
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileEncoder(new SmileArrayEncoder(smileMapper));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, APPLICATION_SMILE));
+            configurer.customCodecs().register(new CborArrayEncoder(cborMapper));
+            configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR));
+        };
+    }
+
+    /**
+     * The CBOR encoder of Spring only writes single values; this one writes a Flux as one CBOR array,
+     * like the JSON encoder does.
+     */
+    static class CborArrayEncoder extends Jackson2CborEncoder {
+
+        CborArrayEncoder(ObjectMapper mapper) {
+            super(mapper, MediaType.APPLICATION_CBOR);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+            return encodeAsArray(this, inputStream, bufferFactory, elementType, mimeType, hints);
+        }
+    }
+
+    /**
+     * The Smile encoder of Spring joins the elements of a Flux with JSON brackets and commas, which
+     * Smile readers cannot parse; this one writes them as one Smile array.
+     */
+    static class SmileArrayEncoder extends Jackson2SmileEncoder {
+
+        SmileArrayEncoder(ObjectMapper mapper) {
+            super(mapper, APPLICATION_SMILE);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+            return encodeAsArray(this, inputStream, bufferFactory, elementType, mimeType, hints);
+        }
+    }
+
+    private static Flux<DataBuffer> encodeAsArray(AbstractJackson2Encoder encoder, Publisher<?> inputStream,
+                                                  DataBufferFactory bufferFactory, ResolvableType elementType,
+                                                  MimeType mimeType, Map<String, Object> hints) {
+        if (inputStream instanceof Mono<?> mono) {
+            return mono.map(value -> encoder.encodeValue(value, bufferFactory, elementType, mimeType, hints)).flux();
+        }
+        ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+        return Flux.from(inputStream)
+            .collectList()
+            .map(list -> encoder.encodeValue(list, bufferFactory, listType, mimeType, hints))
+            .flux();
+    }
+}
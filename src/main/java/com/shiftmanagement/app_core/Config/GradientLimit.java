@@ -0,0 +1,79 @@
+package com.shiftmanagement.app_core.Config;
+
+/**
+ * Concurrency limit that adapts to the observed latency, in the style of the gradient limit of
+ * TCP congestion control. The limit follows the ratio between the best latency seen recently
+ * and the current smoothed latency: when requests start to queue that ratio drops below 1 and
+ * the limit shrinks, and while latency stays near the best one the limit grows by a small
+ * queue allowance. Failures back the limit off at once.
+ * <p>
+ * The best latency is forgotten every {@code probeInterval} samples, so the limit can recover
+ * when the normal latency of the service changes.
+ * <p>
+ * Samples are folded in under a lock, and each one publishes the resulting limit through a volatile
+ * field, so reading the limit, which every admitted request does, never waits for that lock.
+ */
+public class GradientLimit {
+
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int probeInterval;
+
+    // guarded by this; the limit read by requests is the volatile copy
+    private double limit;
+    private volatile int publishedLimit;
+    private double smoothedRttNanos;
+    private long minRttNanos = Long.MAX_VALUE;
+    private long samples;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit, int probeInterval) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("The limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.limit = initialLimit;
+        this.publishedLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.probeInterval = probeInterval;
+    }
+
+    /**
+     * @return the current limit of concurrent requests
+     */
+    public int getLimit() {
+        return publishedLimit;
+    }
+
+    /**
+     * Records one completed request.
+     *
+     * @param rttNanos how long the request took
+     * @param inFlight how many requests were in flight when it started
+     * @param dropped whether it failed because the service is overloaded
+     */
+    public synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (dropped) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            publishedLimit = (int) limit;
+            return;
+        }
+        if (++samples % probeInterval == 0) {
+            minRttNanos = Long.MAX_VALUE;
+        }
+        minRttNanos = Math.min(minRttNanos, rttNanos);
+        smoothedRttNanos = smoothedRttNanos == 0 ? rttNanos : smoothedRttNanos * (1 - SMOOTHING) + rttNanos * SMOOTHING;
+
+        // an app that is not using its limit says nothing about whether it can take more
+        if (inFlight < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, minRttNanos / smoothedRttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+        publishedLimit = (int) limit;
+    }
+}
@@ -0,0 +1,112 @@
+package com.shiftmanagement.app_core.Config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
+
+/**
+ * Local validation of the bearer tokens issued by the user service, under {@code app.security.jwt}.
+ * Disabled by default, in which case the API stays open and identity is looked up remotely.
+ */
+@ConfigurationProperties(prefix = "app.security.jwt")
+public class JwtProperties {
+
+    /** Whether requests to the API must carry a bearer token, verified locally. */
+    private boolean enabled = false;
+
+    /** PEM file with the RSA public key of the issuer. */
+    private Resource publicKeyLocation;
+
+    /** JWKS file with the public keys of the issuer; used instead of the public key when both are set. */
+    private Resource jwkSetLocation;
+
+    /** JWS algorithm the tokens are signed with. */
+    private String algorithm = "RS256";
+
+    /** Expected iss claim; any issuer is accepted when empty. */
+    private String issuer;
+
+    /** Roles allowed to change the status of shifts, call the next one and delete them. */
+    private List<String> staffRoles = List.of("ADMIN", "DOCTOR");
+
+    private final Cache cache = new Cache();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Resource getPublicKeyLocation() {
+        return publicKeyLocation;
+    }
+
+    public void setPublicKeyLocation(Resource publicKeyLocation) {
+        this.publicKeyLocation = publicKeyLocation;
+    }
+
+    public Resource getJwkSetLocation() {
+        return jwkSetLocation;
+    }
+
+    public void setJwkSetLocation(Resource jwkSetLocation) {
+        this.jwkSetLocation = jwkSetLocation;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public String getIssuer() {
+        return issuer;
+    }
+
+    public void setIssuer(String issuer) {
+        this.issuer = issuer;
+    }
+
+    public List<String> getStaffRoles() {
+        return staffRoles;
+    }
+
+    public void setStaffRoles(List<String> staffRoles) {
+        this.staffRoles = staffRoles;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public static class Cache {
+
+        /** Verified tokens kept at most; 0 verifies every request. */
+        private int maxEntries = 10_000;
+
+        /** Longest time a verified token is kept; never past its exp claim. */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.shiftmanagement.app_core.Config;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.repository.ShiftRepositoryCustom;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Creates the indexes declared on the persistent models once the application is ready.
+ * Index creation is idempotent, so existing indexes are left untouched on every restart.
+ * Each index is created on its own: one that cannot be built, for example a unique index over
+ * existing duplicates, is logged and does not keep the others from being created.
+ */
+@Configuration
+public class MongoIndexConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexConfig.class);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+
+    public MongoIndexConfig(ReactiveMongoTemplate mongoTemplate, MongoMappingContext mappingContext) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+    }
+
+    /**
+     * Ensures every index declared on {@link Shift} exists, on the hot collection and on the archive.
+     * Runs in the background so a slow database does not delay startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        for (String collection : List.of(mongoTemplate.getCollectionName(Shift.class), ShiftRepositoryCustom.ARCHIVE_COLLECTION)) {
+            ensureIndexes(collection).subscribe(name -> log.info("Index {} is in place on {}", name, collection));
+        }
+    }
+
+    /**
+     * Creates the indexes declared on {@link Shift}, including the unique one on specialty, service day
+     * and turn code, on one collection. The unique index only covers shifts with a service day, since
+     * shifts stored before it existed repeat their turn codes every day.
+     * Indexes are built one after another; a failed one is logged and skipped.
+     *
+     * @param collection the collection to index
+     * @return a Flux with the name of each index once it is in place, without the ones that failed
+     */
+    public Flux<String> ensureIndexes(String collection) {
+        return Flux.fromIterable(IndexResolver.create(mappingContext).resolveIndexFor(Shift.class))
+            .concatMap(index -> mongoTemplate.indexOps(collection).ensureIndex(index)
+                .onErrorResume(e -> {
+                    log.error("Could not create the index {} on {}", index.getIndexOptions().get("name"), collection, e);
+                    return Mono.empty();
+                }));
+    }
+}
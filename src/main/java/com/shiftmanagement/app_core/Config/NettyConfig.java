@@ -0,0 +1,84 @@
+package com.shiftmanagement.app_core.Config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Event loops, server protocols and the outbound connection pool, as set in {@link NettyProperties}.
+ * The server and the user service client run on the same event loops, so a request and the remote
+ * calls it makes stay on one thread.
+ * <p>
+ * With metrics enabled Reactor Netty publishes, through the global Micrometer registry,
+ * the {@code reactor.netty.connection.provider.*} meters of the pool (tagged with its name),
+ * {@code reactor.netty.eventloop.pending.tasks}, and data and time meters of the server and the client.
+ */
+@Configuration
+@EnableConfigurationProperties(NettyProperties.class)
+public class NettyConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public LoopResources nettyLoopResources(NettyProperties properties) {
+        int threads = properties.getEventLoopThreads() > 0
+            ? properties.getEventLoopThreads()
+            : LoopResources.DEFAULT_IO_WORKER_COUNT;
+        return LoopResources.create("shifts-netty", threads, true);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider userServiceConnectionProvider(NettyProperties properties) {
+        NettyProperties.Pool pool = properties.getClient().getPool();
+        return ConnectionProvider.builder(pool.getName())
+            .maxConnections(pool.getMaxConnections())
+            .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+            .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+            .maxIdleTime(pool.getMaxIdleTime())
+            .maxLifeTime(pool.getMaxLifeTime())
+            .evictInBackground(pool.getEvictInBackground())
+            .metrics(properties.isMetrics())
+            .build();
+    }
+
+    /**
+     * Applied after Boot's own settings, so these protocols replace the ones implied by server.http2.enabled.
+     */
+    @Bean
+    public WebServerFactoryCustomizer<NettyReactiveWebServerFactory> nettyServerTuning(NettyProperties properties,
+                                                                                        LoopResources nettyLoopResources) {
+        return factory -> factory.addServerCustomizers(server -> {
+            HttpServer tuned = server.runOn(nettyLoopResources)
+                .protocol(properties.getServer().getProtocols().toArray(HttpProtocol[]::new));
+            return properties.isMetrics() ? tuned.metrics(true, NettyConfig::uriTag) : tuned;
+        });
+    }
+
+    /**
+     * Reduces a request URI to its first two path segments, e.g. {@code /api/shifts} or
+     * {@code /user-service/users}, so ids and codes never become tag values.
+     *
+     * @param uri the path or absolute URI of a request
+     * @return the tag value
+     */
+    public static String uriTag(String uri) {
+        String path = uri;
+        int scheme = path.indexOf("://");
+        if (scheme >= 0) {
+            int start = path.indexOf('/', scheme + 3);
+            path = start < 0 ? "/" : path.substring(start);
+        }
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        int first = path.indexOf('/', 1);
+        int second = first < 0 ? -1 : path.indexOf('/', first + 1);
+        return second < 0 ? path : path.substring(0, second);
+    }
+}
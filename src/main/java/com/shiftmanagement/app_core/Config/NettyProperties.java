@@ -0,0 +1,185 @@
+package com.shiftmanagement.app_core.Config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import reactor.netty.http.HttpProtocol;
+
+/**
+ * Tuning of the Reactor Netty server and of the client used for the user service, under {@code app.netty}.
+ * The defaults keep HTTP/1.1 on both sides and bound the outbound pool well below the Reactor Netty
+ * defaults, which allow hundreds of connections and a 45 second wait for one.
+ */
+@ConfigurationProperties(prefix = "app.netty")
+public class NettyProperties {
+
+    /** Event-loop threads shared by the server and the client; 0 keeps the Reactor Netty default of one per core. */
+    private int eventLoopThreads = 0;
+
+    /** Whether the server, the client, their event loops and the connection pool publish Reactor Netty meters. */
+    private boolean metrics = true;
+
+    private final Server server = new Server();
+
+    private final Client client = new Client();
+
+    public int getEventLoopThreads() {
+        return eventLoopThreads;
+    }
+
+    public void setEventLoopThreads(int eventLoopThreads) {
+        this.eventLoopThreads = eventLoopThreads;
+    }
+
+    public boolean isMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(boolean metrics) {
+        this.metrics = metrics;
+    }
+
+    public Server getServer() {
+        return server;
+    }
+
+    public Client getClient() {
+        return client;
+    }
+
+    public static class Server {
+
+        /** Protocols accepted by the server: HTTP11, H2 (needs server.ssl) or H2C (cleartext, for local use or behind a proxy). */
+        private List<HttpProtocol> protocols = new ArrayList<>(List.of(HttpProtocol.HTTP11));
+
+        public List<HttpProtocol> getProtocols() {
+            return protocols;
+        }
+
+        public void setProtocols(List<HttpProtocol> protocols) {
+            this.protocols = protocols;
+        }
+    }
+
+    public static class Client {
+
+        /** Protocols offered to the user service: HTTP11, H2 (negotiated over TLS) or H2C. */
+        private List<HttpProtocol> protocols = new ArrayList<>(List.of(HttpProtocol.HTTP11));
+
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        /** Longest wait between reads of a response; the whole call is also bounded by the resilience timeouts. */
+        private Duration responseTimeout = Duration.ofSeconds(5);
+
+        private final Pool pool = new Pool();
+
+        public List<HttpProtocol> getProtocols() {
+            return protocols;
+        }
+
+        public void setProtocols(List<HttpProtocol> protocols) {
+            this.protocols = protocols;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getResponseTimeout() {
+            return responseTimeout;
+        }
+
+        public void setResponseTimeout(Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+        }
+
+        public Pool getPool() {
+            return pool;
+        }
+    }
+
+    public static class Pool {
+
+        /** Name of the pool, used as the name tag of its meters. */
+        private String name = "user-service";
+
+        private int maxConnections = 100;
+
+        /** Callers allowed to wait for a connection once all are in use; more fail at once. */
+        private int pendingAcquireMaxCount = 200;
+
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+
+        /** Idle connections are closed after this time, before the remote or a load balancer drops them. */
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+
+        /** Connections are replaced after this time, so DNS changes of the remote are picked up. */
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+
+        /** How often idle and expired connections are evicted in the background; zero evicts only on acquire. */
+        private Duration evictInBackground = Duration.ofSeconds(30);
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getPendingAcquireMaxCount() {
+            return pendingAcquireMaxCount;
+        }
+
+        public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) {
+            this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+        }
+
+        public Duration getPendingAcquireTimeout() {
+            return pendingAcquireTimeout;
+        }
+
+        public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+            this.pendingAcquireTimeout = pendingAcquireTimeout;
+        }
+
+        public Duration getMaxIdleTime() {
+            return maxIdleTime;
+        }
+
+        public void setMaxIdleTime(Duration maxIdleTime) {
+            this.maxIdleTime = maxIdleTime;
+        }
+
+        public Duration getMaxLifeTime() {
+            return maxLifeTime;
+        }
+
+        public void setMaxLifeTime(Duration maxLifeTime) {
+            this.maxLifeTime = maxLifeTime;
+        }
+
+        public Duration getEvictInBackground() {
+            return evictInBackground;
+        }
+
+        public void setEvictInBackground(Duration evictInBackground) {
+            this.evictInBackground = evictInBackground;
+        }
+    }
+}
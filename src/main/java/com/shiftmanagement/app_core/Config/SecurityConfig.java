@@ -1,34 +1,192 @@
 package com.shiftmanagement.app_core.Config;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.interfaces.RSAPublicKey;
+import java.text.ParseException;
+import java.time.Clock;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.converter.RsaKeyConverters;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.shiftmanagement.app_core.model.User;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Configuration class for reactive Spring Security in a WebFlux application.
- * This setup disables CSRF protection and allows unrestricted access to all endpoints,
- * including Swagger documentation paths.
+ * CSRF protection is disabled. By default every endpoint is open; with {@code app.security.jwt.enabled}
+ * the API acts as a resource server that verifies the bearer tokens of the user service locally,
+ * against a configured public key or JWKS file, and takes the caller's identity from their claims.
  */
 @Configuration
+@EnableConfigurationProperties(JwtProperties.class)
 public class SecurityConfig {
 
+    public static final String NUMBER_ID_CLAIM = "numberId";
+    public static final String USER_NAME_CLAIM = "userName";
+    public static final String ROLE_CLAIM = "role";
+
     /**
      * Configures the security filter chain for the application.
      * - Disables CSRF protection.
-     * - Permits all requests, including Swagger UI and OpenAPI endpoints.
+     * - Without a token decoder, permits all requests, including Swagger UI and OpenAPI endpoints.
+     * - With one, permits the documentation, health and Prometheus endpoints and requires a valid
+     *   bearer token everywhere else. Changing statuses, calling the next shift, deleting shifts,
+     *   creating them in bulk and reading other people's shifts (the full listing and export, by role
+     *   and history) also need one of the {@code app.security.jwt.staff-roles}; the shifts of a user
+     *   can be read by that user or by staff.
      *
      * @param http the {@link ServerHttpSecurity} object used to configure security
+     * @param verifiedTokens the token decoder, present when JWT validation is enabled
+     * @param properties the {@code app.security.jwt} settings
      * @return a {@link SecurityWebFilterChain} instance with the configured security rules
      */
     @Bean
-    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                                                         ObjectProvider<CachingJwtDecoder> verifiedTokens,
+                                                         JwtProperties properties) {
+        CachingJwtDecoder decoder = verifiedTokens.getIfAvailable();
+        http.csrf(csrf -> csrf.disable());
+        if (decoder == null) {
+            return http
+                .authorizeExchange(exchange -> exchange
+                    .pathMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                    .anyExchange().permitAll()
+                )
+                .build();
+        }
+        String[] staff = properties.getStaffRoles().toArray(String[]::new);
         return http
-            .csrf(csrf -> csrf.disable())
             .authorizeExchange(exchange -> exchange
-                .pathMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
-                .anyExchange().permitAll()
+                .pathMatchers("/swagger-ui/**", "/v3/api-docs/**", "/api/v1/swagger-ui.html", "/api/v1/api-docs/**",
+                    "/actuator/health/**", "/actuator/prometheus").permitAll()
+                .pathMatchers(HttpMethod.PATCH, "/api/shifts/status").hasAnyRole(staff)
+                .pathMatchers(HttpMethod.PUT, "/api/shifts/*").hasAnyRole(staff)
+                .pathMatchers(HttpMethod.DELETE, "/api/shifts/**").hasAnyRole(staff)
+                .pathMatchers(HttpMethod.POST, "/api/shifts/specialty/*/next").hasAnyRole(staff)
+                .pathMatchers(HttpMethod.POST, "/api/shifts/batch").hasAnyRole(staff)
+                .pathMatchers(HttpMethod.GET, "/api/shifts", "/api/shifts/role/*", "/api/shifts/history").hasAnyRole(staff)
+                .pathMatchers(HttpMethod.GET, "/api/shifts/user/{id}").access(ownerOrStaff(properties.getStaffRoles()))
+                .anyExchange().authenticated()
             )
+            .oauth2ResourceServer(server -> server
+                .jwt(jwt -> jwt.jwtDecoder(decoder).jwtAuthenticationConverter(SecurityConfig::authentication)))
             .build();
     }
+
+    /**
+     * Grants access when the {@code id} path variable is the caller's own numberId, or the caller has a staff role.
+     *
+     * @param staffRoles the roles allowed to read anyone's shifts
+     * @return the authorization manager
+     */
+    static ReactiveAuthorizationManager<AuthorizationContext> ownerOrStaff(List<String> staffRoles) {
+        return (authentication, context) -> authentication
+            .filter(Authentication::isAuthenticated)
+            .map(auth -> isOwner(auth, context.getVariables().get("id"))
+                || auth.getAuthorities().stream().anyMatch(authority -> staffRoles.stream()
+                    .anyMatch(role -> ("ROLE_" + role).equals(authority.getAuthority()))))
+            .map(AuthorizationDecision::new)
+            .defaultIfEmpty(new AuthorizationDecision(false));
+    }
+
+    private static boolean isOwner(Authentication authentication, Object id) {
+        return authentication.getPrincipal() instanceof User user && user.numberId() != null && user.numberId().equals(id);
+    }
+
+    /**
+     * Verifies tokens with the configured key and keeps the verified ones in memory, so the signature
+     * of a token is checked once rather than on every request.
+     *
+     * @param properties the {@code app.security.jwt} settings
+     * @param clock the application clock
+     * @return the caching decoder
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.security.jwt", name = "enabled", havingValue = "true")
+    public CachingJwtDecoder verifiedTokenDecoder(JwtProperties properties, Clock clock) throws IOException, ParseException {
+        SignatureAlgorithm algorithm = SignatureAlgorithm.from(properties.getAlgorithm());
+        if (algorithm == null) {
+            throw new IllegalStateException("Unsupported app.security.jwt.algorithm: " + properties.getAlgorithm());
+        }
+        NimbusReactiveJwtDecoder decoder;
+        if (properties.getJwkSetLocation() != null) {
+            JWKSet keys;
+            try (InputStream in = properties.getJwkSetLocation().getInputStream()) {
+                keys = JWKSet.load(in);
+            }
+            decoder = NimbusReactiveJwtDecoder
+                .withJwkSource(jwt -> Flux.fromIterable(new JWKSelector(JWKMatcher.forJWSHeader(jwt.getHeader())).select(keys)))
+                .jwsAlgorithm(algorithm)
+                .build();
+        } else if (properties.getPublicKeyLocation() != null) {
+            RSAPublicKey key;
+            try (InputStream in = properties.getPublicKeyLocation().getInputStream()) {
+                key = RsaKeyConverters.x509().convert(in);
+            }
+            decoder = NimbusReactiveJwtDecoder.withPublicKey(key).signatureAlgorithm(algorithm).build();
+        } else {
+            throw new IllegalStateException(
+                "app.security.jwt.enabled needs app.security.jwt.public-key-location or app.security.jwt.jwk-set-location");
+        }
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+            properties.getIssuer() == null || properties.getIssuer().isBlank()
+                ? JwtValidators.createDefault()
+                : JwtValidators.createDefaultWithIssuer(properties.getIssuer()),
+            new JwtClaimValidator<Object>(NUMBER_ID_CLAIM, Objects::nonNull)));
+        return new CachingJwtDecoder(decoder, properties.getCache().getMaxEntries(), properties.getCache().getTtl(), clock);
+    }
+
+    /**
+     * Makes the {@link User} of the token the principal, with its role as the only authority.
+     *
+     * @param jwt a verified token
+     * @return the authentication of the request
+     */
+    public static Mono<AbstractAuthenticationToken> authentication(Jwt jwt) {
+        User user = identity(jwt);
+        List<SimpleGrantedAuthority> authorities = user.role() == null
+            ? List.of()
+            : List.of(new SimpleGrantedAuthority("ROLE_" + user.role()));
+        return Mono.just(UsernamePasswordAuthenticationToken.authenticated(user, jwt, authorities));
+    }
+
+    /**
+     * Reads the caller from the numberId, userName (or sub) and role claims.
+     *
+     * @param jwt a verified token
+     * @return the user the token was issued to, without password
+     */
+    public static User identity(Jwt jwt) {
+        String userName = jwt.getClaimAsString(USER_NAME_CLAIM);
+        return new User(userName != null ? userName : jwt.getSubject(), jwt.getClaimAsString(NUMBER_ID_CLAIM),
+            jwt.getClaimAsString(ROLE_CLAIM), null);
+    }
 }
@@ -0,0 +1,48 @@
+package com.shiftmanagement.app_core.Config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import com.shiftmanagement.app_core.repository.ShiftRepository;
+import com.shiftmanagement.app_core.services.ServiceDayProvider;
+
+/**
+ * Gives a service day to the shifts stored before {@code serviceDate} existed, once the application is ready.
+ * Until then the day-scoped queries, the dispatch queue and the archive do not see them.
+ * Only shifts without a service day are read, so after the first run this finds nothing to do.
+ */
+@Configuration
+public class ServiceDateMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceDateMigration.class);
+
+    private final ShiftRepository shiftRepository;
+    private final ServiceDayProvider serviceDayProvider;
+
+    public ServiceDateMigration(ShiftRepository shiftRepository, ServiceDayProvider serviceDayProvider) {
+        this.shiftRepository = shiftRepository;
+        this.serviceDayProvider = serviceDayProvider;
+    }
+
+    /**
+     * Sets the service day of every legacy shift from its creation time in the campus time zone.
+     * Runs in the background so a large backlog does not delay startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillServiceDates() {
+        shiftRepository.backfillServiceDates(serviceDayProvider.getClock().getZone()).subscribe(
+            result -> {
+                if (result.dated() > 0) {
+                    log.info("Set the service day of {} shifts stored without one", result.dated());
+                }
+                if (!result.duplicates().isEmpty()) {
+                    log.warn("Left {} shifts without service day, their turn code was already taken that day: {}",
+                        result.duplicates().size(), result.duplicates());
+                }
+            },
+            e -> log.error("Could not set the service day of the shifts stored without one", e));
+    }
+}
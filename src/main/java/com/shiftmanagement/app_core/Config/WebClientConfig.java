@@ -2,13 +2,42 @@ package com.shiftmanagement.app_core.Config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
 @Configuration
 public class WebClientConfig {
 
+    /**
+     * Built from the Boot-provided builder so outgoing calls are observed and
+     * recorded as http.client.requests, tagged by URI template.
+     */
     @Bean
-    WebClient webClient() {
-        return WebClient.builder().build();
+    WebClient webClient(WebClient.Builder builder, NettyProperties nettyProperties,
+                        ConnectionProvider userServiceConnectionProvider, LoopResources nettyLoopResources) {
+        return builder
+            .clientConnector(new ReactorClientHttpConnector(
+                httpClient(nettyProperties, userServiceConnectionProvider, nettyLoopResources)))
+            .build();
+    }
+
+    /**
+     * The Reactor Netty client for the user service: a named, bounded pool, connect and
+     * response timeouts, and the configured protocols.
+     */
+    public static HttpClient httpClient(NettyProperties properties, ConnectionProvider pool, LoopResources loops) {
+        NettyProperties.Client client = properties.getClient();
+        HttpClient httpClient = HttpClient.create(pool)
+            .runOn(loops)
+            .protocol(client.getProtocols().toArray(HttpProtocol[]::new))
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) client.getConnectTimeout().toMillis())
+            .responseTimeout(client.getResponseTimeout());
+        return properties.isMetrics() ? httpClient.metrics(true, NettyConfig::uriTag) : httpClient;
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,34 @@
 package com.shiftmanagement.app_core.controllers;
 
 import org.springframework.web.bind.annotation.*;
+import com.shiftmanagement.app_core.Config.CodecConfig;
+import com.shiftmanagement.app_core.exceptions.ShiftTransitionConflictException;
+import com.shiftmanagement.app_core.model.BatchItemResult;
 import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftBoardView;
 import com.shiftmanagement.app_core.model.ShiftStatus;
+import com.shiftmanagement.app_core.model.StatusTransition;
+import com.shiftmanagement.app_core.model.TransitionResult;
+import com.shiftmanagement.app_core.model.User;
+import com.shiftmanagement.app_core.services.ShiftListCache;
 import com.shiftmanagement.app_core.services.ShiftService;
+import com.shiftmanagement.app_core.services.ShiftViewVersions;
 
 import io.swagger.v3.oas.annotations.tags.Tag;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
 
 /**
  * REST Controller for managing shift-related operations.
@@ -24,34 +40,98 @@ import org.springframework.http.ResponseEntity;
 @Tag(name = "Turnos", description = "Endpoints disponibles de los turnos")
 public class ShiftController {
     private final ShiftService shiftService;
+    private final ShiftViewVersions viewVersions;
+    private final ShiftListCache listCache;
 
-    public ShiftController(ShiftService shiftService) {
+    @Autowired
+    public ShiftController(ShiftService shiftService, ShiftViewVersions viewVersions, ShiftListCache listCache) {
         this.shiftService = shiftService;
+        this.viewVersions = viewVersions;
+        this.listCache = listCache;
     }
 
     /**
-     * Retrieves all shifts.
+     * Retrieves one page of shifts, ordered by id.
+     * To get the next page, pass the id of the last shift received as {@code after}.
+     * The page is written as JSON, CBOR or Smile, as the Accept header asks.
      *
-     * @return a Flux stream of all Shift objects
+     * @param after the id of the last shift of the previous page, absent for the first page
+     * @param limit the page size (1 to 1000)
+     * @return a Flux with the page, empty when there are no more shifts, or 400 for an invalid limit or cursor
      */
-    @GetMapping("")
-    public Flux<Shift> getAllShifts() {
-        return shiftService.getShifts();
+    @GetMapping(path = "", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+        CodecConfig.APPLICATION_SMILE_VALUE})
+    public Flux<Shift> getAllShifts(@RequestParam(required = false) String after,
+                                    @RequestParam(defaultValue = "100") int limit) {
+        return shiftService.getShifts(after, limit).onErrorMap(IllegalArgumentException.class, ShiftController::badRequest);
+    }
+
+    /**
+     * Streams every shift as newline-delimited JSON, one document per line.
+     * Documents are read as the client consumes them, so exports of any size run in constant memory.
+     *
+     * @param after optional id to resume the export after
+     * @return a Flux stream of all Shift objects, or 400 for an invalid cursor
+     */
+    @GetMapping(path = "", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Shift> streamAllShifts(@RequestParam(required = false) String after) {
+        return shiftService.streamShifts(after).onErrorMap(IllegalArgumentException.class, ShiftController::badRequest);
+    }
+
+    // the listing fails before its first element, so the status can still be set
+    private static ResponseStatusException badRequest(IllegalArgumentException e) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
     }
 
     /**
      * Creates a new shift.
+     * When the request carries a verified token the shift is issued to its holder, without
+     * looking them up in the user service; otherwise the userId of the body is looked up.
      *
      * @param shift the Shift object to create
+     * @param caller the user of the bearer token, or null when tokens are not validated
      * @return a response with HTTP 201 on success, or 500 on error
      */
     @PostMapping("")
-    public Mono<ResponseEntity<Shift>> postShift(@RequestBody Shift shift) {
-        return shiftService.generateShift(shift)
+    public Mono<ResponseEntity<Shift>> postShift(@RequestBody Shift shift, @AuthenticationPrincipal User caller) {
+        return (caller != null ? shiftService.generateShift(shift, caller) : shiftService.generateShift(shift))
             .map(savedShift -> ResponseEntity.status(HttpStatus.CREATED).body(savedShift))
             .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build()));
     }
 
+    /**
+     * Creates many shifts in one request.
+     * The JSON array is decoded element by element, so an oversized batch is rejected without
+     * reading the rest of it.
+     *
+     * @param shifts the shifts to create
+     * @return HTTP 201 when every item was created, 207 with per-item results otherwise, 400 if the batch is too large
+     */
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<BatchItemResult>>> postShifts(@RequestBody Flux<Shift> shifts) {
+        return batchResponse(shiftService.generateShifts(shifts));
+    }
+
+    /**
+     * Creates many shifts from a newline-delimited JSON stream, one shift per line.
+     *
+     * @param shifts the stream of shifts to create
+     * @return HTTP 201 when every item was created, 207 with per-item results otherwise
+     */
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<List<BatchItemResult>>> postShiftStream(@RequestBody Flux<Shift> shifts) {
+        return batchResponse(shiftService.generateShifts(shifts));
+    }
+
+    private Mono<ResponseEntity<List<BatchItemResult>>> batchResponse(Mono<List<BatchItemResult>> results) {
+        return results
+            .map(items -> ResponseEntity
+                .status(items.stream().allMatch(BatchItemResult::created) ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS)
+                .body(items))
+            .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().<List<BatchItemResult>>build()))
+            .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).<List<BatchItemResult>>build()));
+    }
+
     /**
      * Deletes a shift by its ID.
      *
@@ -144,41 +224,102 @@ public class ShiftController {
      *
      * @param turnCode the turn code of the shift
      * @param status the new status to set
-     * @return a response with the updated shift or an error
+     * @return a response with the updated shift, 409 if its current status does not allow the change, or an error
      */
     @PutMapping("/{turnCode}")
     public Mono<ResponseEntity<Object>> changeShiftStatus(@PathVariable String turnCode, @RequestBody ShiftStatus status) {
-        return shiftService.getShiftByTurnCode(turnCode)
-            .flatMap(shift -> shiftService.changeShiftStatus(shift, status))
-            .map(updated -> ResponseEntity.<Object>ok(updated)) 
+        return shiftService.changeShiftStatus(turnCode, status)
+            .map(updated -> ResponseEntity.<Object>ok(updated))
             .onErrorResume(e ->
-                Mono.just(ResponseEntity.status(500)
+                Mono.just(ResponseEntity.status(e instanceof ShiftTransitionConflictException ? 409 : 500)
                     .body(Collections.singletonMap("error", e.getMessage())))
             );
     }
 
     
+    /**
+     * Changes the status of many of today's shifts in one request.
+     *
+     * @param transitions the turn codes and their target statuses
+     * @return 200 with the outcome of each item if all were applied, 207 if some failed, or 400 if the batch is too large
+     */
+    @PatchMapping(path = "/status", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<TransitionResult>>> changeShiftStatuses(@RequestBody List<StatusTransition> transitions) {
+        return shiftService.changeShiftStatuses(transitions)
+            .map(items -> ResponseEntity
+                .status(items.stream().allMatch(TransitionResult::applied) ? HttpStatus.OK : HttpStatus.MULTI_STATUS)
+                .body(items))
+            .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().<List<TransitionResult>>build()))
+            .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).<List<TransitionResult>>build()));
+    }
+
     /**
      * Retrieves all shifts for a given specialty on the current day.
+     * The response carries a weak ETag; polling with If-None-Match gets a 304 without a database query
+     * while the list has not changed, and identical reads arriving together share one query through
+     * the {@link ShiftListCache}.
      *
      * @param specialty the medical specialty
-     * @return a Flux of Shift objects
+     * @return a Flux of Shift objects, or null when the client's copy is current and a 304 was set
      */
     @GetMapping("/specialty/{specialty}")
-    public Flux<Shift> getShiftsBySpecialty(@PathVariable String specialty) {
-        return shiftService.getShiftsBySpecialty(specialty);
+    public Flux<Shift> getShiftsBySpecialty(@PathVariable String specialty, ServerWebExchange exchange) {
+        String etag = viewVersions.specialtyTag(specialty);
+        if (exchange.checkNotModified(etag)) {
+            // the exchange already holds the 304, a null return tells WebFlux there is no body
+            return null;
+        }
+        return listCache.get("specialty:" + specialty, etag, () -> shiftService.getShiftsBySpecialty(specialty));
     }
 
 
+    /**
+     * Returns the next shift to be called for a specialty without changing it.
+     *
+     * @param specialty the medical specialty
+     * @return a response with the next shift, 404 if nobody is waiting
+     */
+    @GetMapping("/specialty/{specialty}/next")
+    public Mono<ResponseEntity<?>> peekNextShift(@PathVariable String specialty) {
+        return shiftService.peekNextShift(specialty)
+            .<ResponseEntity<?>>map(ResponseEntity::ok)
+            .onErrorResume(this::dispatchError);
+    }
+
+    /**
+     * Calls the next shift of a specialty: removes it from the live queue and moves it
+     * from ASSIGNED to IN_PROGRESS. Special-priority shifts are called first.
+     *
+     * @param specialty the medical specialty
+     * @return a response with the called shift, 404 if nobody is waiting
+     */
+    @PostMapping("/specialty/{specialty}/next")
+    public Mono<ResponseEntity<?>> callNextShift(@PathVariable String specialty) {
+        return shiftService.callNextShift(specialty)
+            .<ResponseEntity<?>>map(ResponseEntity::ok)
+            .onErrorResume(this::dispatchError);
+    }
+
+    private Mono<ResponseEntity<?>> dispatchError(Throwable e) {
+        HttpStatus status = e instanceof NoSuchElementException ? HttpStatus.NOT_FOUND : HttpStatus.INTERNAL_SERVER_ERROR;
+        return Mono.just(ResponseEntity.status(status)
+            .body(Collections.singletonMap("error", e.getMessage())));
+    }
+
     /**
      * Retrieves all shifts with a given status on the current day.
+     * Conditional requests are answered like in {@link #getShiftsBySpecialty}.
      *
      * @param status the shift status (e.g., ASSIGNED, IN_PROGRESS, ATTENDED)
-     * @return a Flux of Shift objects
+     * @return a Flux of Shift objects, or null when the client's copy is current and a 304 was set
      */
     @GetMapping("/status/{status}")
-    public Flux<Shift> getShiftsByStatus(@PathVariable ShiftStatus status) {
-        return shiftService.getShiftsByStatus(status);
+    public Flux<Shift> getShiftsByStatus(@PathVariable ShiftStatus status, ServerWebExchange exchange) {
+        String etag = viewVersions.statusTag(status);
+        if (exchange.checkNotModified(etag)) {
+            return null;
+        }
+        return listCache.get("status:" + status, etag, () -> shiftService.getShiftsByStatus(status));
     }
 
     /**
@@ -192,5 +333,49 @@ public class ShiftController {
         return shiftService.getShiftsBySpecialPriority(specialPriority);
     }
 
+    /**
+     * Board view of today's shifts for a specialty: only turn code, specialty, status and priority,
+     * without any user data, for public display screens.
+     *
+     * Conditional requests are answered like in {@link #getShiftsBySpecialty}.
+     *
+     * @param specialty the medical specialty
+     * @return a Flux of board views, or null when the client's copy is current and a 304 was set
+     */
+    @GetMapping("/board/specialty/{specialty}")
+    public Flux<ShiftBoardView> getBoardBySpecialty(@PathVariable String specialty, ServerWebExchange exchange) {
+        String etag = viewVersions.specialtyTag(specialty);
+        if (exchange.checkNotModified(etag)) {
+            return null;
+        }
+        return listCache.get("board-specialty:" + specialty, etag, () -> shiftService.getBoardBySpecialty(specialty));
+    }
+
+    /**
+     * Board view of today's shifts with a given status.
+     *
+     * Conditional requests are answered like in {@link #getShiftsBySpecialty}.
+     *
+     * @param status the shift status
+     * @return a Flux of board views, or null when the client's copy is current and a 304 was set
+     */
+    @GetMapping("/board/status/{status}")
+    public Flux<ShiftBoardView> getBoardByStatus(@PathVariable ShiftStatus status, ServerWebExchange exchange) {
+        String etag = viewVersions.statusTag(status);
+        if (exchange.checkNotModified(etag)) {
+            return null;
+        }
+        return listCache.get("board-status:" + status, etag, () -> shiftService.getBoardByStatus(status));
+    }
 
+    /**
+     * Board view of today's shifts with or without special priority.
+     *
+     * @param specialPriority true for the priority shifts
+     * @return a Flux of board views
+     */
+    @GetMapping("/board/priority/{priority}")
+    public Flux<ShiftBoardView> getBoardBySpecialPriority(@PathVariable("priority") boolean specialPriority) {
+        return shiftService.getBoardBySpecialPriority(specialPriority);
+    }
 }
@@ -0,0 +1,57 @@
+package com.shiftmanagement.app_core.controllers;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.shiftmanagement.app_core.model.ShiftBoardEvent;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+import com.shiftmanagement.app_core.services.ShiftEventPublisher;
+
+import io.swagger.v3.oas.annotations.tags.Tag;
+import reactor.core.publisher.Flux;
+
+/**
+ * Server-Sent Events endpoint that pushes shift lifecycle changes to display screens
+ * and dashboards, replacing periodic polling of the list endpoints.
+ * Like the board endpoints, it sends the board view of each shift, without user data.
+ */
+@RestController
+@RequestMapping("/api/shifts")
+@Tag(name = "Turnos", description = "Endpoints disponibles de los turnos")
+public class ShiftEventController {
+    private final ShiftEventPublisher shiftEventPublisher;
+    private final Duration heartbeat;
+
+    public ShiftEventController(ShiftEventPublisher shiftEventPublisher,
+                                @Value("${app.events.heartbeat:15s}") Duration heartbeat) {
+        this.shiftEventPublisher = shiftEventPublisher;
+        this.heartbeat = heartbeat;
+    }
+
+    /**
+     * Streams create, status-change and delete events as they happen.
+     * A comment line is sent every heartbeat interval so proxies keep idle connections open.
+     *
+     * @param specialty optional specialty filter
+     * @param status optional status filter, matching shifts entering or leaving it
+     * @return an endless stream of events
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ShiftBoardEvent>> streamShiftEvents(@RequestParam(required = false) String specialty,
+                                                                    @RequestParam(required = false) ShiftStatus status) {
+        Flux<ServerSentEvent<ShiftBoardEvent>> events = shiftEventPublisher.events(specialty, status)
+            .map(event -> ServerSentEvent.builder(ShiftBoardEvent.of(event))
+                .event(event.type().name())
+                .build());
+        Flux<ServerSentEvent<ShiftBoardEvent>> heartbeats = Flux.interval(heartbeat)
+            .map(tick -> ServerSentEvent.<ShiftBoardEvent>builder().comment("heartbeat").build());
+        return Flux.merge(events, heartbeats);
+    }
+}
@@ -0,0 +1,56 @@
+package com.shiftmanagement.app_core.controllers;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.services.ShiftArchiveService;
+
+import io.swagger.v3.oas.annotations.tags.Tag;
+import reactor.core.publisher.Flux;
+
+/**
+ * Shifts of past service days, from the hot collection and the archive.
+ */
+@RestController
+@RequestMapping("/api/shifts")
+@Tag(name = "Turnos", description = "Endpoints disponibles de los turnos")
+public class ShiftHistoryController {
+    private final ShiftArchiveService shiftArchiveService;
+
+    public ShiftHistoryController(ShiftArchiveService shiftArchiveService) {
+        this.shiftArchiveService = shiftArchiveService;
+    }
+
+    /**
+     * Retrieves the shifts served between two days, both included.
+     *
+     * @param from the first service day, ISO format
+     * @param to the last service day, ISO format
+     * @param specialty optional specialty filter
+     * @return a Flux of shifts ordered by service day
+     */
+    @GetMapping("/history")
+    public Flux<Shift> getHistory(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                  @RequestParam(required = false) String specialty) {
+        return shiftArchiveService.getHistory(from, to, specialty);
+    }
+
+    /**
+     * An invalid range fails before the first shift is written, so it can still be answered with a 400.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> invalidRange(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Collections.singletonMap("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,52 @@
+package com.shiftmanagement.app_core.controllers;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.shiftmanagement.app_core.model.DailyStats;
+import com.shiftmanagement.app_core.services.ShiftStatsService;
+
+import io.swagger.v3.oas.annotations.tags.Tag;
+import reactor.core.publisher.Mono;
+
+/**
+ * Operational statistics of the current service day, answered from in-memory counters.
+ */
+@RestController
+@RequestMapping("/api/shifts/stats")
+@Tag(name = "Turnos", description = "Endpoints disponibles de los turnos")
+public class ShiftStatsController {
+    private final ShiftStatsService shiftStatsService;
+
+    public ShiftStatsController(ShiftStatsService shiftStatsService) {
+        this.shiftStatsService = shiftStatsService;
+    }
+
+    /**
+     * Counts today's shifts per specialty and status, and how many have special priority.
+     *
+     * @return the counts of the current service day
+     */
+    @GetMapping("/today")
+    public DailyStats getTodayStats() {
+        return shiftStatsService.today();
+    }
+
+    /**
+     * Checks the live counters against an aggregation of today's shifts, without changing them.
+     *
+     * @return a response telling whether the counters were consistent, or an error
+     */
+    @GetMapping("/today/verify")
+    public Mono<ResponseEntity<Map<String, Object>>> verifyTodayStats() {
+        return shiftStatsService.verify()
+            .map(consistent -> ResponseEntity.ok(Collections.<String, Object>singletonMap("consistent", consistent)))
+            .onErrorResume(e -> Mono.just(ResponseEntity.status(500)
+                .body(Collections.singletonMap("error", e.getMessage()))));
+    }
+}
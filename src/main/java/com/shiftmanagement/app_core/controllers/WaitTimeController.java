@@ -0,0 +1,54 @@
+package com.shiftmanagement.app_core.controllers;
+
+import java.util.Collections;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.shiftmanagement.app_core.services.DispatchQueueService;
+import com.shiftmanagement.app_core.services.ShiftService;
+import com.shiftmanagement.app_core.services.WaitTimeEstimator;
+
+import io.swagger.v3.oas.annotations.tags.Tag;
+import reactor.core.publisher.Mono;
+
+/**
+ * Estimated wait of a shift, answered from the in-memory queue and service rates.
+ */
+@RestController
+@RequestMapping("/api/shifts")
+@Tag(name = "Turnos", description = "Endpoints disponibles de los turnos")
+public class WaitTimeController {
+    private final ShiftService shiftService;
+    private final DispatchQueueService dispatchQueueService;
+    private final WaitTimeEstimator waitTimeEstimator;
+
+    public WaitTimeController(ShiftService shiftService, DispatchQueueService dispatchQueueService,
+                              WaitTimeEstimator waitTimeEstimator) {
+        this.shiftService = shiftService;
+        this.dispatchQueueService = dispatchQueueService;
+        this.waitTimeEstimator = waitTimeEstimator;
+    }
+
+    /**
+     * Position in the queue and estimated minutes until today's shift with the given turn code is called.
+     * Waiting shifts are taken from the dispatch queue; the database is only read for shifts that are not
+     * waiting, e.g. already called, or to report that the code does not exist.
+     *
+     * @param code the turn code of the shift
+     * @return a response with the estimate or an error
+     */
+    @GetMapping("/shift/{code}/eta")
+    public Mono<ResponseEntity<?>> getWaitEstimate(@PathVariable String code) {
+        return Mono.justOrEmpty(dispatchQueueService.findWaiting(code))
+            .switchIfEmpty(Mono.defer(() -> shiftService.getShiftByTurnCode(code)))
+            .<ResponseEntity<?>>map(shift -> ResponseEntity.ok(waitTimeEstimator.estimate(shift)))
+            .onErrorResume(e ->
+                Mono.just(ResponseEntity.status(500)
+                .body(Collections.singletonMap("error", e.getMessage())))
+            );
+    }
+}
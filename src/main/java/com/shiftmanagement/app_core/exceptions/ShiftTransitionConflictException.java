@@ -0,0 +1,27 @@
+package com.shiftmanagement.app_core.exceptions;
+
+import com.shiftmanagement.app_core.model.ShiftStatus;
+
+/**
+ * Raised when a shift cannot move to the requested status because of its current status,
+ * either because the transition is not allowed or because another request changed it first.
+ */
+public class ShiftTransitionConflictException extends IllegalStateException {
+
+    private final ShiftStatus currentStatus;
+    private final ShiftStatus requestedStatus;
+
+    public ShiftTransitionConflictException(String turnCode, ShiftStatus currentStatus, ShiftStatus requestedStatus) {
+        super("Transition not allowed for shift " + turnCode + " from " + currentStatus + " to " + requestedStatus);
+        this.currentStatus = currentStatus;
+        this.requestedStatus = requestedStatus;
+    }
+
+    public ShiftStatus getCurrentStatus() {
+        return currentStatus;
+    }
+
+    public ShiftStatus getRequestedStatus() {
+        return requestedStatus;
+    }
+}
@@ -0,0 +1,20 @@
+package com.shiftmanagement.app_core.model;
+
+/**
+ * Outcome of one item of a batch request.
+ *
+ * @param index position of the item in the request
+ * @param created whether the item was stored
+ * @param shift the stored shift, when created
+ * @param error why the item failed, when not created
+ */
+public record BatchItemResult(int index, boolean created, Shift shift, String error) {
+
+    public static BatchItemResult created(int index, Shift shift) {
+        return new BatchItemResult(index, true, shift, null);
+    }
+
+    public static BatchItemResult failed(int index, String error) {
+        return new BatchItemResult(index, false, null, error);
+    }
+}
@@ -0,0 +1,13 @@
+package com.shiftmanagement.app_core.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Shift counts of a service day, per specialty.
+ *
+ * @param serviceDate the service day
+ * @param specialties the counts of each specialty with shifts that day, by name
+ */
+public record DailyStats(LocalDate serviceDate, List<SpecialtyStats> specialties) {
+}
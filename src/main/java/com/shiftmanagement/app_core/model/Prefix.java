@@ -3,5 +3,19 @@ package com.shiftmanagement.app_core.model;
 public enum Prefix {
     PS,
     OD,
-    MG
+    MG;
+
+    /**
+     * Resolves the turn-code prefix of a specialty.
+     *
+     * @param specialty the specialty name
+     * @return the prefix, OD for any specialty without its own
+     */
+    public static Prefix forSpecialty(String specialty) {
+        return switch (specialty) {
+            case "Psicologia" -> PS;
+            case "Medicina General" -> MG;
+            default -> OD;
+        };
+    }
 }
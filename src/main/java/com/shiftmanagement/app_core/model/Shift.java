@@ -1,18 +1,30 @@
 package com.shiftmanagement.app_core.model;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 
 
 @Document(collection = "Shifts")
+@CompoundIndex(name = "turnCode_serviceDate", def = "{'turnCode': 1, 'serviceDate': 1}")
+@CompoundIndex(name = "specialty_serviceDate_turnCode", def = "{'specialty': 1, 'serviceDate': 1, 'turnCode': 1}",
+    unique = true, partialFilter = "{'serviceDate': {'$exists': true}}")
+@CompoundIndex(name = "specialty_serviceDate", def = "{'specialty': 1, 'serviceDate': 1}")
+@CompoundIndex(name = "status_serviceDate", def = "{'status': 1, 'serviceDate': 1}")
+@CompoundIndex(name = "specialPriority_serviceDate", def = "{'specialPriority': 1, 'serviceDate': 1}")
+@CompoundIndex(name = "serviceDate_specialty_status_specialPriority",
+    def = "{'serviceDate': 1, 'specialty': 1, 'status': 1, 'specialPriority': 1}")
 public class Shift {
     @Id
     @Schema(hidden = true)
     private String id;
+    @Indexed
     private String userId;
     private String username;
     private String specialty;
@@ -25,9 +37,20 @@ public class Shift {
     @Schema(hidden = true)
     private LocalDateTime createdAt;
     @Schema(hidden = true)
+    private LocalDate serviceDate;
+    @Schema(hidden = true)
     private ShiftStatus status;
+    @Schema(hidden = true)
+    private LocalDateTime statusChangedAt;
+    @Schema(hidden = true)
+    private LocalDateTime calledAt;
+    @Schema(hidden = true)
+    private LocalDateTime attendedAt;
+    @Schema(hidden = true)
+    private LocalDateTime canceledAt;
 
     @Schema(hidden = true)
+    @Indexed
     private String userRole;
 
     public Shift(String userId, String specialty, boolean specialPriority) {
@@ -77,6 +100,12 @@ public class Shift {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+    public LocalDate getServiceDate() {
+        return serviceDate;
+    }
+    public void setServiceDate(LocalDate serviceDate) {
+        this.serviceDate = serviceDate;
+    }
     public ShiftStatus getStatus() {
         return status;
     }
@@ -84,6 +113,59 @@ public class Shift {
         this.status = status;
     }
 
+    public LocalDateTime getStatusChangedAt() {
+        return statusChangedAt;
+    }
+    public void setStatusChangedAt(LocalDateTime statusChangedAt) {
+        this.statusChangedAt = statusChangedAt;
+    }
+    public LocalDateTime getCalledAt() {
+        return calledAt;
+    }
+    public void setCalledAt(LocalDateTime calledAt) {
+        this.calledAt = calledAt;
+    }
+    public LocalDateTime getAttendedAt() {
+        return attendedAt;
+    }
+    public void setAttendedAt(LocalDateTime attendedAt) {
+        this.attendedAt = attendedAt;
+    }
+    public LocalDateTime getCanceledAt() {
+        return canceledAt;
+    }
+    public void setCanceledAt(LocalDateTime canceledAt) {
+        this.canceledAt = canceledAt;
+    }
+
+    /**
+     * Moves the shift to a status and records when it happened.
+     * @param status: the new status
+     * @param at: the transition timestamp
+     */
+    public void recordTransition(ShiftStatus status, LocalDateTime at) {
+        this.status = status;
+        this.statusChangedAt = at;
+        switch (status) {
+            case IN_PROGRESS -> this.calledAt = at;
+            case ATTENDED -> this.attendedAt = at;
+            case CANCELED -> this.canceledAt = at;
+            case ASSIGNED -> { }
+        }
+    }
+
+    /**
+     * @param status: a status
+     * @return the field that records when a shift entered the status, or null if there is none
+     */
+    public static String transitionTimestampField(ShiftStatus status) {
+        return switch (status) {
+            case IN_PROGRESS -> "calledAt";
+            case ATTENDED -> "attendedAt";
+            case CANCELED -> "canceledAt";
+            case ASSIGNED -> null;
+        };
+    }
 
     public String getUsername() {
         return username;
@@ -0,0 +1,27 @@
+package com.shiftmanagement.app_core.model;
+
+import java.time.Instant;
+
+/**
+ * A {@link ShiftEvent} as pushed to stream subscribers such as public display screens: the shift is
+ * reduced to its {@link ShiftBoardView}, so no user data leaves the server.
+ *
+ * @param type what happened
+ * @param id the id of the shift, null for GAP events
+ * @param shift the board view of the shift after the change, null for GAP events and for deletions
+ *              seen through the change stream, which only carry the id
+ * @param previousStatus the status before a STATUS_CHANGED event, when known
+ * @param missed for GAP events, how many events were dropped for this subscriber
+ * @param timestamp when the event was published
+ */
+public record ShiftBoardEvent(ShiftEventType type, String id, ShiftBoardView shift, ShiftStatus previousStatus,
+                              long missed, Instant timestamp) {
+
+    public static ShiftBoardEvent of(ShiftEvent event) {
+        Shift shift = event.shift();
+        return new ShiftBoardEvent(event.type(),
+            shift == null ? null : shift.getId(),
+            shift == null || shift.getTurnCode() == null ? null : ShiftBoardView.of(shift),
+            event.previousStatus(), event.missed(), event.timestamp());
+    }
+}
@@ -0,0 +1,17 @@
+package com.shiftmanagement.app_core.model;
+
+/**
+ * What a public display board or kiosk shows of a shift. Used as a query projection,
+ * so the user fields of the shift are never read from the database.
+ *
+ * @param turnCode the turn code called on the board
+ * @param specialty the specialty of the shift
+ * @param status the current status
+ * @param specialPriority whether the shift is served first
+ */
+public record ShiftBoardView(String turnCode, String specialty, ShiftStatus status, boolean specialPriority) {
+
+    public static ShiftBoardView of(Shift shift) {
+        return new ShiftBoardView(shift.getTurnCode(), shift.getSpecialty(), shift.getStatus(), shift.isSpecialPriority());
+    }
+}
@@ -0,0 +1,48 @@
+package com.shiftmanagement.app_core.model;
+
+import java.time.LocalDate;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Per-specialty, per-day sequence used to allocate turn codes.
+ * The document id is the specialty joined with the service date, so each
+ * (specialty, day) pair has exactly one counter.
+ */
+@Document(collection = "ShiftCounters")
+public class ShiftCounter {
+    @Id
+    private String id;
+    private String specialty;
+    private LocalDate serviceDate;
+    private long seq;
+
+    public ShiftCounter() {
+    }
+
+    public String getId() {
+        return id;
+    }
+    public void setId(String id) {
+        this.id = id;
+    }
+    public String getSpecialty() {
+        return specialty;
+    }
+    public void setSpecialty(String specialty) {
+        this.specialty = specialty;
+    }
+    public LocalDate getServiceDate() {
+        return serviceDate;
+    }
+    public void setServiceDate(LocalDate serviceDate) {
+        this.serviceDate = serviceDate;
+    }
+    public long getSeq() {
+        return seq;
+    }
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+}
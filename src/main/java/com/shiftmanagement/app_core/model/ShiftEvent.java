@@ -0,0 +1,23 @@
+package com.shiftmanagement.app_core.model;
+
+import java.time.Instant;
+
+/**
+ * A change in the lifecycle of a shift, as pushed to stream subscribers.
+ *
+ * @param type what happened
+ * @param shift the shift after the change, or only its id for deletions seen through the change stream
+ * @param previousStatus the status before a STATUS_CHANGED event, when known
+ * @param missed for GAP events, how many events were dropped for this subscriber
+ * @param timestamp when the event was published
+ */
+public record ShiftEvent(ShiftEventType type, Shift shift, ShiftStatus previousStatus, long missed, Instant timestamp) {
+
+    public static ShiftEvent of(ShiftEventType type, Shift shift, ShiftStatus previousStatus) {
+        return new ShiftEvent(type, shift, previousStatus, 0, Instant.now());
+    }
+
+    public static ShiftEvent gap(long missed) {
+        return new ShiftEvent(ShiftEventType.GAP, null, null, missed, Instant.now());
+    }
+}
@@ -0,0 +1,9 @@
+package com.shiftmanagement.app_core.model;
+
+public enum ShiftEventType {
+    CREATED,
+    STATUS_CHANGED,
+    DELETED,
+    /** Marker sent to a slow subscriber in place of the events it missed. */
+    GAP
+}
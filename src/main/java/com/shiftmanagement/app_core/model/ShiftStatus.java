@@ -1,8 +1,47 @@
 package com.shiftmanagement.app_core.model;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum ShiftStatus {
     ASSIGNED,
     IN_PROGRESS,
     ATTENDED,
-    CANCELED
+    CANCELED;
+
+    /** The state machine of a shift: the statuses each status may move to. */
+    private static final Map<ShiftStatus, Set<ShiftStatus>> SUCCESSORS = new EnumMap<>(ShiftStatus.class);
+    private static final Map<ShiftStatus, Set<ShiftStatus>> PREDECESSORS = new EnumMap<>(ShiftStatus.class);
+
+    static {
+        SUCCESSORS.put(ASSIGNED, EnumSet.of(IN_PROGRESS, CANCELED));
+        SUCCESSORS.put(IN_PROGRESS, EnumSet.of(ATTENDED, CANCELED));
+        SUCCESSORS.put(ATTENDED, EnumSet.noneOf(ShiftStatus.class));
+        SUCCESSORS.put(CANCELED, EnumSet.noneOf(ShiftStatus.class));
+
+        for (ShiftStatus status : values()) {
+            PREDECESSORS.put(status, EnumSet.noneOf(ShiftStatus.class));
+        }
+        SUCCESSORS.forEach((from, targets) -> targets.forEach(to -> PREDECESSORS.get(to).add(from)));
+        SUCCESSORS.replaceAll((status, targets) -> Collections.unmodifiableSet(targets));
+        PREDECESSORS.replaceAll((status, sources) -> Collections.unmodifiableSet(sources));
+    }
+
+    /**
+     * @param next the desired status
+     * @return true if a shift in this status may move to the given one
+     */
+    public boolean canTransitionTo(ShiftStatus next) {
+        return SUCCESSORS.get(this).contains(next);
+    }
+
+    /**
+     * @return the statuses from which a shift may move to this one
+     */
+    public Set<ShiftStatus> predecessors() {
+        return PREDECESSORS.get(this);
+    }
 }
@@ -0,0 +1,14 @@
+package com.shiftmanagement.app_core.model;
+
+import java.util.Map;
+
+/**
+ * Shift counts of one specialty for a service day.
+ *
+ * @param specialty the specialty
+ * @param byStatus number of shifts in each status
+ * @param specialPriority number of shifts with special priority, in any status
+ * @param total number of shifts
+ */
+public record SpecialtyStats(String specialty, Map<ShiftStatus, Long> byStatus, long specialPriority, long total) {
+}
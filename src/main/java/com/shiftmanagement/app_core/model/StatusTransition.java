@@ -0,0 +1,10 @@
+package com.shiftmanagement.app_core.model;
+
+/**
+ * One item of a batch status change.
+ *
+ * @param turnCode turn code of one of today's shifts
+ * @param status the status to move the shift to
+ */
+public record StatusTransition(String turnCode, ShiftStatus status) {
+}
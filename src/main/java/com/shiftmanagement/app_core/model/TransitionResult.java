@@ -0,0 +1,21 @@
+package com.shiftmanagement.app_core.model;
+
+/**
+ * Outcome of one item of a batch status change.
+ *
+ * @param index position of the item in the request
+ * @param turnCode turn code of the item
+ * @param applied whether the shift was moved to the requested status
+ * @param previousStatus the status the shift had before, when known
+ * @param error why the item was not applied
+ */
+public record TransitionResult(int index, String turnCode, boolean applied, ShiftStatus previousStatus, String error) {
+
+    public static TransitionResult applied(int index, String turnCode, ShiftStatus previousStatus) {
+        return new TransitionResult(index, turnCode, true, previousStatus, null);
+    }
+
+    public static TransitionResult failed(int index, String turnCode, ShiftStatus currentStatus, String error) {
+        return new TransitionResult(index, turnCode, false, currentStatus, error);
+    }
+}
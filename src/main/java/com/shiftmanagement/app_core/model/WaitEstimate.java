@@ -0,0 +1,13 @@
+package com.shiftmanagement.app_core.model;
+
+/**
+ * Estimated wait of a shift until it is called.
+ *
+ * @param turnCode the turn code of the shift
+ * @param specialty the specialty of the shift
+ * @param status the current status; only ASSIGNED shifts are still waiting
+ * @param ahead how many shifts will be called before this one, null if unknown
+ * @param estimatedMinutes estimated minutes until the shift is called, null if unknown
+ */
+public record WaitEstimate(String turnCode, String specialty, ShiftStatus status, Integer ahead, Double estimatedMinutes) {
+}
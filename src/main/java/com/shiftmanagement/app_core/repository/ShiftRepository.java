@@ -1,9 +1,11 @@
 package com.shiftmanagement.app_core.repository;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
+import java.util.Collection;
 
 
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 
 import com.shiftmanagement.app_core.model.Shift;
@@ -12,9 +14,7 @@ import com.shiftmanagement.app_core.model.ShiftStatus;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-public interface ShiftRepository extends ReactiveMongoRepository<Shift,String> {
-    Mono<Long> countBySpecialtyAndCreatedAtBetween(String specialty, LocalDateTime startOfDay, LocalDateTime endOfDay);
-
+public interface ShiftRepository extends ReactiveMongoRepository<Shift,String>, ShiftRepositoryCustom {
     /** 
      * Taking into account the methods of MongoRepository, we can invoke the deletion of a shift by the ID
      * @param id: the ID of the shift to delete.
@@ -36,9 +36,35 @@ public interface ShiftRepository extends ReactiveMongoRepository<Shift,String> {
      */
     Flux<Shift> findByUserId(String userId);
 
-    Mono<Shift> findByTurnCodeAndCreatedAtBetween(String code, LocalDateTime startOfDay, LocalDateTime endOfDay);
+    /**
+     * First page of the keyset pagination over all shifts, in _id order.
+     * @param limit: the maximum number of shifts to return
+     * @return the oldest shifts
+     */
+    Flux<Shift> findAllByOrderByIdAsc(Limit limit);
+
+    /**
+     * Next page of the keyset pagination: the shifts whose _id comes after the cursor.
+     * @param id: the _id of the last shift of the previous page
+     * @param limit: the maximum number of shifts to return
+     * @return the shifts following the cursor, in _id order
+     */
+    Flux<Shift> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
 
-    Flux<Shift> findBySpecialtyAndCreatedAtBetween(String specialPriority, LocalDateTime startOfDay, LocalDateTime endOfDay);
-    Flux<Shift> findByStatusAndCreatedAtBetween(ShiftStatus status, LocalDateTime startOfDay, LocalDateTime endOfDay);
-    Flux<Shift> findBySpecialPriorityAndCreatedAtBetween(boolean specialPriority, LocalDateTime startOfDay, LocalDateTime endOfDay);
+    Mono<Shift> findByTurnCodeAndServiceDate(String code, LocalDate serviceDate);
+
+    Flux<Shift> findByTurnCodeInAndServiceDate(Collection<String> codes, LocalDate serviceDate);
+
+    Flux<Shift> findBySpecialtyAndServiceDate(String specialty, LocalDate serviceDate);
+    Flux<Shift> findByStatusAndServiceDate(ShiftStatus status, LocalDate serviceDate);
+    Flux<Shift> findBySpecialPriorityAndServiceDate(boolean specialPriority, LocalDate serviceDate);
+
+    /**
+     * Same finders returning a projection, e.g. {@link com.shiftmanagement.app_core.model.ShiftBoardView}.
+     * Only the fields of the projection are fetched.
+     * @param type: the projection to return
+     */
+    <T> Flux<T> findBySpecialtyAndServiceDate(String specialty, LocalDate serviceDate, Class<T> type);
+    <T> Flux<T> findByStatusAndServiceDate(ShiftStatus status, LocalDate serviceDate, Class<T> type);
+    <T> Flux<T> findBySpecialPriorityAndServiceDate(boolean specialPriority, LocalDate serviceDate, Class<T> type);
 }
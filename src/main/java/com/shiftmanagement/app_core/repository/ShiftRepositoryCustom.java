@@ -0,0 +1,140 @@
+package com.shiftmanagement.app_core.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Operations of {@link ShiftRepository} that cannot be expressed as derived queries
+ * and are implemented directly on the ReactiveMongoTemplate.
+ */
+public interface ShiftRepositoryCustom {
+
+    /** Collection holding the shifts of past service days that left the hot window. */
+    String ARCHIVE_COLLECTION = "ShiftsArchive";
+
+    /** Field recording, per status, the bulk transition that moved a shift into it. */
+    String TRANSITION_BATCHES = "transitionBatches";
+
+    /**
+     * Inserts the shifts with a single unordered bulk write: a failing document does
+     * not stop the others from being written.
+     * @param shifts: the shifts to insert; each one must already have its id
+     * @return the error message of each failed document, keyed by its position in the list
+     */
+    Mono<Map<Integer, String>> bulkInsert(List<Shift> shifts);
+
+    /**
+     * Moves the shift with the given turn code to a new status in one conditional update.
+     * The update only applies while the current status is one of the allowed predecessors
+     * of the new status, so concurrent transitions cannot overwrite each other.
+     * @param turnCode: the turn code of the shift
+     * @param serviceDate: the service day of the shift
+     * @param newStatus: the status to move to
+     * @param changedAt: the transition timestamp
+     * @return the shift as it was before the update, or empty if no shift matched
+     */
+    Mono<Shift> transitionStatus(String turnCode, LocalDate serviceDate, ShiftStatus newStatus, LocalDateTime changedAt);
+
+    /**
+     * Same as {@link #transitionStatus(String, LocalDate, ShiftStatus, LocalDateTime)} for a shift identified by its id.
+     * @param id: the id of the shift
+     * @param newStatus: the status to move to
+     * @param changedAt: the transition timestamp
+     * @return the shift as it was before the update, or empty if no shift matched
+     */
+    Mono<Shift> transitionStatusById(String id, ShiftStatus newStatus, LocalDateTime changedAt);
+
+    /**
+     * Applies many status changes with a single unordered bulk write of conditional updates.
+     * Each update only matches while the shift still has its expected status, and stamps the shift with
+     * an id of the batch under {@link #TRANSITION_BATCHES}{@code .<status>}. A shift enters each status
+     * at most once, so the stamp is never overwritten: when not every update matched, or the write failed
+     * partway, the shifts are read back and the stamp tells exactly which updates this batch applied.
+     * @param updates: the changes to apply
+     * @param changedAt: the transition timestamp shared by the whole batch
+     * @return the ids of the shifts this batch modified and the write error of each failed update
+     */
+    Mono<TransitionOutcome> bulkTransition(List<StatusUpdate> updates, LocalDateTime changedAt);
+
+    /**
+     * Counts the shifts of a service day grouped by specialty, status and priority, in one aggregation.
+     * @param serviceDate: the service day to count
+     * @return one count per group present that day
+     */
+    Flux<StatusCount> countByStatus(LocalDate serviceDate);
+
+    /**
+     * Moves one batch of shifts served before the given day into {@link #ARCHIVE_COLLECTION}.
+     * The batch is copied with an aggregation {@code $merge} keyed on {@code _id} and only then deleted,
+     * so a batch interrupted by a crash is simply copied again on the next run.
+     * @param before: shifts with a service day before this one are archived
+     * @param batchSize: the maximum number of shifts to move
+     * @return the number of shifts moved, lower than batchSize once nothing is left
+     */
+    Mono<Integer> archiveBatch(LocalDate before, int batchSize);
+
+    /**
+     * Shifts of the hot collection served between two days, both included.
+     * @param from: the first service day
+     * @param to: the last service day
+     * @param specialty: optional specialty filter, null for all
+     * @return the shifts ordered by service day
+     */
+    Flux<Shift> findServedBetween(LocalDate from, LocalDate to, String specialty);
+
+    /**
+     * Same as {@link #findServedBetween(LocalDate, LocalDate, String)} on {@link #ARCHIVE_COLLECTION}.
+     */
+    Flux<Shift> findArchivedBetween(LocalDate from, LocalDate to, String specialty);
+
+    /**
+     * Sets the service day of the shifts stored before the field existed, from their creation time
+     * in the given zone. Only shifts without a service day are touched, so running it again is harmless.
+     * A shift whose turn code was already given to another shift of its specialty that day is left
+     * without service day, so the unique index on specialty, service day and turn code still holds.
+     * @param zone: the zone of the service days
+     * @return how many shifts got a service day and the ids of the ones left without it
+     */
+    Mono<ServiceDateBackfill> backfillServiceDates(ZoneId zone);
+
+    /**
+     * Number of shifts of one specialty, status and priority.
+     */
+    record StatusCount(String specialty, ShiftStatus status, boolean specialPriority, long count) {
+    }
+
+    /**
+     * Result of a service day backfill.
+     * @param dated: the number of shifts that got a service day
+     * @param duplicates: the ids of the shifts left without one because their turn code was taken that day
+     */
+    record ServiceDateBackfill(long dated, List<String> duplicates) {
+    }
+
+    /**
+     * Result of a bulk transition.
+     * @param applied: the ids of the shifts that were moved
+     * @param errors: the write error of each update that failed, keyed by shift id
+     */
+    record TransitionOutcome(Set<String> applied, Map<String, String> errors) {
+    }
+
+    /**
+     * A conditional status change of one shift.
+     * @param id: the id of the shift
+     * @param expected: the status the shift must still have
+     * @param target: the status to move to
+     */
+    record StatusUpdate(String id, ShiftStatus expected, ShiftStatus target) {
+    }
+}
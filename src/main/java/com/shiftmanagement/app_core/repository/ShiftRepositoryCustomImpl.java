@@ -0,0 +1,259 @@
+package com.shiftmanagement.app_core.repository;
+
+import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.merge;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.project;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation.WhenDocumentsDontMatch;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation.WhenDocumentsMatch;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.result.UpdateResult;
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class ShiftRepositoryCustomImpl implements ShiftRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    ShiftRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<Map<Integer, String>> bulkInsert(List<Shift> shifts) {
+        if (shifts.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return mongoTemplate.bulkOps(BulkMode.UNORDERED, Shift.class)
+            .insert(shifts)
+            .execute()
+            .<Map<Integer, String>>map(result -> Map.of())
+            .onErrorResume(e -> writeErrorsOf(e) != null, e -> {
+                Map<Integer, String> failures = new HashMap<>();
+                for (BulkWriteError error : writeErrorsOf(e)) {
+                    failures.put(error.getIndex(), error.getMessage());
+                }
+                return Mono.just(failures);
+            });
+    }
+
+    @Override
+    public Mono<Shift> transitionStatus(String turnCode, LocalDate serviceDate, ShiftStatus newStatus, LocalDateTime changedAt) {
+        return transition(where("turnCode").is(turnCode).and("serviceDate").is(serviceDate), newStatus, changedAt);
+    }
+
+    @Override
+    public Mono<Shift> transitionStatusById(String id, ShiftStatus newStatus, LocalDateTime changedAt) {
+        return transition(where("id").is(id), newStatus, changedAt);
+    }
+
+    private Mono<Shift> transition(Criteria shift, ShiftStatus newStatus, LocalDateTime changedAt) {
+        if (newStatus.predecessors().isEmpty()) {
+            return Mono.empty();
+        }
+        return mongoTemplate.findAndModify(
+            query(shift.and("status").in(newStatus.predecessors())),
+            transitionUpdate(newStatus, changedAt),
+            options().returnNew(false),
+            Shift.class);
+    }
+
+    @Override
+    public Mono<TransitionOutcome> bulkTransition(List<StatusUpdate> updates, LocalDateTime changedAt) {
+        if (updates.isEmpty()) {
+            return Mono.just(new TransitionOutcome(Set.of(), Map.of()));
+        }
+        String batch = new ObjectId().toHexString();
+        ReactiveBulkOperations bulk = mongoTemplate.bulkOps(BulkMode.UNORDERED, Shift.class);
+        for (StatusUpdate update : updates) {
+            bulk.updateOne(query(where("id").is(update.id()).and("status").is(update.expected())),
+                transitionUpdate(update.target(), changedAt).set(TRANSITION_BATCHES + "." + update.target().name(), batch));
+        }
+        Map<String, String> errors = new HashMap<>();
+        return bulk.execute()
+            .map(BulkWriteResult::getModifiedCount)
+            .onErrorResume(e -> {
+                // unordered: the updates that did not fail may have been applied, find out below
+                List<BulkWriteError> writeErrors = writeErrorsOf(e);
+                if (writeErrors == null) {
+                    updates.forEach(update -> errors.put(update.id(), "Bulk write failed: " + e.getMessage()));
+                } else {
+                    writeErrors.forEach(error -> errors.put(updates.get(error.getIndex()).id(), error.getMessage()));
+                }
+                return Mono.just(-1);
+            })
+            .flatMap(modified -> modified == updates.size()
+                ? Mono.just(new TransitionOutcome(updates.stream().map(StatusUpdate::id).collect(Collectors.toSet()), Map.of()))
+                : appliedBy(batch, updates).map(applied -> {
+                    errors.keySet().removeAll(applied);
+                    return new TransitionOutcome(applied, errors);
+                }));
+    }
+
+    /**
+     * Ids of the shifts stamped by the given batch for their target status.
+     */
+    private Mono<Set<String>> appliedBy(String batch, List<StatusUpdate> updates) {
+        Map<String, ShiftStatus> targets = new HashMap<>();
+        updates.forEach(update -> targets.put(update.id(), update.target()));
+        // read as raw documents: the stamps are not part of the Shift model
+        Query stamped = query(where("_id").in(updates.stream().map(update -> storedId(update.id())).toList()));
+        stamped.fields().include(TRANSITION_BATCHES);
+        return mongoTemplate.find(stamped, Document.class, mongoTemplate.getCollectionName(Shift.class))
+            .filter(document -> {
+                Document stamps = document.get(TRANSITION_BATCHES, Document.class);
+                String id = document.get("_id").toString();
+                return stamps != null && batch.equals(stamps.getString(targets.get(id).name()));
+            })
+            .map(document -> document.get("_id").toString())
+            .collect(Collectors.toSet());
+    }
+
+    /** Shift ids that look like ObjectIds are stored as such, as Spring Data does when mapping the id. */
+    private static Object storedId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    @Override
+    public Flux<StatusCount> countByStatus(LocalDate serviceDate) {
+        // served by the serviceDate_specialty_status_specialPriority index without reading any document
+        TypedAggregation<Shift> pipeline = newAggregation(Shift.class,
+            match(where("serviceDate").is(serviceDate)),
+            project("specialty", "status", "specialPriority").andExclude("_id"),
+            group("specialty", "status", "specialPriority").count().as("count"));
+        return mongoTemplate.aggregate(pipeline, Document.class)
+            .map(group -> {
+                Document key = group.get("_id", Document.class);
+                String status = key.getString("status");
+                return new StatusCount(
+                    key.getString("specialty"),
+                    status == null ? null : ShiftStatus.valueOf(status),
+                    Boolean.TRUE.equals(key.getBoolean("specialPriority")),
+                    group.get("count", Number.class).longValue());
+            });
+    }
+
+    @Override
+    public Mono<Integer> archiveBatch(LocalDate before, int batchSize) {
+        // no sort: any order works for a resumable move, and the serviceDate index stops after one batch
+        Query batch = query(where("serviceDate").lt(before)).limit(batchSize);
+        batch.fields().include("id");
+        return mongoTemplate.find(batch, Document.class, mongoTemplate.getCollectionName(Shift.class))
+            .map(document -> document.get("_id"))
+            .collectList()
+            .flatMap(ids -> ids.isEmpty() ? Mono.just(0) : mongoTemplate
+                .aggregate(newAggregation(
+                    match(where("_id").in(ids)),
+                    merge().intoCollection(ARCHIVE_COLLECTION).on("_id")
+                        .whenDocumentsMatch(WhenDocumentsMatch.replaceDocument())
+                        .whenDocumentsDontMatch(WhenDocumentsDontMatch.insertNewDocument())
+                        .build()),
+                    mongoTemplate.getCollectionName(Shift.class), Document.class)
+                .then(mongoTemplate.remove(query(where("_id").in(ids)), Shift.class))
+                .thenReturn(ids.size()));
+    }
+
+    @Override
+    public Mono<ServiceDateBackfill> backfillServiceDates(ZoneId zone) {
+        // raw documents: createdAt is read as the stored instant, whatever the zone of this host
+        Query undated = query(where("serviceDate").exists(false).and("createdAt").exists(true));
+        undated.fields().include("id", "createdAt", "specialty", "turnCode");
+        List<String> duplicates = new ArrayList<>();
+        return mongoTemplate.find(undated, Document.class, mongoTemplate.getCollectionName(Shift.class))
+            // one at a time, so two legacy shifts with the same turn code that day cannot both be dated
+            .concatMap(document -> {
+                LocalDate serviceDate = document.getDate("createdAt").toInstant().atZone(zone).toLocalDate();
+                Object id = document.get("_id");
+                return mongoTemplate.exists(query(where("specialty").is(document.getString("specialty"))
+                        .and("serviceDate").is(serviceDate)
+                        .and("turnCode").is(document.getString("turnCode"))), Shift.class)
+                    .flatMap(taken -> taken
+                        ? Mono.<Long>error(new DuplicateKeyException("Turn code taken on " + serviceDate))
+                        // a shift dated meanwhile, by another instance, is simply not modified
+                        : mongoTemplate.updateFirst(query(where("_id").is(id).and("serviceDate").exists(false)),
+                                Update.update("serviceDate", serviceDate), Shift.class)
+                            .map(UpdateResult::getModifiedCount))
+                    .onErrorResume(DuplicateKeyException.class, e -> {
+                        duplicates.add(id.toString());
+                        return Mono.just(0L);
+                    });
+            })
+            .reduce(0L, Long::sum)
+            .map(dated -> new ServiceDateBackfill(dated, List.copyOf(duplicates)));
+    }
+
+    @Override
+    public Flux<Shift> findServedBetween(LocalDate from, LocalDate to, String specialty) {
+        return mongoTemplate.find(servedBetween(from, to, specialty), Shift.class);
+    }
+
+    @Override
+    public Flux<Shift> findArchivedBetween(LocalDate from, LocalDate to, String specialty) {
+        return mongoTemplate.find(servedBetween(from, to, specialty), Shift.class, ARCHIVE_COLLECTION);
+    }
+
+    private static Query servedBetween(LocalDate from, LocalDate to, String specialty) {
+        Criteria range = where("serviceDate").gte(from).lte(to);
+        if (specialty != null) {
+            range = range.and("specialty").is(specialty);
+        }
+        return query(range).with(Sort.by("serviceDate", "id"));
+    }
+
+    static Update transitionUpdate(ShiftStatus newStatus, LocalDateTime changedAt) {
+        Update update = new Update()
+            .set("status", newStatus)
+            .set("statusChangedAt", changedAt);
+        String timestampField = Shift.transitionTimestampField(newStatus);
+        return timestampField == null ? update : update.set(timestampField, changedAt);
+    }
+
+    /**
+     * Per-document errors of a partially failed bulk write. Depending on the error codes
+     * the driver exception is translated to different Spring exceptions, so the cause chain is searched.
+     */
+    private static List<BulkWriteError> writeErrorsOf(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BulkOperationException bulk) {
+                return bulk.getErrors();
+            }
+            if (cause instanceof MongoBulkWriteException bulk) {
+                return bulk.getWriteErrors();
+            }
+        }
+        return null;
+    }
+}
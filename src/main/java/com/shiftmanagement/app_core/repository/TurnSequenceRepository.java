@@ -0,0 +1,74 @@
+package com.shiftmanagement.app_core.repository;
+
+import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.time.LocalDate;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import com.shiftmanagement.app_core.model.ShiftCounter;
+
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Atomic turn-code sequences backed by the ShiftCounters collection.
+ * Each call is a single findAndModify upsert, so codes stay unique across
+ * concurrent requests and across several app instances.
+ */
+@Repository
+public class TurnSequenceRepository {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public TurnSequenceRepository(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Allocates the next number of the sequence for a specialty on a given day.
+     *
+     * @param specialty the specialty the turn belongs to
+     * @param serviceDate the service day of the turn
+     * @return a Mono emitting the allocated number, starting at 1 each day
+     */
+    public Mono<Long> next(String specialty, LocalDate serviceDate) {
+        return nextBlock(specialty, serviceDate, 1);
+    }
+
+    /**
+     * Reserves a contiguous block of numbers in one atomic step.
+     *
+     * @param specialty the specialty the turns belong to
+     * @param serviceDate the service day of the turns
+     * @param size how many numbers to reserve, must be positive
+     * @return a Mono emitting the last number of the reserved block
+     */
+    public Mono<Long> nextBlock(String specialty, LocalDate serviceDate, int size) {
+        if (size < 1) {
+            return Mono.error(new IllegalArgumentException("The block size must be positive"));
+        }
+        Update update = new Update()
+            .inc("seq", size)
+            .setOnInsert("specialty", specialty)
+            .setOnInsert("serviceDate", serviceDate);
+
+        return mongoTemplate.findAndModify(
+                query(where("_id").is(key(specialty, serviceDate))),
+                update,
+                options().upsert(true).returnNew(true),
+                ShiftCounter.class)
+            // two first-of-the-day upserts can race on the _id; the loser simply retries as an update
+            .retryWhen(Retry.max(1).filter(DuplicateKeyException.class::isInstance))
+            .map(ShiftCounter::getSeq);
+    }
+
+    static String key(String specialty, LocalDate serviceDate) {
+        return specialty + ":" + serviceDate;
+    }
+}
@@ -0,0 +1,274 @@
+package com.shiftmanagement.app_core.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+import com.shiftmanagement.app_core.repository.ShiftRepository;
+
+/**
+ * Live queue of waiting (ASSIGNED) shifts per specialty for the current service day.
+ * Shifts with special priority go first, the rest are served in creation order.
+ * Each specialty is a concurrent skip list, so peek and poll are O(log n) and never hit the database;
+ * the position of a shift is O(position), see {@link #ahead(Shift)}.
+ */
+@Service
+public class DispatchQueueService implements ShiftChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(DispatchQueueService.class);
+
+    private static final Comparator<Entry> DISPATCH_ORDER = Comparator
+        .comparing(Entry::specialPriority).reversed()
+        .thenComparing(Entry::createdAt, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(Entry::id);
+
+    private final ShiftRepository shiftRepository;
+    private final ServiceDayProvider serviceDayProvider;
+    private final Map<String, DayQueue> queues = new ConcurrentHashMap<>();
+
+    public DispatchQueueService(ShiftRepository shiftRepository, ServiceDayProvider serviceDayProvider) {
+        this.shiftRepository = shiftRepository;
+        this.serviceDayProvider = serviceDayProvider;
+    }
+
+    /**
+     * Rebuilds the queues from today's ASSIGNED shifts once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDate today = serviceDayProvider.today();
+        shiftRepository.findByStatusAndServiceDate(ShiftStatus.ASSIGNED, today)
+            .doOnNext(this::offer)
+            .count()
+            .subscribe(
+                count -> log.info("Dispatch queues rebuilt with {} waiting shifts", count),
+                e -> log.error("Could not rebuild the dispatch queues", e));
+    }
+
+    /**
+     * Adds a waiting shift to the queue of its specialty.
+     * Shifts that are not ASSIGNED or not from the current service day are ignored.
+     *
+     * @param shift the shift to enqueue
+     */
+    public void offer(Shift shift) {
+        if (shift.getId() == null || shift.getStatus() != ShiftStatus.ASSIGNED) {
+            return;
+        }
+        LocalDate today = serviceDayProvider.today();
+        if (!today.equals(shift.getServiceDate())) {
+            return;
+        }
+        queueFor(shift.getSpecialty(), today).add(Entry.of(shift));
+    }
+
+    /**
+     * Returns the next shift to be called for a specialty without removing it.
+     *
+     * @param specialty the specialty to look at
+     * @return the head of the queue, if any
+     */
+    public Optional<Shift> peek(String specialty) {
+        DayQueue queue = currentQueue(specialty);
+        if (queue == null) {
+            return Optional.empty();
+        }
+        Iterator<Entry> head = queue.entries().iterator();
+        return head.hasNext() ? Optional.of(head.next().shift()) : Optional.empty();
+    }
+
+    /**
+     * Atomically removes and returns the next shift to be called for a specialty.
+     * Concurrent callers never receive the same shift.
+     *
+     * @param specialty the specialty to dispatch
+     * @return the removed head of the queue, if any
+     */
+    public Optional<Shift> poll(String specialty) {
+        DayQueue queue = currentQueue(specialty);
+        if (queue == null) {
+            return Optional.empty();
+        }
+        Entry head = queue.entries().pollFirst();
+        if (head == null) {
+            return Optional.empty();
+        }
+        queue.forget(head);
+        return Optional.of(head.shift());
+    }
+
+    /**
+     * Finds a shift waiting today by its turn code, so callers that only have the code do not have to
+     * ask the database for a shift the queue already holds.
+     *
+     * @param turnCode the turn code of the shift
+     * @return the waiting shift, or empty if no shift with that code is waiting today
+     */
+    public Optional<Shift> findWaiting(String turnCode) {
+        if (turnCode == null) {
+            return Optional.empty();
+        }
+        for (String specialty : queues.keySet()) {
+            DayQueue queue = currentQueue(specialty);
+            Entry entry = queue == null ? null : queue.byTurnCode().get(turnCode);
+            if (entry != null) {
+                return Optional.of(entry.shift());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Removes a shift from its queue, e.g. when it is canceled or deleted.
+     *
+     * @param shift the shift to remove
+     */
+    public void remove(Shift shift) {
+        DayQueue queue = currentQueue(shift.getSpecialty());
+        if (queue != null && shift.getId() != null) {
+            queue.remove(shift.getId());
+        }
+    }
+
+    /**
+     * @param specialty the specialty to look at
+     * @return how many shifts are waiting for the specialty today
+     */
+    public int size(String specialty) {
+        DayQueue queue = currentQueue(specialty);
+        return queue == null ? 0 : queue.entries().size();
+    }
+
+    /**
+     * Counts the shifts that will be called before the given one by walking the part of the queue
+     * ahead of it, so the cost grows with the position rather than with log n.
+     * <p>
+     * The trade-off is deliberate. The skip list keeps no ranks, and deriving the position from
+     * per-specialty enqueue and dequeue sequences would only be exact if shifts were served in
+     * arrival order and every cancellation ahead were counted, which would put a lock on poll, the
+     * hot path of the desks. A specialty has at most a day's waiting shifts, a few hundred, walked in
+     * microseconds, and only the ETA endpoint asks for a position.
+     *
+     * @param shift a waiting shift
+     * @return how many shifts are ahead, or empty if the shift is not waiting today
+     */
+    public OptionalInt ahead(Shift shift) {
+        DayQueue queue = currentQueue(shift.getSpecialty());
+        Entry entry = queue == null || shift.getId() == null ? null : queue.byId().get(shift.getId());
+        if (entry == null) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of(queue.entries().headSet(entry).size());
+    }
+
+    @Override
+    public void onShiftCreated(Shift shift) {
+        offer(shift);
+    }
+
+    @Override
+    public void onShiftStatusChanged(Shift shift, ShiftStatus previousStatus) {
+        if (shift.getStatus() == ShiftStatus.ASSIGNED) {
+            offer(shift);
+        } else if (previousStatus == ShiftStatus.ASSIGNED) {
+            remove(shift);
+        }
+    }
+
+    @Override
+    public void onShiftDeleted(Shift shift) {
+        remove(shift);
+    }
+
+    private DayQueue currentQueue(String specialty) {
+        if (specialty == null) {
+            return null;
+        }
+        DayQueue queue = queues.get(specialty);
+        if (queue == null) {
+            return null;
+        }
+        LocalDate today = serviceDayProvider.today();
+        if (!queue.day().equals(today)) {
+            // the service day is over: yesterday's waiting shifts are no longer dispatched
+            queues.remove(specialty, queue);
+            return null;
+        }
+        return queue;
+    }
+
+    private DayQueue queueFor(String specialty, LocalDate today) {
+        return queues.compute(specialty, (key, queue) ->
+            queue == null || !queue.day().equals(today) ? DayQueue.empty(today) : queue);
+    }
+
+    /**
+     * Skip list ordered for dispatch plus id and turn code indexes, so removals by id are O(log n) as well
+     * and a lookup by turn code is O(1).
+     */
+    private record DayQueue(LocalDate day, ConcurrentSkipListSet<Entry> entries, Map<String, Entry> byId,
+                            Map<String, Entry> byTurnCode) {
+
+        static DayQueue empty(LocalDate day) {
+            return new DayQueue(day, new ConcurrentSkipListSet<>(DISPATCH_ORDER), new ConcurrentHashMap<>(),
+                new ConcurrentHashMap<>());
+        }
+
+        void add(Entry entry) {
+            Entry previous = byId.put(entry.id(), entry);
+            if (previous != null) {
+                entries.remove(previous);
+                if (previous.turnCode() != null) {
+                    byTurnCode.remove(previous.turnCode(), previous);
+                }
+            }
+            entries.add(entry);
+            if (entry.turnCode() != null) {
+                byTurnCode.put(entry.turnCode(), entry);
+            }
+        }
+
+        void remove(String id) {
+            Entry entry = byId.remove(id);
+            if (entry != null) {
+                entries.remove(entry);
+                if (entry.turnCode() != null) {
+                    byTurnCode.remove(entry.turnCode(), entry);
+                }
+            }
+        }
+
+        /** Drops the indexes of an entry already taken off the skip list. */
+        void forget(Entry entry) {
+            byId.remove(entry.id(), entry);
+            if (entry.turnCode() != null) {
+                byTurnCode.remove(entry.turnCode(), entry);
+            }
+        }
+    }
+
+    private record Entry(String id, boolean specialPriority, LocalDateTime createdAt, Shift shift) {
+
+        static Entry of(Shift shift) {
+            return new Entry(shift.getId(), shift.isSpecialPriority(), shift.getCreatedAt(), shift);
+        }
+
+        String turnCode() {
+            return shift.getTurnCode();
+        }
+    }
+}
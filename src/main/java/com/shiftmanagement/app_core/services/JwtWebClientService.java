@@ -1,9 +1,16 @@
 package com.shiftmanagement.app_core.services;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Base64;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -12,51 +19,117 @@ import org.springframework.web.reactive.function.client.WebClient;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.shiftmanagement.app_core.model.User;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import reactor.core.publisher.Mono;
 
 @Service
 public class JwtWebClientService {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtWebClientService.class);
+
+    /** Lifetime assumed for tokens that do not carry a readable exp claim. */
+    private static final Duration DEFAULT_TOKEN_LIFETIME = Duration.ofMinutes(55);
+
+    /** Fraction of the token lifetime after which a background refresh is started. */
+    private static final double REFRESH_AHEAD_RATIO = 0.8;
+
+    public static final String REFRESH_COUNTER = "users.token.refreshes";
+
     private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final UserServiceResilience resilience;
 
-    private String cachedToken;
-    private Instant expiresAt = Instant.EPOCH;
+    // bounded, and each entry leaves at the exp of its token, so users who stop coming are not kept
+    private final Cache<String, CachedToken> tokens;
+    private final Map<String, Mono<String>> inFlightRefreshes = new ConcurrentHashMap<>();
 
     @Value("${api.auth.url}")
     private String Url;
 
-    public JwtWebClientService(WebClient webClient) {
+    @Autowired
+    public JwtWebClientService(WebClient webClient, MeterRegistry meterRegistry, UserServiceResilience resilience,
+                               ObjectMapper objectMapper,
+                               @Value("${api.users.tokens.max-size:10000}") long tokenCacheMaxSize) {
         this.webClient = webClient;
+        this.meterRegistry = meterRegistry;
+        this.resilience = resilience;
+        this.objectMapper = objectMapper;
+        this.tokens = Caffeine.newBuilder()
+            .maximumSize(tokenCacheMaxSize)
+            .expireAfter(new UntilTokenExpiry())
+            .build();
     }
 
     /**
      * Retrieves a valid JWT token for the specified user.
-     * If a token is cached and not expired, it returns it; otherwise, it fetches a new one.
+     * Tokens are cached per user. Once a cached token is past 80% of its lifetime it is
+     * still returned while a refresh runs in the background; a missing or expired token
+     * waits on a single in-flight refresh shared by every concurrent caller.
      *
      * @param id the user ID for which the token is required
      * @return a Mono emitting the JWT token as a String
      */
     public Mono<String> getToken(String id) {
-        if (cachedToken == null || Instant.now().isAfter(expiresAt)) {
-            return refreshToken(id);
-        }
-        return Mono.just(cachedToken);
-        }
+        return Mono.defer(() -> {
+            CachedToken cached = tokens.getIfPresent(id);
+            Instant now = Instant.now();
+            if (cached == null || !now.isBefore(cached.expiresAt())) {
+                return sharedRefresh(id, "blocking");
+            }
+            if (!now.isBefore(cached.refreshAt())) {
+                sharedRefresh(id, "background").subscribe(
+                    token -> { },
+                    e -> log.warn("Background token refresh failed for user {}: {}", id, e.getMessage()));
+            }
+            return Mono.just(cached.token());
+        });
+    }
+
+    /**
+     * Returns the refresh already running for the user, or starts one.
+     *
+     * Each refresh that actually reaches the user service is counted by mode and outcome.
+     *
+     * @param id the user ID for which to refresh the token
+     * @param mode blocking when the caller waits for the token, background when a cached one was returned
+     * @return a Mono emitting the new JWT token
+     */
+    private Mono<String> sharedRefresh(String id, String mode) {
+        return inFlightRefreshes.computeIfAbsent(id, key -> refreshToken(key)
+            .doOnSuccess(token -> refreshCounter(mode, "success").increment())
+            .doOnError(e -> refreshCounter(mode, "error").increment())
+            .doFinally(signal -> inFlightRefreshes.remove(key))
+            .cache());
+    }
+
+    private Counter refreshCounter(String mode, String outcome) {
+        return Counter.builder(REFRESH_COUNTER)
+            .description("Token refreshes against the user service")
+            .tag("mode", mode)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
 
     /**
      * Calls the external user service to fetch user credentials and then requests a new JWT token.
-     * Caches the token and sets its expiration time for future use.
+     * Caches the token with the expiration time taken from its exp claim.
+     * The credentials lookup may be retried, the login call never is.
      *
      * @param id the user ID for which to refresh the token
      * @return a Mono emitting the new JWT token
      */
     private Mono<String> refreshToken(String id) {
-        return webClient.get()
-        .uri(Url + "/user-service/users/by-number-id/" + id)
+        return resilience.lookup(webClient.get()
+        .uri(Url + "/user-service/users/by-number-id/{id}", id)
         .retrieve()
-        .bodyToMono(User.class)
+        .bodyToMono(User.class))
         .flatMap(user -> {
             if (user == null || user.userName() == null || user.password() == null) {
                 return Mono.error(new IllegalStateException("Credenciales faltantes para usuario " + id));
@@ -67,24 +140,21 @@ public class JwtWebClientService {
                 "password", user.password()
             );
 
-            return webClient.post()
+            return resilience.login(webClient.post()
                 .uri(Url + "/user-service/login")
                 .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .bodyValue(loginRequest)
                 .retrieve()
-                .bodyToMono(String.class) 
-                .doOnNext(body -> System.out.println("Respuesta cruda del login: " + body))
+                .bodyToMono(String.class))
                 .flatMap(body -> {
                 try {
-                    ObjectMapper mapper = new ObjectMapper();
-                    JsonNode rootNode = mapper.readTree(body);
+                    JsonNode rootNode = objectMapper.readTree(body);
                     String token = rootNode.path("token").asText();
                     if (token == null || token.isEmpty()) {
                         return Mono.error(new IllegalStateException("Token es null o vacío"));
                     }
-                    
-                    this.cachedToken = token;
-                    this.expiresAt = Instant.now().plus(Duration.ofMinutes(55));
+
+                    tokens.put(id, CachedToken.of(token, Instant.now(), expirationOf(token)));
                     return Mono.just(token);
                 } catch (Exception e) {
                     return Mono.error(e);
@@ -97,18 +167,67 @@ public class JwtWebClientService {
         return webClient;
     }
 
-    public String getCachedToken() {
-        return cachedToken;
+    /**
+     * Reads the exp claim of a JWT without verifying it.
+     *
+     * @param token the JWT returned by the login endpoint
+     * @return the expiration instant, or the default lifetime from now if the claim is missing
+     */
+    private Instant expirationOf(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length >= 2) {
+            try {
+                byte[] payload = Base64.getUrlDecoder().decode(parts[1]);
+                JsonNode exp = objectMapper.readTree(new String(payload, StandardCharsets.UTF_8)).path("exp");
+                if (exp.canConvertToLong()) {
+                    return Instant.ofEpochSecond(exp.asLong());
+                }
+            } catch (Exception e) {
+                log.debug("Token payload is not readable, using the default lifetime", e);
+            }
+        }
+        return Instant.now().plus(DEFAULT_TOKEN_LIFETIME);
+    }
+
+    public String getCachedToken(String id) {
+        CachedToken cached = tokens.getIfPresent(id);
+        return cached == null ? null : cached.token();
     }
 
-    public Instant getExpiresAt() {
-        return expiresAt;
+    public Instant getExpiresAt(String id) {
+        CachedToken cached = tokens.getIfPresent(id);
+        return cached == null ? Instant.EPOCH : cached.expiresAt();
     }
 
     public String getUrl() {
         return Url;
     }
 
-    
-}
+    private record CachedToken(String token, Instant refreshAt, Instant expiresAt) {
 
+        static CachedToken of(String token, Instant issuedAt, Instant expiresAt) {
+            long lifetimeMillis = Math.max(0, Duration.between(issuedAt, expiresAt).toMillis());
+            Instant refreshAt = issuedAt.plusMillis((long) (lifetimeMillis * REFRESH_AHEAD_RATIO));
+            return new CachedToken(token, refreshAt, expiresAt);
+        }
+    }
+
+    /** A token is dropped from the cache once it expires; a new token for the user restarts the countdown. */
+    private static final class UntilTokenExpiry implements Expiry<String, CachedToken> {
+
+        @Override
+        public long expireAfterCreate(String id, CachedToken token, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), token.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String id, CachedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String id, CachedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
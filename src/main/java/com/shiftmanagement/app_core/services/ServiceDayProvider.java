@@ -0,0 +1,39 @@
+package com.shiftmanagement.app_core.services;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the current service day from the injected {@link Clock}.
+ * Every call reads the clock, so "today" follows midnight without a restart.
+ */
+@Component
+public class ServiceDayProvider {
+
+    private final Clock clock;
+
+    public ServiceDayProvider(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * @return the current service day in the campus time zone
+     */
+    public LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    /**
+     * @return the current date and time in the campus time zone
+     */
+    public LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+}
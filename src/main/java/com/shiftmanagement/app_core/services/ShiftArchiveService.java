@@ -0,0 +1,154 @@
+package com.shiftmanagement.app_core.services;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.repository.ShiftRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keeps the Shifts collection limited to recent service days.
+ * When {@code app.archive.enabled} is set, shifts older than the hot window are moved to the archive
+ * collection every night, and history reads query the archive only when they reach back past the hot
+ * window. It is off by default: once on, the other shift endpoints only see the hot window.
+ */
+@Service
+public class ShiftArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(ShiftArchiveService.class);
+
+    public static final long MAX_HISTORY_DAYS = 366;
+
+    /** The order of the history queries, so the archive and the hot collection can be merged into it. */
+    private static final Comparator<Shift> HISTORY_ORDER = Comparator
+        .comparing(Shift::getServiceDate)
+        .thenComparing(Shift::getId);
+
+    private final ShiftRepository shiftRepository;
+    private final ServiceDayProvider serviceDayProvider;
+    private final boolean enabled;
+    private final int hotDays;
+    private final int batchSize;
+    private final Duration batchDelay;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ShiftArchiveService(ShiftRepository shiftRepository, ServiceDayProvider serviceDayProvider,
+                               @Value("${app.archive.enabled:false}") boolean enabled,
+                               @Value("${app.archive.hot-days:7}") int hotDays,
+                               @Value("${app.archive.batch-size:1000}") int batchSize,
+                               @Value("${app.archive.batch-delay:200ms}") Duration batchDelay) {
+        if (hotDays < 1) {
+            throw new IllegalArgumentException("app.archive.hot-days must keep at least the current day");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("app.archive.batch-size must be positive");
+        }
+        this.shiftRepository = shiftRepository;
+        this.serviceDayProvider = serviceDayProvider;
+        this.enabled = enabled;
+        this.hotDays = hotDays;
+        this.batchSize = batchSize;
+        this.batchDelay = batchDelay;
+    }
+
+    /**
+     * Nightly archiving run. Skipped while a previous run is still going.
+     */
+    @Scheduled(cron = "${app.archive.cron:0 30 2 * * *}", zone = "${app.campus.time-zone:America/Bogota}")
+    public void scheduledArchive() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        archive()
+            .doFinally(signal -> running.set(false))
+            .subscribe(
+                moved -> log.info("Archived {} shifts served before {}", moved, hotWindowStart()),
+                e -> log.error("Could not archive past shifts, the next run resumes where this one stopped", e));
+    }
+
+    /**
+     * Moves every shift served before the hot window to the archive, one batch at a time
+     * with a pause between batches so daytime traffic is not starved.
+     *
+     * @return a Mono with the number of shifts moved
+     */
+    public Mono<Long> archive() {
+        return Mono.defer(() -> {
+            LocalDate before = hotWindowStart();
+            return shiftRepository.archiveBatch(before, batchSize)
+                .expand(moved -> moved < batchSize
+                    ? Mono.empty()
+                    : Mono.delay(batchDelay).then(shiftRepository.archiveBatch(before, batchSize)))
+                .reduce(0L, Long::sum);
+        });
+    }
+
+    /**
+     * Shifts served between two days, both included. The archive is only queried when the range
+     * starts before the hot window. Only shifts still in the hot collection although served before
+     * the hot window, normally the last day before the nightly run, can also be in the archive; they
+     * are read first and returned once, so the rest of the range streams without being held.
+     * Both collections are read in service day and id order and merged, so the result keeps that order.
+     *
+     * @param from the first service day
+     * @param to the last service day
+     * @param specialty optional specialty filter
+     * @return a Flux of shifts ordered by service day, then id
+     */
+    public Flux<Shift> getHistory(LocalDate from, LocalDate to, String specialty) {
+        if (from == null || to == null || from.isAfter(to)) {
+            return Flux.error(new IllegalArgumentException("A history range needs from <= to"));
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_HISTORY_DAYS) {
+            return Flux.error(new IllegalArgumentException("A history range cannot span more than " + MAX_HISTORY_DAYS + " days"));
+        }
+        return Flux.defer(() -> {
+            LocalDate hotStart = hotWindowStart();
+            if (!from.isBefore(hotStart)) {
+                return shiftRepository.findServedBetween(from, to, specialty);
+            }
+            if (!enabled) {
+                // nothing is being moved, so the two collections do not overlap
+                return Flux.mergeComparing(HISTORY_ORDER,
+                    shiftRepository.findArchivedBetween(from, to, specialty),
+                    shiftRepository.findServedBetween(from, to, specialty));
+            }
+            LocalDate lastArchivable = to.isBefore(hotStart) ? to : hotStart.minusDays(1);
+            Flux<Shift> recent = to.isBefore(hotStart)
+                ? Flux.empty()
+                : shiftRepository.findServedBetween(hotStart, to, specialty);
+            // pending shifts are read before the archive: one moved in between is then in both and skipped there
+            return shiftRepository.findServedBetween(from, lastArchivable, specialty)
+                .collectList()
+                .flatMapMany(pending -> {
+                    Set<String> pendingIds = pending.stream().map(Shift::getId).collect(Collectors.toSet());
+                    return Flux.mergeComparing(HISTORY_ORDER,
+                        shiftRepository.findArchivedBetween(from, lastArchivable, specialty)
+                            .filter(shift -> !pendingIds.contains(shift.getId())),
+                        Flux.fromIterable(pending));
+                })
+                .concatWith(recent);
+        });
+    }
+
+    /**
+     * @return the first service day kept in the hot collection
+     */
+    public LocalDate hotWindowStart() {
+        return serviceDayProvider.today().minusDays(hotDays - 1L);
+    }
+}
@@ -0,0 +1,37 @@
+package com.shiftmanagement.app_core.services;
+
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+
+/**
+ * Callback notified by {@link ShiftService} after each successful write, so that
+ * in-memory views of the day can stay in sync without reading the database.
+ * Implementations are called on the thread that completed the write and must not block.
+ */
+public interface ShiftChangeListener {
+
+    /**
+     * Called after a new shift has been stored.
+     *
+     * @param shift the stored shift
+     */
+    default void onShiftCreated(Shift shift) {
+    }
+
+    /**
+     * Called after the status of a shift has been changed.
+     *
+     * @param shift the shift with its new status
+     * @param previousStatus the status it had before the change
+     */
+    default void onShiftStatusChanged(Shift shift, ShiftStatus previousStatus) {
+    }
+
+    /**
+     * Called after a shift has been deleted.
+     *
+     * @param shift the deleted shift
+     */
+    default void onShiftDeleted(Shift shift) {
+    }
+}
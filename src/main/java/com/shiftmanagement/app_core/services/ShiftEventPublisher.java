@@ -0,0 +1,216 @@
+package com.shiftmanagement.app_core.services;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bson.BsonValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftEvent;
+import com.shiftmanagement.app_core.model.ShiftEventType;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+/**
+ * Shared multicast source of shift lifecycle events.
+ * By default events come from the local {@link ShiftService} writes. With
+ * app.events.change-stream.enabled they come from a Mongo change stream instead,
+ * so every replica sees the writes of the others.
+ */
+@Service
+public class ShiftEventPublisher implements ShiftChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ShiftEventPublisher.class);
+
+    private final Sinks.Many<ShiftEvent> sink = Sinks.many().multicast().directBestEffort();
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final boolean changeStreamEnabled;
+    private final int subscriberBuffer;
+    private final AtomicReference<BsonValue> resumeToken = new AtomicReference<>();
+    private Disposable changeStream;
+
+    public ShiftEventPublisher(ReactiveMongoTemplate mongoTemplate,
+                               @Value("${app.events.change-stream.enabled:false}") boolean changeStreamEnabled,
+                               @Value("${app.events.subscriber-buffer:256}") int subscriberBuffer) {
+        this.mongoTemplate = mongoTemplate;
+        this.changeStreamEnabled = changeStreamEnabled;
+        this.subscriberBuffer = subscriberBuffer;
+    }
+
+    /**
+     * Starts listening to the Shifts change stream when it is enabled.
+     * The stream resumes from the last seen token after a failure.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startChangeStream() {
+        if (!changeStreamEnabled) {
+            return;
+        }
+        changeStream = Flux.defer(() -> mongoTemplate.changeStream(Shift.class)
+                .withOptions(options -> {
+                    options.returnFullDocumentOnUpdate();
+                    BsonValue token = resumeToken.get();
+                    if (token != null) {
+                        options.resumeToken(token);
+                    }
+                })
+                .watchCollection(Shift.class)
+                .listen())
+            .doOnNext(event -> resumeToken.set(event.getResumeToken()))
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                .doBeforeRetry(signal -> log.warn("Shift change stream failed, resuming: {}", signal.failure().getMessage())))
+            .subscribe(event -> {
+                ShiftEvent shiftEvent = toShiftEvent(event);
+                if (shiftEvent != null) {
+                    publish(shiftEvent);
+                }
+            });
+    }
+
+    @PreDestroy
+    public void stopChangeStream() {
+        if (changeStream != null) {
+            changeStream.dispose();
+        }
+    }
+
+    /**
+     * Subscribes to the events published from now on, optionally filtered.
+     * Each subscriber has its own bounded buffer: when it falls behind, the oldest
+     * events are dropped and replaced by a single GAP event with the number missed.
+     *
+     * @param specialty only events for this specialty, or null for all
+     * @param status only events entering or leaving this status, or null for all
+     * @return an endless Flux of events
+     */
+    public Flux<ShiftEvent> events(String specialty, ShiftStatus status) {
+        return Flux.defer(() -> {
+            // events are numbered before the buffer, so a jump in the numbers after it is exactly what was dropped
+            AtomicLong lastDelivered = new AtomicLong(-1);
+            return sink.asFlux()
+                .filter(event -> matches(event, specialty, status))
+                .index()
+                .onBackpressureBuffer(subscriberBuffer, BufferOverflowStrategy.DROP_OLDEST)
+                .concatMapIterable(indexed -> {
+                    long missed = indexed.getT1() - lastDelivered.getAndSet(indexed.getT1()) - 1;
+                    return missed > 0 ? List.of(ShiftEvent.gap(missed), indexed.getT2()) : List.of(indexed.getT2());
+                }, 1);
+        });
+    }
+
+    /**
+     * Pushes an event to every current subscriber without ever blocking the caller.
+     * Emits are serialized here, as the sink rejects concurrent ones; an event no subscriber
+     * could take is dropped.
+     *
+     * @param event the event to publish
+     */
+    public void publish(ShiftEvent event) {
+        Sinks.EmitResult result;
+        synchronized (sink) {
+            result = sink.tryEmitNext(event);
+        }
+        if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            log.debug("Shift event {} dropped: {}", event.type(), result);
+        }
+    }
+
+    @Override
+    public void onShiftCreated(Shift shift) {
+        publishLocal(ShiftEvent.of(ShiftEventType.CREATED, shift, null));
+    }
+
+    @Override
+    public void onShiftStatusChanged(Shift shift, ShiftStatus previousStatus) {
+        publishLocal(ShiftEvent.of(ShiftEventType.STATUS_CHANGED, shift, previousStatus));
+    }
+
+    @Override
+    public void onShiftDeleted(Shift shift) {
+        publishLocal(ShiftEvent.of(ShiftEventType.DELETED, shift, shift.getStatus()));
+    }
+
+    public boolean isChangeStreamEnabled() {
+        return changeStreamEnabled;
+    }
+
+    private void publishLocal(ShiftEvent event) {
+        // with the change stream on, the same write reaches the sink from Mongo
+        if (!changeStreamEnabled) {
+            publish(event);
+        }
+    }
+
+    private static boolean matches(ShiftEvent event, String specialty, ShiftStatus status) {
+        Shift shift = event.shift();
+        if (shift == null) {
+            return true;
+        }
+        if (specialty != null && shift.getSpecialty() != null && !specialty.equals(shift.getSpecialty())) {
+            return false;
+        }
+        return status == null || status == shift.getStatus() || status == event.previousStatus();
+    }
+
+    private static ShiftEvent toShiftEvent(ChangeStreamEvent<Shift> event) {
+        OperationType operation = event.getOperationType();
+        if (operation == null) {
+            return null;
+        }
+        return switch (operation) {
+            case INSERT -> ShiftEvent.of(ShiftEventType.CREATED, event.getBody(), null);
+            case UPDATE, REPLACE -> {
+                Shift shift = event.getBody();
+                UpdateDescription update = event.getRaw() == null ? null : event.getRaw().getUpdateDescription();
+                boolean statusKept = update != null && update.getUpdatedFields() != null
+                    && !update.getUpdatedFields().containsKey("status");
+                yield ShiftEvent.of(ShiftEventType.STATUS_CHANGED, shift,
+                    shift == null ? null : statusKept ? shift.getStatus() : previousStatus(shift));
+            }
+            case DELETE -> {
+                Shift deleted = new Shift();
+                if (event.getRaw() != null && event.getRaw().getDocumentKey() != null) {
+                    BsonValue id = event.getRaw().getDocumentKey().get("_id");
+                    deleted.setId(id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.toString());
+                }
+                yield ShiftEvent.of(ShiftEventType.DELETED, deleted, null);
+            }
+            default -> null;
+        };
+    }
+
+    /**
+     * The change stream only carries the shift after the change. The state machine has a single way
+     * into each status except CANCELED, and a canceled shift that had been called was IN_PROGRESS.
+     */
+    private static ShiftStatus previousStatus(Shift shift) {
+        if (shift.getStatus() == null) {
+            return null;
+        }
+        return switch (shift.getStatus()) {
+            case ASSIGNED -> null;
+            case IN_PROGRESS -> ShiftStatus.ASSIGNED;
+            case ATTENDED -> ShiftStatus.IN_PROGRESS;
+            case CANCELED -> shift.getCalledAt() != null ? ShiftStatus.IN_PROGRESS : ShiftStatus.ASSIGNED;
+        };
+    }
+}
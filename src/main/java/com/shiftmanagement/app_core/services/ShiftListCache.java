@@ -0,0 +1,108 @@
+package com.shiftmanagement.app_core.services;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shiftmanagement.app_core.model.ShiftBoardView;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Short-lived cache of today's list reads, so that the screens and desks asking for the same
+ * list within the same instant share one database query.
+ * <p>
+ * Entries are keyed by the view and its {@link ShiftViewVersions} tag. A write changes the tag,
+ * so the next read misses at once and never gets a list from before the write, even one still
+ * being queried; the old entry just expires. Concurrent misses for the same key share a single
+ * query, and failed queries are never cached.
+ * <p>
+ * The cache is bounded both by entry count and by the estimated heap size of the cached lists:
+ * every entry weighs at least {@code maxBytes / maxEntries}, so the byte bound also caps the count.
+ */
+@Component
+public class ShiftListCache implements MeterBinder {
+
+    public static final String CACHE_NAME = "shift-lists";
+    public static final String HIT_RATIO_GAUGE = "shifts.list-cache.hit-ratio";
+
+    // rough heap sizes of one element, with its strings and dates
+    private static final int SHIFT_BYTES = 640;
+    private static final int BOARD_VIEW_BYTES = 160;
+
+    private final AsyncCache<Key, List<?>> cache;
+
+    private record Key(String view, String version) {
+    }
+
+    @Autowired
+    public ShiftListCache(@Value("${app.cache.lists.ttl:500ms}") Duration ttl,
+                          @Value("${app.cache.lists.max-entries:1000}") int maxEntries,
+                          @Value("${app.cache.lists.max-bytes:16MB}") DataSize maxBytes) {
+        if (ttl.isZero() || ttl.isNegative()) {
+            this.cache = null;
+            return;
+        }
+        int minWeight = (int) Math.max(1, maxBytes.toBytes() / Math.max(1, maxEntries));
+        this.cache = Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumWeight(maxBytes.toBytes())
+            .weigher((Key key, List<?> list) -> Math.max(minWeight, estimateBytes(list)))
+            .recordStats()
+            .buildAsync();
+    }
+
+    /**
+     * Reads a list through the cache.
+     *
+     * @param view the list and its parameter, e.g. {@code specialty:Psicologia}
+     * @param version the current tag of the view
+     * @param query the database query, run only on a miss
+     * @return the cached or freshly read list
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Flux<T> get(String view, String version, Supplier<Flux<T>> query) {
+        if (cache == null) {
+            return query.get();
+        }
+        // the future is shared, so a subscriber that goes away must not cancel it for the others
+        return Mono.fromFuture(() -> cache.get(new Key(view, version),
+                (key, executor) -> query.get().collectList().<List<?>>map(list -> list).toFuture()), true)
+            .flatMapIterable(list -> (List<T>) list);
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache == null) {
+            return;
+        }
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+        Gauge.builder(HIT_RATIO_GAUGE, cache, c -> c.synchronous().stats().hitRate())
+            .description("Share of list reads served from the micro-cache since startup")
+            .register(registry);
+    }
+
+    private static int estimateBytes(List<?> list) {
+        if (list.isEmpty()) {
+            return 0;
+        }
+        long bytes = (long) list.size() * (list.get(0) instanceof ShiftBoardView ? BOARD_VIEW_BYTES : SHIFT_BYTES);
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+}
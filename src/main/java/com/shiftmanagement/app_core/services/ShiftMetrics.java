@@ -0,0 +1,54 @@
+package com.shiftmanagement.app_core.services;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Times the operations of {@link ShiftService} from subscription to completion.
+ * Each operation is a {@code shifts.operation} timer tagged with the operation name and its outcome,
+ * publishing the median, p95 and p99 and a histogram for server-side percentiles.
+ */
+@Component
+public class ShiftMetrics {
+
+    public static final String OPERATION_TIMER = "shifts.operation";
+
+    private final MeterRegistry registry;
+
+    public ShiftMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> Mono<T> timed(String operation, Mono<T> mono) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return mono.doFinally(signal -> sample.stop(timer(operation, signal)));
+        });
+    }
+
+    public <T> Flux<T> timed(String operation, Flux<T> flux) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return flux.doFinally(signal -> sample.stop(timer(operation, signal)));
+        });
+    }
+
+    private Timer timer(String operation, SignalType signal) {
+        return Timer.builder(OPERATION_TIMER)
+            .description("Time taken by shift operations, until the result is complete")
+            .tag("operation", operation)
+            .tag("outcome", switch (signal) {
+                case ON_ERROR -> "error";
+                case CANCEL -> "canceled";
+                default -> "success";
+            })
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+}
@@ -2,14 +2,36 @@ package com.shiftmanagement.app_core.services;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
+import org.bson.types.ObjectId;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import com.shiftmanagement.app_core.exceptions.ShiftTransitionConflictException;
+import com.shiftmanagement.app_core.model.BatchItemResult;
 import com.shiftmanagement.app_core.model.Prefix;
 import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftBoardView;
 import com.shiftmanagement.app_core.model.ShiftStatus;
+import com.shiftmanagement.app_core.model.StatusTransition;
+import com.shiftmanagement.app_core.model.TransitionResult;
+import com.shiftmanagement.app_core.model.User;
 import com.shiftmanagement.app_core.repository.ShiftRepository;
+import com.shiftmanagement.app_core.repository.ShiftRepositoryCustom.StatusUpdate;
+import com.shiftmanagement.app_core.repository.TurnSequenceRepository;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -17,52 +39,239 @@ import reactor.core.publisher.Mono;
 @Service
 public class ShiftService {
 
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_BATCH_SIZE = 5000;
+    private static final int STREAM_BATCH_SIZE = 256;
+    private static final int USER_LOOKUP_CONCURRENCY = 8;
+
     private final ShiftRepository shiftRepository;
     private final UserService userService;
-    LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-    LocalDateTime endOfDay = LocalDate.now().atTime(LocalTime.MAX);
+    private final TurnSequenceRepository turnSequenceRepository;
+    private final ServiceDayProvider serviceDayProvider;
+    private final DispatchQueueService dispatchQueueService;
+    private final List<ShiftChangeListener> listeners;
+    private final ShiftMetrics metrics;
 
-    public ShiftService(ShiftRepository shiftRepository, UserService userService) {
+    public ShiftService(ShiftRepository shiftRepository, UserService userService,
+                        TurnSequenceRepository turnSequenceRepository, ServiceDayProvider serviceDayProvider,
+                        DispatchQueueService dispatchQueueService, List<ShiftChangeListener> listeners,
+                        ShiftMetrics metrics) {
         this.shiftRepository = shiftRepository;
         this.userService = userService;
+        this.turnSequenceRepository = turnSequenceRepository;
+        this.serviceDayProvider = serviceDayProvider;
+        this.dispatchQueueService = dispatchQueueService;
+        this.listeners = listeners;
+        this.metrics = metrics;
     }
 
     /**
      * Generates a new shift with a turn code and assigned status.
+     * The turn number comes from an atomic per-specialty daily sequence, so
+     * concurrent requests never receive the same code.
      *
      * @param shift the shift object to be created
      * @return a Mono that completes when the shift is saved
      */
     public Mono<Shift> generateShift(Shift shift) {
+        return generateShift(shift, userService.getUserbyId(shift.getUserId()));
+    }
+
+    /**
+     * Generates a new shift for a caller whose identity is already known, e.g. from a verified
+     * token, so the user service is not called. The userId of the request is replaced by the
+     * caller's numberId.
+     *
+     * @param shift the shift object to be created
+     * @param user the caller
+     * @return a Mono that completes when the shift is saved
+     */
+    public Mono<Shift> generateShift(Shift shift, User user) {
+        return generateShift(shift, Mono.just(user));
+    }
+
+    private Mono<Shift> generateShift(Shift shift, Mono<User> caller) {
         String specialty = shift.getSpecialty();
-        Prefix prefix = switch (specialty) {
-            case "Psicologia" -> Prefix.PS;
-            case "Medicina General" -> Prefix.MG;
-            default -> Prefix.OD;
-        };
-
-        return userService.getUserbyId(shift.getUserId())
-            .flatMap(user -> shiftRepository.countBySpecialtyAndCreatedAtBetween(specialty, startOfDay, endOfDay)
-                .map(count -> {
-                    long nextNumber = count + 1;
-                    shift.setTurnCode(prefix + "-" + nextNumber);
-                    shift.setStatus(ShiftStatus.ASSIGNED);
-                    shift.setCreatedAt(LocalDateTime.now());
-                    shift.setUserId(user.numberId());
-                    shift.setUsername(user.userName());
-                    shift.setUserRole(user.role());
-                    return shift;
+        Prefix prefix = Prefix.forSpecialty(specialty);
+
+        return metrics.timed("generateShift", caller
+            .flatMap(user -> {
+                LocalDate serviceDate = serviceDayProvider.today();
+                return turnSequenceRepository.next(specialty, serviceDate)
+                    .map(nextNumber -> {
+                        shift.setTurnCode(prefix + "-" + nextNumber);
+                        shift.setStatus(ShiftStatus.ASSIGNED);
+                        shift.setCreatedAt(serviceDayProvider.now());
+                        shift.setServiceDate(serviceDate);
+                        shift.setUserId(user.numberId());
+                        shift.setUsername(user.userName());
+                        shift.setUserRole(user.role());
+                        return shift;
+                    });
+            })
+            .flatMap(shiftRepository::insert)
+            .doOnNext(created -> listeners.forEach(listener -> listener.onShiftCreated(created))));
+    }
+
+    /**
+     * Creates many shifts at once, e.g. to pre-register students for a campus event.
+     * Users are looked up once per distinct id with bounded concurrency, each specialty
+     * reserves a contiguous block of turn codes in one atomic step, and all shifts are
+     * written with a single unordered bulk insert. A failing item never fails the batch.
+     *
+     * @param requests the shifts to create, with userId, specialty and specialPriority
+     * @return a Mono with one result per request, in request order, or an IllegalArgumentException
+     *         once more than {@link #MAX_BATCH_SIZE} requests arrive
+     */
+    public Mono<List<BatchItemResult>> generateShifts(Flux<Shift> requests) {
+        // one item past the limit is enough to reject the batch, the rest of an oversized body is never read
+        return metrics.timed("generateShifts", requests.take(MAX_BATCH_SIZE + 1).collectList().flatMap(items -> {
+            if (items.size() > MAX_BATCH_SIZE) {
+                return Mono.error(new IllegalArgumentException("A batch cannot have more than " + MAX_BATCH_SIZE + " shifts"));
+            }
+            BatchItemResult[] results = new BatchItemResult[items.size()];
+            for (int i = 0; i < items.size(); i++) {
+                Shift item = items.get(i);
+                if (item == null || item.getUserId() == null || item.getSpecialty() == null) {
+                    results[i] = BatchItemResult.failed(i, "userId and specialty are required");
+                }
+            }
+
+            Set<String> userIds = new LinkedHashSet<>();
+            for (int i = 0; i < items.size(); i++) {
+                if (results[i] == null) {
+                    userIds.add(items.get(i).getUserId());
+                }
+            }
+
+            return Flux.fromIterable(userIds)
+                .flatMap(id -> userService.getUserbyId(id)
+                    .map(user -> new UserLookup(id, user, null))
+                    .defaultIfEmpty(new UserLookup(id, null, "User not found: " + id))
+                    .onErrorResume(e -> Mono.just(new UserLookup(id, null, "User lookup failed: " + e.getMessage()))),
+                    USER_LOOKUP_CONCURRENCY)
+                .collectMap(UserLookup::id)
+                .flatMap(users -> allocateAndInsert(items, users, results))
+                .thenReturn(Arrays.asList(results));
+        }));
+    }
+
+    private Mono<Void> allocateAndInsert(List<Shift> items, Map<String, UserLookup> users, BatchItemResult[] results) {
+        LocalDate serviceDate = serviceDayProvider.today();
+        LocalDateTime createdAt = serviceDayProvider.now();
+        Map<String, List<Integer>> bySpecialty = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            UserLookup lookup = users.get(items.get(i).getUserId());
+            if (lookup.user() == null) {
+                results[i] = BatchItemResult.failed(i, lookup.error());
+            } else {
+                bySpecialty.computeIfAbsent(items.get(i).getSpecialty(), key -> new ArrayList<>()).add(i);
+            }
+        }
+
+        List<Integer> pending = new ArrayList<>();
+        return Flux.fromIterable(bySpecialty.entrySet())
+            .concatMap(group -> turnSequenceRepository.nextBlock(group.getKey(), serviceDate, group.getValue().size())
+                .doOnNext(last -> {
+                    Prefix prefix = Prefix.forSpecialty(group.getKey());
+                    long number = last - group.getValue().size() + 1;
+                    for (int index : group.getValue()) {
+                        Shift shift = items.get(index);
+                        User user = users.get(shift.getUserId()).user();
+                        shift.setId(new ObjectId().toHexString());
+                        shift.setTurnCode(prefix + "-" + number++);
+                        shift.setStatus(ShiftStatus.ASSIGNED);
+                        shift.setCreatedAt(createdAt);
+                        shift.setServiceDate(serviceDate);
+                        shift.setUserId(user.numberId());
+                        shift.setUsername(user.userName());
+                        shift.setUserRole(user.role());
+                        pending.add(index);
+                    }
+                })
+                .onErrorResume(e -> {
+                    group.getValue().forEach(index -> results[index] = BatchItemResult.failed(index, "Turn code allocation failed: " + e.getMessage()));
+                    return Mono.empty();
                 }))
-            .flatMap(shiftRepository::insert);
+            .then(Mono.defer(() -> {
+                Collections.sort(pending);
+                List<Shift> toInsert = pending.stream().map(items::get).toList();
+                return shiftRepository.bulkInsert(toInsert)
+                    .onErrorResume(e -> {
+                        Map<Integer, String> all = new HashMap<>();
+                        for (int i = 0; i < toInsert.size(); i++) {
+                            all.put(i, e.getMessage());
+                        }
+                        return Mono.just(all);
+                    })
+                    .doOnNext(failures -> {
+                        for (int i = 0; i < toInsert.size(); i++) {
+                            int index = pending.get(i);
+                            if (failures.containsKey(i)) {
+                                results[index] = BatchItemResult.failed(index, failures.get(i));
+                            } else {
+                                Shift created = toInsert.get(i);
+                                results[index] = BatchItemResult.created(index, created);
+                                listeners.forEach(listener -> listener.onShiftCreated(created));
+                            }
+                        }
+                    });
+            }))
+            .then();
+    }
+
+    private record UserLookup(String id, User user, String error) {
+    }
+
+    /**
+     * Retrieves one page of shifts using keyset pagination on _id.
+     * The cursor of the next page is the id of the last shift returned.
+     *
+     * @param after the id of the last shift of the previous page, or null for the first page
+     * @param limit the page size, between 1 and {@link #MAX_PAGE_SIZE}
+     * @return a Flux with the page, empty when there are no more shifts; an IllegalArgumentException
+     *         for a limit out of range or a cursor that is not a shift id
+     */
+    public Flux<Shift> getShifts(String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return metrics.timed("getShifts", Flux.error(new IllegalArgumentException("The limit must be between 1 and " + MAX_PAGE_SIZE)));
+        }
+        if (!isCursor(after)) {
+            return metrics.timed("getShifts", Flux.error(invalidCursor(after)));
+        }
+        return metrics.timed("getShifts", after == null || after.isBlank()
+            ? shiftRepository.findAllByOrderByIdAsc(Limit.of(limit))
+            : shiftRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit)));
     }
 
     /**
-     * Retrieves all shifts from the database.
+     * Streams every shift in _id order, requesting documents from the database in small
+     * batches as the client consumes them, so a full export runs in constant memory.
      *
-     * @return a Flux of all Shift objects
+     * @param after the id to resume the export after, or null to start from the beginning
+     * @return a Flux of all Shift objects following the cursor; an IllegalArgumentException for a
+     *         cursor that is not a shift id
      */
-    public Flux<Shift> getShifts() {
-        return shiftRepository.findAll().switchIfEmpty(Flux.error(new IllegalStateException("No shifts found")));
+    public Flux<Shift> streamShifts(String after) {
+        if (!isCursor(after)) {
+            return metrics.timed("streamShifts", Flux.error(invalidCursor(after)));
+        }
+        Flux<Shift> shifts = after == null || after.isBlank()
+            ? shiftRepository.findAll(Sort.by("id"))
+            : shiftRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.unlimited());
+        return metrics.timed("streamShifts", shifts.limitRate(STREAM_BATCH_SIZE));
+    }
+
+    // shift ids are ObjectIds: any other cursor would compare by type in Mongo and silently end the listing
+    private static boolean isCursor(String after) {
+        return after == null || after.isBlank() || ObjectId.isValid(after);
+    }
+
+    private static IllegalArgumentException invalidCursor(String after) {
+        return new IllegalArgumentException("after must be the id of a shift, got: " + after);
     }
 
      /**
@@ -72,9 +281,10 @@ public class ShiftService {
      * @return a Mono that completes when deletion is successful
      */
     public Mono<Void> deleteShift(String id) {
-        return shiftRepository.findById(id)
+        return metrics.timed("deleteShift", shiftRepository.findById(id)
             .switchIfEmpty(Mono.error(new IllegalArgumentException("No shift found with ID: " + id)))
-            .flatMap(existing -> shiftRepository.deleteById(id));
+            .flatMap(existing -> shiftRepository.deleteById(id)
+                .then(Mono.fromRunnable(() -> listeners.forEach(listener -> listener.onShiftDeleted(existing))))));
     }
 
     /**
@@ -84,8 +294,8 @@ public class ShiftService {
      * @return a Flux of Shift objects with the specified role
      */
     public Flux<Shift> getShiftsByRole(String role) {
-        return shiftRepository.findByUserRole(role)
-            .switchIfEmpty(Flux.error(new IllegalArgumentException("No shifts found for role: " + role)));
+        return metrics.timed("getShiftsByRole", shiftRepository.findByUserRole(role)
+            .switchIfEmpty(Flux.error(new IllegalArgumentException("No shifts found for role: " + role))));
     }
 
     /**
@@ -95,8 +305,8 @@ public class ShiftService {
      * @return a Flux of Shift objects for the user
      */
     public Flux<Shift> getShiftsByUserId(String userId) {
-        return shiftRepository.findByUserId(userId)
-            .switchIfEmpty(Flux.error(new IllegalArgumentException("No shifts found for user: " + userId)));
+        return metrics.timed("getShiftsByUserId", shiftRepository.findByUserId(userId)
+            .switchIfEmpty(Flux.error(new IllegalArgumentException("No shifts found for user: " + userId))));
     }
 
     /**
@@ -106,8 +316,8 @@ public class ShiftService {
      * @return a Mono of the Shift object if found
      */
     public Mono<Shift> getShiftByTurnCode(String code) {
-        return shiftRepository.findByTurnCodeAndCreatedAtBetween(code, startOfDay, endOfDay)
-            .switchIfEmpty(Mono.error(new IllegalArgumentException("No shift found with code: " + code)));
+        return metrics.timed("getShiftByTurnCode", shiftRepository.findByTurnCodeAndServiceDate(code, serviceDayProvider.today())
+            .switchIfEmpty(Mono.error(new IllegalArgumentException("No shift found with code: " + code))));
     }
 
     /**
@@ -117,11 +327,11 @@ public class ShiftService {
      * @return a Mono with the deleted turn code
      */
     public Mono<String> deleteShiftByTurnCode(String turnCode) {
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfDay = LocalDate.now().atTime(LocalTime.MAX);
-        return shiftRepository.findByTurnCodeAndCreatedAtBetween(turnCode, startOfDay, endOfDay)
+        return metrics.timed("deleteShiftByTurnCode", shiftRepository.findByTurnCodeAndServiceDate(turnCode, serviceDayProvider.today())
             .switchIfEmpty(Mono.error(new RuntimeException("No shift found with turnCode: " + turnCode)))
-            .flatMap(shift -> shiftRepository.delete(shift).thenReturn(turnCode));
+            .flatMap(shift -> shiftRepository.delete(shift)
+                .then(Mono.fromRunnable(() -> listeners.forEach(listener -> listener.onShiftDeleted(shift))))
+                .thenReturn(turnCode)));
     }
 
 
@@ -132,46 +342,171 @@ public class ShiftService {
      * @return a Mono of the Shift object
      */
     public Mono<Shift> getShiftById(String id) {
-        return shiftRepository.findById(id)
-            .switchIfEmpty(Mono.error(new IllegalArgumentException("No shift found with ID: " + id)));
+        return metrics.timed("getShiftById", shiftRepository.findById(id)
+            .switchIfEmpty(Mono.error(new IllegalArgumentException("No shift found with ID: " + id))));
     }
 
 
     /**
-     * Changes the status of a shift if the transition is valid.
+     * Changes the status of today's shift with the given turn code.
+     * The transition is a single conditional update that only applies while the shift is in one of
+     * the allowed predecessor statuses, so of two concurrent transitions at most one succeeds.
+     *
+     * @param turnCode the turn code of the shift
+     * @param newStatus the new status to assign
+     * @return a Mono of the updated Shift, or a ShiftTransitionConflictException if the current status does not allow it
+     */
+    public Mono<Shift> changeShiftStatus(String turnCode, ShiftStatus newStatus) {
+        if (newStatus == null) {
+            return Mono.error(new IllegalArgumentException("The new status cannot be null"));
+        }
+        return metrics.timed("changeShiftStatus", Mono.defer(() -> {
+            LocalDate today = serviceDayProvider.today();
+            LocalDateTime changedAt = serviceDayProvider.now();
+            return applyTransition(shiftRepository.transitionStatus(turnCode, today, newStatus, changedAt), newStatus, changedAt)
+                .switchIfEmpty(Mono.defer(() -> shiftRepository.findByTurnCodeAndServiceDate(turnCode, today)
+                    .switchIfEmpty(Mono.error(new IllegalArgumentException("No shift found with code: " + turnCode)))
+                    .flatMap(current -> Mono.error(
+                        new ShiftTransitionConflictException(turnCode, current.getStatus(), newStatus)))));
+        }));
+    }
+
+    /**
+     * Changes the status of a given shift, matched by its id.
      *
      * @param shift the shift to update
      * @param newStatus the new status to assign
-     * @return a Mono of the updated Shift
+     * @return a Mono of the updated Shift, or a ShiftTransitionConflictException if the current status does not allow it
      */
     public Mono<Shift> changeShiftStatus(Shift shift, ShiftStatus newStatus) {
         if (newStatus == null) {
             return Mono.error(new IllegalArgumentException("The new status cannot be null"));
         }
+        return metrics.timed("changeShiftStatus", Mono.defer(() -> {
+            LocalDateTime changedAt = serviceDayProvider.now();
+            return applyTransition(shiftRepository.transitionStatusById(shift.getId(), newStatus, changedAt), newStatus, changedAt)
+                .switchIfEmpty(Mono.defer(() -> shiftRepository.findById(shift.getId())
+                    .switchIfEmpty(Mono.error(new IllegalArgumentException("No shift found with ID: " + shift.getId())))
+                    .flatMap(current -> Mono.error(
+                        new ShiftTransitionConflictException(current.getTurnCode(), current.getStatus(), newStatus)))));
+        }));
+    }
+
+    /**
+     * Applies a transition to the pre-update document returned by the conditional write,
+     * so the caller gets the new state without a second read.
+     */
+    private Mono<Shift> applyTransition(Mono<Shift> previous, ShiftStatus newStatus, LocalDateTime changedAt) {
+        return previous.map(updated -> {
+            ShiftStatus previousStatus = updated.getStatus();
+            updated.recordTransition(newStatus, changedAt);
+            listeners.forEach(listener -> listener.onShiftStatusChanged(updated, previousStatus));
+            return updated;
+        });
+    }
 
-        ShiftStatus currentStatus = shift.getStatus();
-        if (!isValidTransition(currentStatus, newStatus)) {
-            return Mono.error(new IllegalStateException("Transition not allowed from " + currentStatus + " to " + newStatus));
+    /**
+     * Changes the status of many of today's shifts at once, e.g. to cancel every leftover shift at closing time.
+     * The shifts are read with one query and every transition is checked against the state machine.
+     * The valid ones are written as one unordered bulk of conditional updates, each one only matching while the
+     * shift keeps the status that was read. The repository reports exactly which updates were applied, also when
+     * the bulk write failed partway, and listeners are told about every one of them. A failing item never fails
+     * the batch.
+     *
+     * @param transitions the turn codes and their target statuses
+     * @return a Mono with one result per transition, in request order
+     */
+    public Mono<List<TransitionResult>> changeShiftStatuses(List<StatusTransition> transitions) {
+        if (transitions.size() > MAX_BATCH_SIZE) {
+            return Mono.error(new IllegalArgumentException("A batch cannot have more than " + MAX_BATCH_SIZE + " transitions"));
         }
+        return metrics.timed("changeShiftStatuses", Mono.defer(() -> {
+            LocalDate today = serviceDayProvider.today();
+            // Mongo stores dates with millisecond precision, keep the in-memory copies equal to the stored ones
+            LocalDateTime changedAt = serviceDayProvider.now().truncatedTo(ChronoUnit.MILLIS);
+            TransitionResult[] results = new TransitionResult[transitions.size()];
+            Map<String, Integer> indexByCode = new HashMap<>();
+            for (int i = 0; i < transitions.size(); i++) {
+                StatusTransition item = transitions.get(i);
+                if (item == null || item.turnCode() == null || item.status() == null) {
+                    results[i] = TransitionResult.failed(i, item == null ? null : item.turnCode(), null, "turnCode and status are required");
+                } else if (indexByCode.putIfAbsent(item.turnCode(), i) != null) {
+                    results[i] = TransitionResult.failed(i, item.turnCode(), null, "Duplicate turn code in batch: " + item.turnCode());
+                }
+            }
 
-        shift.setStatus(newStatus);
-        return shiftRepository.save(shift);
+            return shiftRepository.findByTurnCodeInAndServiceDate(indexByCode.keySet(), today)
+                .collectMap(Shift::getTurnCode)
+                .flatMap(current -> {
+                    Map<String, Integer> pending = new HashMap<>();
+                    List<StatusUpdate> updates = new ArrayList<>();
+                    indexByCode.forEach((code, i) -> {
+                        ShiftStatus target = transitions.get(i).status();
+                        Shift shift = current.get(code);
+                        if (shift == null) {
+                            results[i] = TransitionResult.failed(i, code, null, "No shift found with code: " + code);
+                        } else if (shift.getStatus() == null || !shift.getStatus().canTransitionTo(target)) {
+                            results[i] = TransitionResult.failed(i, code, shift.getStatus(),
+                                new ShiftTransitionConflictException(code, shift.getStatus(), target).getMessage());
+                        } else {
+                            pending.put(shift.getId(), i);
+                            updates.add(new StatusUpdate(shift.getId(), shift.getStatus(), target));
+                        }
+                    });
+                    return shiftRepository.bulkTransition(updates, changedAt)
+                        .doOnNext(outcome -> pending.forEach((id, i) -> {
+                            Shift shift = current.get(transitions.get(i).turnCode());
+                            ShiftStatus previousStatus = shift.getStatus();
+                            if (outcome.applied().contains(id)) {
+                                shift.recordTransition(transitions.get(i).status(), changedAt);
+                                results[i] = TransitionResult.applied(i, shift.getTurnCode(), previousStatus);
+                                listeners.forEach(listener -> listener.onShiftStatusChanged(shift, previousStatus));
+                            } else {
+                                results[i] = TransitionResult.failed(i, shift.getTurnCode(), null, outcome.errors()
+                                    .getOrDefault(id, "The status of shift " + shift.getTurnCode() + " changed concurrently"));
+                            }
+                        }));
+                })
+                .thenReturn(Arrays.asList(results));
+        }));
     }
 
+    /**
+     * Calls the next waiting shift of a specialty and moves it to IN_PROGRESS.
+     * The shift is taken from the in-memory dispatch queue, so concurrent desks never call the same shift.
+     *
+     * @param specialty the specialty whose queue is served
+     * @return a Mono of the called Shift, or an error if nobody is waiting
+     */
+    public Mono<Shift> callNextShift(String specialty) {
+        return metrics.timed("callNextShift", callNext(specialty));
+    }
+
+    private Mono<Shift> callNext(String specialty) {
+        return Mono.defer(() -> dispatchQueueService.poll(specialty)
+            .map(next -> changeShiftStatus(next, ShiftStatus.IN_PROGRESS)
+                .onErrorResume(e -> {
+                    if (e instanceof ShiftTransitionConflictException) {
+                        // the queued copy was stale, the shift already left ASSIGNED: try the next one
+                        return callNext(specialty);
+                    }
+                    next.setStatus(ShiftStatus.ASSIGNED);
+                    dispatchQueueService.offer(next);
+                    return Mono.error(e);
+                }))
+            .orElseGet(() -> Mono.error(new NoSuchElementException("No shifts waiting for specialty: " + specialty))));
+    }
 
     /**
-     * Validates status transitions for shifts.
+     * Returns the next shift that would be called for a specialty, without changing it.
      *
-     * @param from current status
-     * @param to desired status
-     * @return true if the transition is allowed, false otherwise
+     * @param specialty the specialty whose queue is inspected
+     * @return a Mono of the next Shift, or an error if nobody is waiting
      */
-    private boolean isValidTransition(ShiftStatus from, ShiftStatus to) {
-        return switch (from) {
-            case ASSIGNED -> to == ShiftStatus.IN_PROGRESS || to == ShiftStatus.CANCELED;
-            case IN_PROGRESS -> to == ShiftStatus.ATTENDED || to == ShiftStatus.CANCELED;
-            case ATTENDED, CANCELED -> false;
-        };
+    public Mono<Shift> peekNextShift(String specialty) {
+        return metrics.timed("peekNextShift", Mono.defer(() -> dispatchQueueService.peek(specialty)
+            .map(Mono::just)
+            .orElseGet(() -> Mono.error(new NoSuchElementException("No shifts waiting for specialty: " + specialty)))));
     }
 
 
@@ -182,8 +517,8 @@ public class ShiftService {
      * @return a Flux of Shift objects
      */
     public Flux<Shift> getShiftsBySpecialty(String specialty) {
-        return shiftRepository.findBySpecialtyAndCreatedAtBetween(specialty, startOfDay, endOfDay)
-            .switchIfEmpty(Flux.error(new IllegalArgumentException("No shifts found for specialty: " + specialty)));
+        return metrics.timed("getShiftsBySpecialty", shiftRepository.findBySpecialtyAndServiceDate(specialty, serviceDayProvider.today())
+            .switchIfEmpty(Flux.error(new IllegalArgumentException("No shifts found for specialty: " + specialty))));
         }
 
     /**
@@ -193,8 +528,8 @@ public class ShiftService {
      * @return a Flux of Shift objects
      */
     public Flux<Shift> getShiftsByStatus(ShiftStatus status) {
-        return shiftRepository.findByStatusAndCreatedAtBetween(status, startOfDay, endOfDay)
-            .switchIfEmpty(Flux.error(new IllegalArgumentException("No shifts found with status: " + status)));
+        return metrics.timed("getShiftsByStatus", shiftRepository.findByStatusAndServiceDate(status, serviceDayProvider.today())
+            .switchIfEmpty(Flux.error(new IllegalArgumentException("No shifts found with status: " + status))));
         }
 
     /**
@@ -204,7 +539,37 @@ public class ShiftService {
      * @return a Flux of Shift objects
      */
     public Flux<Shift> getShiftsBySpecialPriority(boolean specialPriority) {
-        return shiftRepository.findBySpecialPriorityAndCreatedAtBetween(specialPriority, startOfDay, endOfDay)
-        .switchIfEmpty(Flux.error(new IllegalArgumentException("No shifts found with specialPriority: " + specialPriority)));
+        return metrics.timed("getShiftsBySpecialPriority", shiftRepository.findBySpecialPriorityAndServiceDate(specialPriority, serviceDayProvider.today())
+        .switchIfEmpty(Flux.error(new IllegalArgumentException("No shifts found with specialPriority: " + specialPriority))));
         }
+
+    /**
+     * Board view of today's shifts for a specialty, for public display screens.
+     *
+     * @param specialty the medical specialty to filter by
+     * @return a Flux of board views, empty if there are no shifts
+     */
+    public Flux<ShiftBoardView> getBoardBySpecialty(String specialty) {
+        return metrics.timed("getBoardBySpecialty", shiftRepository.findBySpecialtyAndServiceDate(specialty, serviceDayProvider.today(), ShiftBoardView.class));
+    }
+
+    /**
+     * Board view of today's shifts with a specific status.
+     *
+     * @param status the status to filter by
+     * @return a Flux of board views, empty if there are no shifts
+     */
+    public Flux<ShiftBoardView> getBoardByStatus(ShiftStatus status) {
+        return metrics.timed("getBoardByStatus", shiftRepository.findByStatusAndServiceDate(status, serviceDayProvider.today(), ShiftBoardView.class));
+    }
+
+    /**
+     * Board view of today's shifts with or without special priority.
+     *
+     * @param specialPriority whether the shift is marked as special priority
+     * @return a Flux of board views, empty if there are no shifts
+     */
+    public Flux<ShiftBoardView> getBoardBySpecialPriority(boolean specialPriority) {
+        return metrics.timed("getBoardBySpecialPriority", shiftRepository.findBySpecialPriorityAndServiceDate(specialPriority, serviceDayProvider.today(), ShiftBoardView.class));
+    }
 }
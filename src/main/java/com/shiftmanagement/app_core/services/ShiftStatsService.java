@@ -0,0 +1,269 @@
+package com.shiftmanagement.app_core.services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.shiftmanagement.app_core.model.DailyStats;
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+import com.shiftmanagement.app_core.model.SpecialtyStats;
+import com.shiftmanagement.app_core.repository.ShiftRepository;
+import com.shiftmanagement.app_core.repository.ShiftRepositoryCustom.StatusCount;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Live counters of today's shifts per specialty and status.
+ * They are loaded with one aggregation at startup and then follow every create, transition and deletion,
+ * so reading them never hits the database.
+ * <p>
+ * Changes that arrive while an aggregation runs are also recorded apart and added to its result, so a
+ * change written after the cursor passed its shift is not lost. A change whose write the aggregation
+ * already saw is counted twice, though: an aggregation cannot tell the two apart. The only reload that
+ * replaces the counters is the one at startup, and {@link #verify()} only reports a drift, it never
+ * overwrites the counters. The merge takes a write lock that every change holds for reading, so no
+ * change falls between the merge and the swap.
+ */
+@Service
+public class ShiftStatsService implements ShiftChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ShiftStatsService.class);
+
+    private final ShiftRepository shiftRepository;
+    private final ServiceDayProvider serviceDayProvider;
+    private final AtomicReference<DayCounters> counters = new AtomicReference<>();
+    // changes seen by each aggregation under way
+    private final Set<DayCounters> pendingReloads = ConcurrentHashMap.newKeySet();
+    private final StampedLock swapLock = new StampedLock();
+
+    public ShiftStatsService(ShiftRepository shiftRepository, ServiceDayProvider serviceDayProvider) {
+        this.shiftRepository = shiftRepository;
+        this.serviceDayProvider = serviceDayProvider;
+    }
+
+    /**
+     * Loads today's counters from the database once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDate today = serviceDayProvider.today();
+        reload(today, (loaded, current) -> {
+            counters.set(loaded);
+            return true;
+        }).subscribe(
+            replaced -> log.info("Shift statistics rebuilt for {}", today),
+            e -> log.error("Could not rebuild the shift statistics", e));
+    }
+
+    /**
+     * @return the counts of the current service day
+     */
+    public DailyStats today() {
+        return countersFor(serviceDayProvider.today()).snapshot();
+    }
+
+    /**
+     * Compares the live counters with a fresh aggregation of the current day, plus the changes
+     * made while it ran. The counters are left as they are: a change whose write the aggregation
+     * already saw is counted twice in that sum, so a single mismatch may be a false alarm while
+     * shifts are being written, and should be confirmed by checking again.
+     *
+     * @return a Mono with true if the counters matched the database
+     */
+    public Mono<Boolean> verify() {
+        LocalDate today = serviceDayProvider.today();
+        return reload(today, (expected, current) -> {
+            DailyStats actual = current.snapshot();
+            if (expected.snapshot().equals(actual)) {
+                return true;
+            }
+            log.warn("Shift statistics differ from the database, expected {} but counted {}", expected.snapshot(), actual);
+            return false;
+        }).defaultIfEmpty(true);
+    }
+
+    @Override
+    public void onShiftCreated(Shift shift) {
+        record(shift, day -> day.add(shift.getSpecialty(), shift.getStatus(), shift.isSpecialPriority(), 1));
+    }
+
+    @Override
+    public void onShiftStatusChanged(Shift shift, ShiftStatus previousStatus) {
+        record(shift, day -> day.move(shift.getSpecialty(), previousStatus, shift.getStatus()));
+    }
+
+    @Override
+    public void onShiftDeleted(Shift shift) {
+        record(shift, day -> day.add(shift.getSpecialty(), shift.getStatus(), shift.isSpecialPriority(), -1));
+    }
+
+    private void record(Shift shift, Consumer<DayCounters> change) {
+        long stamp = swapLock.readLock();
+        try {
+            DayCounters day = currentFor(shift);
+            if (day == null) {
+                return;
+            }
+            change.accept(day);
+            for (DayCounters pending : pendingReloads) {
+                if (pending.day().equals(day.day())) {
+                    change.accept(pending);
+                }
+            }
+        } finally {
+            swapLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Aggregates the day, adds the changes recorded meanwhile and hands the result and the live
+     * counters of the day to {@code onLoaded}, under the write lock.
+     *
+     * @param day the service day
+     * @param onLoaded given the reloaded and the live counters, what to do with them
+     * @return a Mono with the result of onLoaded, empty if the service day changed meanwhile
+     */
+    private <T> Mono<T> reload(LocalDate day, BiFunction<DayCounters, DayCounters, T> onLoaded) {
+        return Mono.defer(() -> {
+            DayCounters changes = new DayCounters(day);
+            pendingReloads.add(changes);
+            return aggregate(day)
+                .mapNotNull(loaded -> {
+                    long stamp = swapLock.writeLock();
+                    try {
+                        pendingReloads.remove(changes);
+                        if (!day.equals(serviceDayProvider.today())) {
+                            return null;
+                        }
+                        loaded.addAll(changes);
+                        return onLoaded.apply(loaded, countersFor(day));
+                    } finally {
+                        swapLock.unlockWrite(stamp);
+                    }
+                })
+                .doFinally(signal -> pendingReloads.remove(changes));
+        });
+    }
+
+    private Mono<DayCounters> aggregate(LocalDate day) {
+        DayCounters loaded = new DayCounters(day);
+        return shiftRepository.countByStatus(day)
+            .doOnNext(group -> loaded.add(group.specialty(), group.status(), group.specialPriority(), group.count()))
+            .then(Mono.just(loaded));
+    }
+
+    private DayCounters currentFor(Shift shift) {
+        LocalDate today = serviceDayProvider.today();
+        return today.equals(shift.getServiceDate()) ? countersFor(today) : null;
+    }
+
+    /**
+     * Counters of the given day. A new day starts from zero.
+     */
+    private DayCounters countersFor(LocalDate day) {
+        DayCounters current = counters.get();
+        while (current == null || !current.day().equals(day)) {
+            DayCounters fresh = new DayCounters(day);
+            if (counters.compareAndSet(current, fresh)) {
+                return fresh;
+            }
+            current = counters.get();
+        }
+        return current;
+    }
+
+    private record DayCounters(LocalDate day, Map<String, SpecialtyCounters> bySpecialty) {
+
+        DayCounters(LocalDate day) {
+            this(day, new ConcurrentHashMap<>());
+        }
+
+        void add(String specialty, ShiftStatus status, boolean specialPriority, long delta) {
+            SpecialtyCounters counters = of(specialty);
+            if (status != null) {
+                counters.byStatus()[status.ordinal()].add(delta);
+            }
+            if (specialPriority) {
+                counters.specialPriority().add(delta);
+            }
+            counters.total().add(delta);
+        }
+
+        void move(String specialty, ShiftStatus from, ShiftStatus to) {
+            SpecialtyCounters counters = of(specialty);
+            if (from != null) {
+                counters.byStatus()[from.ordinal()].decrement();
+            }
+            if (to != null) {
+                counters.byStatus()[to.ordinal()].increment();
+            }
+        }
+
+        void addAll(DayCounters other) {
+            other.bySpecialty().forEach((specialty, changes) -> {
+                SpecialtyCounters counters = of(specialty);
+                for (int i = 0; i < changes.byStatus().length; i++) {
+                    counters.byStatus()[i].add(changes.byStatus()[i].sum());
+                }
+                counters.specialPriority().add(changes.specialPriority().sum());
+                counters.total().add(changes.total().sum());
+            });
+        }
+
+        private SpecialtyCounters of(String specialty) {
+            return bySpecialty.computeIfAbsent(String.valueOf(specialty), key -> new SpecialtyCounters());
+        }
+
+        DailyStats snapshot() {
+            Map<String, SpecialtyCounters> sorted = new TreeMap<>(bySpecialty);
+            List<SpecialtyStats> specialties = new ArrayList<>(sorted.size());
+            sorted.forEach((specialty, counters) -> {
+                SpecialtyStats stats = counters.snapshot(specialty);
+                if (stats.total() != 0) {
+                    specialties.add(stats);
+                }
+            });
+            return new DailyStats(day, specialties);
+        }
+    }
+
+    private record SpecialtyCounters(LongAdder[] byStatus, LongAdder specialPriority, LongAdder total) {
+
+        SpecialtyCounters() {
+            this(newAdders(ShiftStatus.values().length), new LongAdder(), new LongAdder());
+        }
+
+        SpecialtyStats snapshot(String specialty) {
+            Map<ShiftStatus, Long> statuses = new EnumMap<>(ShiftStatus.class);
+            for (ShiftStatus status : ShiftStatus.values()) {
+                statuses.put(status, byStatus[status.ordinal()].sum());
+            }
+            return new SpecialtyStats(specialty, statuses, specialPriority.sum(), total.sum());
+        }
+
+        private static LongAdder[] newAdders(int size) {
+            LongAdder[] adders = new LongAdder[size];
+            for (int i = 0; i < size; i++) {
+                adders[i] = new LongAdder();
+            }
+            return adders;
+        }
+    }
+}
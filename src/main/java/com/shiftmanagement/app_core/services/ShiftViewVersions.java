@@ -0,0 +1,179 @@
+package com.shiftmanagement.app_core.services;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftEvent;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+
+import reactor.core.Disposable;
+
+/**
+ * Change versions of today's list views, one per specialty and one per status, used as ETags
+ * so that polling screens can be answered with a 304 without querying the database.
+ * <p>
+ * A version only grows: every create, transition and deletion bumps the views the shift was
+ * or is now part of. Callers read the tag before running the query, so a write that races
+ * with the query bumps the version after it and the next poll fetches the list again.
+ * The tag also carries the service day and a per-startup epoch, so versions never repeat
+ * across midnight or restarts. With the change stream enabled the writes of other replicas
+ * bump the versions too; events that do not say which views they touch invalidate all of them.
+ */
+@Service
+public class ShiftViewVersions implements ShiftChangeListener {
+
+    private final ServiceDayProvider serviceDayProvider;
+    private final ShiftEventPublisher eventPublisher;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicReference<DayVersions> versions = new AtomicReference<>();
+    private Disposable remoteEvents;
+
+    public ShiftViewVersions(ServiceDayProvider serviceDayProvider, ShiftEventPublisher eventPublisher) {
+        this.serviceDayProvider = serviceDayProvider;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Follows the writes of the other replicas when the change stream is enabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void followChangeStream() {
+        if (eventPublisher != null && eventPublisher.isChangeStreamEnabled()) {
+            remoteEvents = eventPublisher.events(null, null).subscribe(this::onEvent);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (remoteEvents != null) {
+            remoteEvents.dispose();
+        }
+    }
+
+    /**
+     * @param specialty the medical specialty
+     * @return the weak ETag of today's shifts of that specialty
+     */
+    public String specialtyTag(String specialty) {
+        DayVersions day = versionsFor(serviceDayProvider.today());
+        return tag(day, day.of(specialty).get());
+    }
+
+    /**
+     * @param status the shift status
+     * @return the weak ETag of today's shifts with that status
+     */
+    public String statusTag(ShiftStatus status) {
+        DayVersions day = versionsFor(serviceDayProvider.today());
+        return tag(day, day.of(status).get());
+    }
+
+    @Override
+    public void onShiftCreated(Shift shift) {
+        bump(shift);
+    }
+
+    @Override
+    public void onShiftStatusChanged(Shift shift, ShiftStatus previousStatus) {
+        DayVersions day = currentFor(shift);
+        if (day != null) {
+            day.of(shift.getSpecialty()).incrementAndGet();
+            day.of(previousStatus).incrementAndGet();
+            day.of(shift.getStatus()).incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onShiftDeleted(Shift shift) {
+        bump(shift);
+    }
+
+    /**
+     * Invalidates every view, for changes that cannot be traced to the views they touch.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+    }
+
+    private void onEvent(ShiftEvent event) {
+        Shift shift = event.shift();
+        if (shift == null || shift.getServiceDate() == null || shift.getSpecialty() == null) {
+            invalidateAll();
+            return;
+        }
+        DayVersions day = currentFor(shift);
+        if (day == null) {
+            return;
+        }
+        day.of(shift.getSpecialty()).incrementAndGet();
+        if (event.previousStatus() == null) {
+            // an update from the change stream only carries the new status
+            for (ShiftStatus status : ShiftStatus.values()) {
+                day.of(status).incrementAndGet();
+            }
+        } else {
+            day.of(event.previousStatus()).incrementAndGet();
+        }
+        day.of(shift.getStatus()).incrementAndGet();
+    }
+
+    private void bump(Shift shift) {
+        DayVersions day = currentFor(shift);
+        if (day != null) {
+            day.of(shift.getSpecialty()).incrementAndGet();
+            day.of(shift.getStatus()).incrementAndGet();
+        }
+    }
+
+    private String tag(DayVersions day, long version) {
+        return "W/\"" + epoch + "-" + day.day().format(DateTimeFormatter.BASIC_ISO_DATE)
+            + "-" + generation.get() + "." + version + "\"";
+    }
+
+    private DayVersions currentFor(Shift shift) {
+        LocalDate today = serviceDayProvider.today();
+        return today.equals(shift.getServiceDate()) ? versionsFor(today) : null;
+    }
+
+    /**
+     * Versions of the given day. A new day starts from zero, since the day is part of the tag.
+     */
+    private DayVersions versionsFor(LocalDate day) {
+        DayVersions current = versions.get();
+        while (current == null || !current.day().equals(day)) {
+            DayVersions fresh = new DayVersions(day);
+            if (versions.compareAndSet(current, fresh)) {
+                return fresh;
+            }
+            current = versions.get();
+        }
+        return current;
+    }
+
+    private record DayVersions(LocalDate day, Map<String, AtomicLong> bySpecialty, Map<ShiftStatus, AtomicLong> byStatus) {
+
+        DayVersions(LocalDate day) {
+            this(day, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+
+        AtomicLong of(String specialty) {
+            return bySpecialty.computeIfAbsent(String.valueOf(specialty), key -> new AtomicLong());
+        }
+
+        AtomicLong of(ShiftStatus status) {
+            return status == null ? new AtomicLong() : byStatus.computeIfAbsent(status, key -> new AtomicLong());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.shiftmanagement.app_core.services;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Publishes the hit, miss, eviction and size meters of the user cache under the cache name {@code users}.
+ */
+@Component
+public class UserCacheMetrics implements MeterBinder {
+
+    public static final String CACHE_NAME = "users";
+
+    private final UserService userService;
+
+    public UserCacheMetrics(UserService userService) {
+        this.userService = userService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, userService.getUserCache(), CACHE_NAME);
+    }
+}
@@ -2,14 +2,21 @@ package com.shiftmanagement.app_core.services;
 
 
 
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.time.Duration;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.shiftmanagement.app_core.model.User;
 
@@ -19,41 +26,90 @@ import reactor.core.publisher.Mono;
 
 @Service
 public class UserService {
+   private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
    private final WebClient webClient;
    private final JwtWebClientService jwtWebClientService;
+   private final AsyncCache<String, User> userCache;
+   private final UserServiceResilience resilience;
+   private final Cache<String, User> lastKnownUsers;
+   private final ObjectMapper objectMapper;
    
    @Value("${api.auth.url}")
    private String uri;
 
-   public UserService(WebClient webClient, JwtWebClientService jwtWebClientService) {
+   @Autowired
+   public UserService(WebClient webClient, JwtWebClientService jwtWebClientService,
+                      @Value("${api.users.cache.max-size:10000}") long cacheMaxSize,
+                      @Value("${api.users.cache.ttl:10m}") Duration cacheTtl,
+                      UserServiceResilience resilience,
+                      @Value("${api.users.stale.enabled:true}") boolean staleEnabled,
+                      @Value("${api.users.stale.max-age:24h}") Duration staleMaxAge,
+                      ObjectMapper objectMapper) {
     this.webClient = webClient;
+    this.objectMapper = objectMapper;
     this.jwtWebClientService = jwtWebClientService;
+    this.userCache = Caffeine.newBuilder()
+        .maximumSize(cacheMaxSize)
+        .expireAfterWrite(cacheTtl)
+        .recordStats()
+        .buildAsync();
+    this.resilience = resilience;
+    this.lastKnownUsers = staleEnabled
+        ? Caffeine.newBuilder().maximumSize(cacheMaxSize).expireAfterWrite(staleMaxAge).build()
+        : null;
    }
 
    /**
      * Retrieves a user by their unique identifier.
-     * Makes an authenticated request to an external user service and parses the JSON response manually.
+     * Lookups go through a bounded in-process cache; concurrent misses for the same
+     * id share a single remote call, and failed lookups are never cached.
+     * When the user service is unavailable and serving stale users is enabled, the last user
+     * successfully read for the id is returned instead.
      *
      * @param id the user ID to look up
      * @return a Mono emitting the User object
      */
     public Mono<User> getUserbyId(String id) {
-        return jwtWebClientService.getToken(id)
-            .flatMap(token -> webClient.get()
-                .uri(uri + "/user-service/users/by-number-id/" + id)
+        // a subscriber that cancels must not cancel the lookup shared with the others
+        return Mono.fromFuture(() -> userCache.get(id, (key, executor) -> fetchUser(key).toFuture()), true);
+    }
+
+    /**
+     * Makes an authenticated request to the external user service and parses the JSON response manually.
+     *
+     * @param id the user ID to look up
+     * @return a Mono emitting the User object
+     */
+    private Mono<User> fetchUser(String id) {
+        Mono<User> remote = jwtWebClientService.getToken(id)
+            .flatMap(token -> resilience.lookup(webClient.get()
+                .uri(uri + "/user-service/users/by-number-id/{id}", id)
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
                 .retrieve()
-                .bodyToMono(byte[].class)  // Leemos como bytes
+                .bodyToMono(byte[].class))  // Leemos como bytes
                 .flatMap(bytes -> {
                     try {
-                        String jsonResponse = new String(bytes, StandardCharsets.UTF_8); // Convertimos los bytes a String
-                        ObjectMapper objectMapper = new ObjectMapper();
-                        User user = objectMapper.readValue(jsonResponse, User.class);  // Parseamos el JSON
+                        User user = objectMapper.readValue(bytes, User.class);  // Parseamos el JSON con el ObjectMapper compartido
                         return Mono.just(user);
-                    } catch (JsonProcessingException e) {
+                    } catch (IOException e) {
                         return Mono.error(e);  // Manejo de error si no se puede parsear el JSON
                     }
                 }));
+        if (lastKnownUsers == null) {
+            return remote;
+        }
+        return remote
+            .doOnNext(user -> lastKnownUsers.put(id, user))
+            // only when the service is unavailable: a 4xx answer, e.g. a removed user, must not be hidden
+            .onErrorResume(UserServiceResilience::isUnavailable, e -> {
+                User stale = lastKnownUsers.getIfPresent(id);
+                if (stale == null) {
+                    return Mono.error(e);
+                }
+                log.warn("User service lookup failed for {}, serving the last known user: {}", id, e.toString());
+                return Mono.just(stale);
+            });
     }
 
     /**
@@ -76,6 +132,19 @@ public class UserService {
     public String getUri() {
         return uri;
     }
+
+    /**
+     * Hit, miss and eviction counters of the user cache.
+     *
+     * @return a snapshot of the cache statistics
+     */
+    public CacheStats getCacheStats() {
+        return userCache.synchronous().stats();
+    }
+
+    AsyncCache<String, User> getUserCache() {
+        return userCache;
+    }
     
 
    
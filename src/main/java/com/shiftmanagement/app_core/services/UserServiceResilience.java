@@ -0,0 +1,146 @@
+package com.shiftmanagement.app_core.services;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Guards the calls to the external user service, so a slow or failing remote cannot pile up
+ * connections and pending requests in this app.
+ * <p>
+ * Every call gets a timeout and goes through a bulkhead that caps concurrent outbound calls,
+ * failing at once instead of queueing, and a circuit breaker that stops calling the remote
+ * while most recent calls fail. Only idempotent lookups are retried, with jittered exponential
+ * backoff, and only on timeouts, connection errors and 5xx answers.
+ */
+@Component
+public class UserServiceResilience implements MeterBinder {
+
+    public static final String NAME = "userService";
+
+    private final Duration lookupTimeout;
+    private final Duration loginTimeout;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final BulkheadRegistry bulkheads;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    public UserServiceResilience(@Value("${api.users.resilience.lookup-timeout:2s}") Duration lookupTimeout,
+                                 @Value("${api.users.resilience.login-timeout:3s}") Duration loginTimeout,
+                                 @Value("${api.users.resilience.max-retries:2}") int maxRetries,
+                                 @Value("${api.users.resilience.retry-backoff:100ms}") Duration retryBackoff,
+                                 @Value("${api.users.resilience.failure-rate-threshold:50}") float failureRateThreshold,
+                                 @Value("${api.users.resilience.sliding-window-size:20}") int slidingWindowSize,
+                                 @Value("${api.users.resilience.wait-in-open-state:30s}") Duration waitInOpenState,
+                                 @Value("${api.users.resilience.max-concurrent-calls:64}") int maxConcurrentCalls) {
+        this.lookupTimeout = lookupTimeout;
+        this.loginTimeout = loginTimeout;
+        this.maxRetries = maxRetries;
+        this.retryBackoff = retryBackoff;
+        this.circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .slidingWindowSize(slidingWindowSize)
+            .minimumNumberOfCalls(Math.max(1, slidingWindowSize / 2))
+            .failureRateThreshold(failureRateThreshold)
+            .waitDurationInOpenState(waitInOpenState)
+            .recordException(UserServiceResilience::isRemoteFailure)
+            .build());
+        this.bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+            .maxConcurrentCalls(maxConcurrentCalls)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+        this.circuitBreaker = circuitBreakers.circuitBreaker(NAME);
+        this.bulkhead = bulkheads.bulkhead(NAME);
+    }
+
+    /**
+     * Guards an idempotent read, retrying it on transient failures.
+     *
+     * @param call the remote call, subscribed again on each attempt
+     * @return the guarded call; it fails with the error of the last attempt
+     */
+    public <T> Mono<T> lookup(Mono<T> call) {
+        return guarded(call, lookupTimeout)
+            .retryWhen(Retry.backoff(maxRetries, retryBackoff)
+                .jitter(0.5)
+                .filter(UserServiceResilience::isTransient)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    /**
+     * Guards the login call. It is never retried, since it is not idempotent.
+     *
+     * @param call the remote call
+     * @return the guarded call
+     */
+    public <T> Mono<T> login(Mono<T> call) {
+        return guarded(call, loginTimeout);
+    }
+
+    private <T> Mono<T> guarded(Mono<T> call, Duration timeout) {
+        return call.timeout(timeout)
+            .transformDeferred(BulkheadOperator.of(bulkhead))
+            .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(registry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(registry);
+    }
+
+    /**
+     * Failures that say the remote is unhealthy. A 4xx answer, such as an unknown user, does not.
+     */
+    private static boolean isRemoteFailure(Throwable e) {
+        return !(e instanceof WebClientResponseException response) || response.getStatusCode().is5xxServerError();
+    }
+
+    /**
+     * Failures that say the user service could not answer: a timeout, a connection error, a 5xx answer,
+     * or a call refused by the open circuit breaker or the full bulkhead. An answer of the service,
+     * such as a 404 for an unknown user, is not one of them.
+     *
+     * @param e the failure of a guarded call
+     * @return true if the service was unavailable
+     */
+    public static boolean isUnavailable(Throwable e) {
+        return isTransient(e) || e instanceof CallNotPermittedException || e instanceof BulkheadFullException;
+    }
+
+    private static boolean isTransient(Throwable e) {
+        return e instanceof TimeoutException
+            || e instanceof WebClientRequestException
+            || e instanceof WebClientResponseException response && response.getStatusCode().is5xxServerError();
+    }
+}
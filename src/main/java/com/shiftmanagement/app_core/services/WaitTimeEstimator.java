@@ -0,0 +1,145 @@
+package com.shiftmanagement.app_core.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+import com.shiftmanagement.app_core.model.WaitEstimate;
+
+/**
+ * Estimates how long a waiting shift will take to be called.
+ * For each specialty it keeps time-decayed averages of the interval between calls and of the service
+ * duration, fed by the status changes of the shifts, so an estimate never reads the history.
+ */
+@Service
+public class WaitTimeEstimator implements ShiftChangeListener {
+
+    /** Longer gaps, e.g. lunch breaks, are counted as this long so they do not dominate the average. */
+    private static final double MAX_SAMPLE_MINUTES = 60;
+
+    private final DispatchQueueService dispatchQueueService;
+    private final ServiceDayProvider serviceDayProvider;
+    private final double halfLifeMinutes;
+    private final double defaultServiceMinutes;
+    private final Map<String, SpecialtyRates> rates = new ConcurrentHashMap<>();
+
+    public WaitTimeEstimator(DispatchQueueService dispatchQueueService, ServiceDayProvider serviceDayProvider,
+                             @Value("${app.eta.half-life:30m}") Duration halfLife,
+                             @Value("${app.eta.default-service-time:10m}") Duration defaultServiceTime) {
+        if (halfLife.isNegative() || halfLife.isZero()) {
+            throw new IllegalArgumentException("app.eta.half-life must be positive");
+        }
+        this.dispatchQueueService = dispatchQueueService;
+        this.serviceDayProvider = serviceDayProvider;
+        this.halfLifeMinutes = minutes(halfLife);
+        this.defaultServiceMinutes = minutes(defaultServiceTime);
+    }
+
+    /**
+     * Estimates the wait of a shift from its position in the dispatch queue.
+     * With calls already observed, the wait is the average interval between calls for each shift ahead
+     * plus what is left of the current interval. Before the first call the average service duration is used,
+     * or the configured default if nobody was served yet.
+     *
+     * @param shift the shift to estimate
+     * @return the estimate; shifts that are no longer waiting have no wait left
+     */
+    public WaitEstimate estimate(Shift shift) {
+        if (shift.getStatus() != ShiftStatus.ASSIGNED) {
+            return new WaitEstimate(shift.getTurnCode(), shift.getSpecialty(), shift.getStatus(), 0, 0.0);
+        }
+        OptionalInt ahead = dispatchQueueService.ahead(shift);
+        if (ahead.isEmpty()) {
+            return new WaitEstimate(shift.getTurnCode(), shift.getSpecialty(), shift.getStatus(), null, null);
+        }
+        double minutes = ratesOf(shift.getSpecialty()).minutesUntilCalled(ahead.getAsInt(), serviceDayProvider.now());
+        return new WaitEstimate(shift.getTurnCode(), shift.getSpecialty(), shift.getStatus(),
+            ahead.getAsInt(), Math.round(minutes * 10) / 10.0);
+    }
+
+    @Override
+    public void onShiftStatusChanged(Shift shift, ShiftStatus previousStatus) {
+        if (shift.getStatus() == ShiftStatus.IN_PROGRESS && shift.getCalledAt() != null) {
+            ratesOf(shift.getSpecialty()).recordCall(shift.getCalledAt());
+        } else if (shift.getStatus() == ShiftStatus.ATTENDED && shift.getCalledAt() != null && shift.getAttendedAt() != null) {
+            ratesOf(shift.getSpecialty()).recordService(shift.getCalledAt(), shift.getAttendedAt());
+        }
+    }
+
+    private SpecialtyRates ratesOf(String specialty) {
+        return rates.computeIfAbsent(String.valueOf(specialty), key -> new SpecialtyRates());
+    }
+
+    private static double minutes(Duration duration) {
+        return duration.toMillis() / 60_000.0;
+    }
+
+    private static double minutesBetween(LocalDateTime from, LocalDateTime to) {
+        return minutes(Duration.between(from, to));
+    }
+
+    private final class SpecialtyRates {
+        private final DecayingAverage callInterval = new DecayingAverage();
+        private final DecayingAverage serviceDuration = new DecayingAverage();
+        private LocalDateTime lastCall;
+
+        synchronized void recordCall(LocalDateTime calledAt) {
+            if (lastCall != null && calledAt.isAfter(lastCall)) {
+                callInterval.add(Math.min(minutesBetween(lastCall, calledAt), MAX_SAMPLE_MINUTES), calledAt);
+            }
+            if (lastCall == null || calledAt.isAfter(lastCall)) {
+                lastCall = calledAt;
+            }
+        }
+
+        synchronized void recordService(LocalDateTime calledAt, LocalDateTime attendedAt) {
+            if (!attendedAt.isBefore(calledAt)) {
+                serviceDuration.add(Math.min(minutesBetween(calledAt, attendedAt), MAX_SAMPLE_MINUTES), attendedAt);
+            }
+        }
+
+        synchronized double minutesUntilCalled(int ahead, LocalDateTime now) {
+            if (callInterval.isEmpty()) {
+                return ahead * (serviceDuration.isEmpty() ? defaultServiceMinutes : serviceDuration.mean());
+            }
+            double interval = callInterval.mean();
+            double sinceLastCall = Math.max(0, minutesBetween(lastCall, now));
+            return ahead * interval + Math.max(0, interval - sinceLastCall);
+        }
+    }
+
+    /**
+     * Mean where every sample loses half its weight each half-life, so the estimate follows the current pace.
+     */
+    private final class DecayingAverage {
+        private double mean;
+        private double weight;
+        private LocalDateTime last;
+
+        void add(double sample, LocalDateTime at) {
+            if (last != null && at.isAfter(last)) {
+                weight *= Math.pow(0.5, minutesBetween(last, at) / halfLifeMinutes);
+            }
+            if (last == null || at.isAfter(last)) {
+                last = at;
+            }
+            weight += 1;
+            mean += (sample - mean) / weight;
+        }
+
+        boolean isEmpty() {
+            return weight == 0;
+        }
+
+        double mean() {
+            return mean;
+        }
+    }
+}
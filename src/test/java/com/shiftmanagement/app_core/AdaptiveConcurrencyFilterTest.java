@@ -0,0 +1,153 @@
+package com.shiftmanagement.app_core;
+
+import com.shiftmanagement.app_core.Config.AdaptiveConcurrencyFilter;
+import com.shiftmanagement.app_core.Config.GradientLimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyFilterTest {
+
+    private SimpleMeterRegistry registry;
+    private AdaptiveConcurrencyFilter filter;
+    private final List<Sinks.Empty<Void>> pending = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        // a fixed limit of 8: bulk reads may use 6 slots, normal reads 7 and critical requests all 8
+        filter = new AdaptiveConcurrencyFilter(registry, true, 8, 8, 8, Duration.ofSeconds(2));
+    }
+
+    @Test
+    void filter_shouldShedBulkReadsFirstAndKeepAdmittingStatusChanges() {
+        for (int i = 0; i < 6; i++) {
+            assertNull(hold(MockServerHttpRequest.get("/api/shifts/role/ADMIN")).getResponse().getStatusCode());
+        }
+
+        MockServerWebExchange bulk = hold(MockServerHttpRequest.get("/api/shifts?limit=1000"));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, bulk.getResponse().getStatusCode());
+        assertEquals("2", bulk.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        assertNull(hold(MockServerHttpRequest.get("/api/shifts/board/specialty/Psicologia")).getResponse().getStatusCode());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE,
+            hold(MockServerHttpRequest.get("/api/shifts/shift/PS-1")).getResponse().getStatusCode());
+        assertNull(hold(MockServerHttpRequest.put("/api/shifts/PS-1")).getResponse().getStatusCode());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE,
+            hold(MockServerHttpRequest.post("/api/shifts")).getResponse().getStatusCode());
+
+        assertEquals(8, filter.getInFlight());
+        assertEquals(1, shed("bulk"));
+        assertEquals(1, shed("normal"));
+        assertEquals(1, shed("critical"));
+    }
+
+    @Test
+    void filter_shouldReleaseSlotsWhenRequestsComplete() {
+        for (int i = 0; i < 8; i++) {
+            hold(MockServerHttpRequest.patch("/api/shifts/status"));
+        }
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE,
+            hold(MockServerHttpRequest.post("/api/shifts/specialty/Psicologia/next")).getResponse().getStatusCode());
+
+        pending.forEach(Sinks.Empty::tryEmitEmpty);
+
+        assertEquals(0, filter.getInFlight());
+        assertNull(hold(MockServerHttpRequest.post("/api/shifts/specialty/Psicologia/next")).getResponse().getStatusCode());
+    }
+
+    @Test
+    void filter_shouldNotLimitTheEventStreamOrOtherPaths() {
+        for (int i = 0; i < 20; i++) {
+            hold(MockServerHttpRequest.get("/api/shifts/stream"));
+            hold(MockServerHttpRequest.get("/actuator/prometheus"));
+        }
+        assertEquals(0, filter.getInFlight());
+        assertEquals(0, registry.get(AdaptiveConcurrencyFilter.SHED_COUNTER).counters().stream()
+            .mapToDouble(counter -> counter.count()).sum());
+    }
+
+    @Test
+    void gradientLimit_shouldShrinkWhenLatencyRisesAndGrowBackWhenItRecovers() {
+        GradientLimit limit = new GradientLimit(100, 10, 1000, 10_000);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 100, false);
+        }
+        int steady = limit.getLimit();
+        assertTrue(steady >= 100, "limit should not shrink at the best latency: " + steady);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(80), limit.getLimit(), false);
+        }
+        int congested = limit.getLimit();
+        assertTrue(congested < steady / 2, "limit should shrink when requests queue: " + congested);
+
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), limit.getLimit(), false);
+        }
+        assertTrue(limit.getLimit() > congested, "limit should grow back: " + limit.getLimit());
+    }
+
+    @Test
+    void gradientLimit_shouldBackOffOnDropsButNotBelowTheMinimum() {
+        GradientLimit limit = new GradientLimit(100, 10, 1000, 10_000);
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 100, true);
+        assertEquals(90, limit.getLimit());
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 100, true);
+        }
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    void gradientLimit_shouldIgnoreLatencyWhileMostOfTheLimitIsUnused() {
+        GradientLimit limit = new GradientLimit(100, 10, 1000, 10_000);
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 1, false);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(TimeUnit.SECONDS.toNanos(1), 1, false);
+        }
+        assertEquals(100, limit.getLimit());
+    }
+
+    @Test
+    void gradientLimit_shouldBeReadableWhileASampleIsBeingRecorded() throws Exception {
+        GradientLimit limit = new GradientLimit(100, 10, 1000, 10_000);
+        // onSample holds this lock while it updates the limit
+        synchronized (limit) {
+            assertEquals(100, CompletableFuture.supplyAsync(limit::getLimit).get(1, TimeUnit.SECONDS));
+        }
+    }
+
+    /** Runs the request through the filter with a handler that only completes when the test says so. */
+    private MockServerWebExchange hold(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request.build());
+        Sinks.Empty<Void> done = Sinks.empty();
+        pending.add(done);
+        WebFilterChain chain = ex -> done.asMono();
+        filter.filter(exchange, chain).subscribe();
+        return exchange;
+    }
+
+    private double shed(String priority) {
+        return registry.get(AdaptiveConcurrencyFilter.SHED_COUNTER).tag("priority", priority).counter().count();
+    }
+}
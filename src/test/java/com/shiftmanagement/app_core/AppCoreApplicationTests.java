@@ -1,13 +1,52 @@
 package com.shiftmanagement.app_core;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.mongodb.event.CommandListener;
+import com.shiftmanagement.app_core.services.ShiftListCache;
+import com.shiftmanagement.app_core.services.UserCacheMetrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
+@AutoConfigureObservability
 class AppCoreApplicationTests {
 
+	@Autowired
+	private ApplicationContext context;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void metrics_shouldBeExportedAndBound() {
+		assertFalse(context.getBeansOfType(PrometheusMeterRegistry.class).isEmpty());
+		assertFalse(context.getBeansOfType(CommandListener.class).isEmpty());
+		assertFalse(context.getBeansOfType(MongoMetricsConnectionPoolListener.class).isEmpty());
+		assertNotNull(context.getBean(UserCacheMetrics.class));
+		assertNotNull(meterRegistry.find("cache.gets").tag("cache", UserCacheMetrics.CACHE_NAME).functionCounter());
+		assertNotNull(meterRegistry.find("cache.gets").tag("cache", ShiftListCache.CACHE_NAME).functionCounter());
+		assertNotNull(meterRegistry.find(ShiftListCache.HIT_RATIO_GAUGE).gauge());
+	}
+
+	@Test
+	void objectMapper_shouldBeSharedAndUseBlackbird() {
+		ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+		assertTrue(objectMapper.getRegisteredModuleIds().contains(new BlackbirdModule().getTypeId()));
+	}
+
 }
@@ -0,0 +1,180 @@
+package com.shiftmanagement.app_core;
+
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+import com.shiftmanagement.app_core.repository.ShiftRepository;
+import com.shiftmanagement.app_core.services.DispatchQueueService;
+import com.shiftmanagement.app_core.services.ServiceDayProvider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DispatchQueueServiceTest {
+
+    private static final ZoneId BOGOTA = ZoneId.of("America/Bogota");
+    private static final LocalDate MONDAY = LocalDate.of(2025, 5, 12);
+
+    private ShiftRepository shiftRepository;
+    private MutableClock clock;
+    private DispatchQueueService queue;
+
+    @BeforeEach
+    void setUp() {
+        shiftRepository = mock(ShiftRepository.class);
+        clock = new MutableClock(ZonedDateTime.of(2025, 5, 12, 9, 0, 0, 0, BOGOTA).toInstant(), BOGOTA);
+        queue = new DispatchQueueService(shiftRepository, new ServiceDayProvider(clock));
+    }
+
+    @Test
+    void poll_shouldServePriorityFirstThenFifo() {
+        queue.offer(shift("1", "PS-1", false, 1));
+        queue.offer(shift("2", "PS-2", false, 2));
+        queue.offer(shift("3", "PS-3", true, 3));
+        queue.offer(shift("4", "PS-4", true, 4));
+
+        assertEquals("PS-3", queue.peek("Psicologia").map(Shift::getTurnCode).orElseThrow());
+        assertEquals("PS-3", queue.poll("Psicologia").map(Shift::getTurnCode).orElseThrow());
+        assertEquals("PS-4", queue.poll("Psicologia").map(Shift::getTurnCode).orElseThrow());
+        assertEquals("PS-1", queue.poll("Psicologia").map(Shift::getTurnCode).orElseThrow());
+        assertEquals("PS-2", queue.poll("Psicologia").map(Shift::getTurnCode).orElseThrow());
+        assertEquals(Optional.empty(), queue.poll("Psicologia"));
+    }
+
+    @Test
+    void offer_shouldIgnoreShiftsThatAreNotWaitingToday() {
+        Shift inProgress = shift("1", "PS-1", false, 1);
+        inProgress.setStatus(ShiftStatus.IN_PROGRESS);
+        Shift yesterday = shift("2", "PS-2", false, 2);
+        yesterday.setServiceDate(MONDAY.minusDays(1));
+
+        queue.offer(inProgress);
+        queue.offer(yesterday);
+
+        assertEquals(0, queue.size("Psicologia"));
+    }
+
+    @Test
+    void ahead_shouldCountTheShiftsCalledBeforeIt() {
+        Shift regular = shift("1", "PS-1", false, 1);
+        Shift later = shift("2", "PS-2", false, 2);
+        Shift priority = shift("3", "PS-3", true, 3);
+        queue.offer(regular);
+        queue.offer(later);
+        queue.offer(priority);
+
+        assertEquals(0, queue.ahead(priority).getAsInt());
+        assertEquals(2, queue.ahead(later).getAsInt());
+        assertTrue(queue.ahead(shift("4", "PS-4", false, 4)).isEmpty());
+    }
+
+    @Test
+    void remove_shouldDropTheShiftById() {
+        Shift first = shift("1", "PS-1", false, 1);
+        queue.offer(first);
+        queue.offer(shift("2", "PS-2", false, 2));
+
+        queue.remove(first);
+
+        assertEquals("PS-2", queue.peek("Psicologia").map(Shift::getTurnCode).orElseThrow());
+        assertEquals(1, queue.size("Psicologia"));
+    }
+
+    @Test
+    void findWaiting_shouldOnlyFindShiftsStillInTheQueue() {
+        Shift first = shift("1", "PS-1", false, 1);
+        Shift second = shift("2", "PS-2", false, 2);
+        Shift general = shift("3", "MG-1", false, 3);
+        queue.offer(first);
+        queue.offer(second);
+        queue.offer(general);
+
+        assertSame(general, queue.findWaiting("MG-1").orElseThrow());
+        queue.poll("Psicologia");
+        queue.remove(second);
+
+        assertTrue(queue.findWaiting("PS-1").isEmpty());
+        assertTrue(queue.findWaiting("PS-2").isEmpty());
+        assertTrue(queue.findWaiting("PS-9").isEmpty());
+    }
+
+    @Test
+    void queues_shouldBeEmptiedWhenTheServiceDayRollsOver() {
+        queue.offer(shift("1", "PS-1", false, 1));
+
+        clock.advance(Duration.ofDays(1));
+
+        assertEquals(Optional.empty(), queue.peek("Psicologia"));
+        assertEquals(0, queue.size("Psicologia"));
+    }
+
+    @Test
+    void rebuild_shouldLoadTodaysAssignedShifts() {
+        when(shiftRepository.findByStatusAndServiceDate(ShiftStatus.ASSIGNED, MONDAY))
+            .thenReturn(Flux.just(shift("1", "PS-1", false, 1), shift("2", "MG-1", false, 2)));
+        queue.rebuild();
+
+        assertEquals(1, queue.size("Psicologia"));
+        assertEquals(1, queue.size("Medicina General"));
+    }
+
+    @Test
+    void poll_underContention_shouldHandOutEveryShiftExactlyOnce() throws Exception {
+        int shifts = 100_000;
+        int threads = 8;
+        for (int i = 0; i < shifts; i++) {
+            queue.offer(shift(String.valueOf(i), "PS-" + i, i % 10 == 0, i % 60));
+        }
+
+        Set<String> popped = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                Optional<Shift> next;
+                while ((next = queue.poll("Psicologia")).isPresent()) {
+                    if (!popped.add(next.get().getId())) {
+                        duplicates.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(0, duplicates.get());
+        assertEquals(shifts, popped.size());
+    }
+
+    private Shift shift(String id, String turnCode, boolean priority, int minute) {
+        Shift shift = new Shift("1", turnCode.startsWith("MG") ? "Medicina General" : "Psicologia", priority);
+        shift.setId(id);
+        shift.setTurnCode(turnCode);
+        shift.setStatus(ShiftStatus.ASSIGNED);
+        shift.setServiceDate(MONDAY);
+        shift.setCreatedAt(MONDAY.atTime(8, minute));
+        return shift;
+    }
+}
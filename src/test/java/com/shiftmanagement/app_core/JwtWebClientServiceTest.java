@@ -1,16 +1,25 @@
 package com.shiftmanagement.app_core;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.shiftmanagement.app_core.model.User;
 import com.shiftmanagement.app_core.services.JwtWebClientService;
+import com.shiftmanagement.app_core.services.UserServiceResilience;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
 import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -22,12 +31,17 @@ import static org.mockito.Mockito.*;
 public class JwtWebClientServiceTest {
 
     private WebClient webClient;
+    private SimpleMeterRegistry meterRegistry;
     private JwtWebClientService jwtWebClientService;
 
     @BeforeEach
     void setUp() throws Exception {
         webClient = mock(WebClient.class, RETURNS_DEEP_STUBS);
-        jwtWebClientService = new JwtWebClientService(webClient);
+        meterRegistry = new SimpleMeterRegistry();
+        jwtWebClientService = new JwtWebClientService(webClient, meterRegistry,
+            new UserServiceResilience(Duration.ofSeconds(2), Duration.ofSeconds(3), 2, Duration.ofMillis(100),
+                50, 20, Duration.ofSeconds(30), 64),
+            new ObjectMapper(), 10_000);
 
         // Set Url field via reflection
         Field urlField = JwtWebClientService.class.getDeclaredField("Url");
@@ -36,17 +50,131 @@ public class JwtWebClientServiceTest {
     }
 
     @Test
-    void testGetToken_ReturnsCachedToken() throws Exception {
-        Field tokenField = JwtWebClientService.class.getDeclaredField("cachedToken");
-        tokenField.setAccessible(true);
-        tokenField.set(jwtWebClientService, "token123");
-        Field expiresAtField = JwtWebClientService.class.getDeclaredField("expiresAt");
-        expiresAtField.setAccessible(true);
-        expiresAtField.set(jwtWebClientService, Instant.now().plusSeconds(60));
+    void testGetToken_ReturnsCachedToken() {
+        stubLogin(Mono.just("{\"token\":\"token123\"}"));
 
-        StepVerifier.create(jwtWebClientService.getToken("1"))
+        StepVerifier.create(jwtWebClientService.getToken("1").then(jwtWebClientService.getToken("1")))
                 .expectNext("token123")
                 .verifyComplete();
+
+        verify(webClient, times(1)).post();
+        assertEquals(1, meterRegistry.get(JwtWebClientService.REFRESH_COUNTER)
+                .tag("mode", "blocking").tag("outcome", "success").counter().count());
+    }
+
+    @Test
+    void testGetToken_CachesTokensPerUser() {
+        stubLogin(Mono.just("{\"token\":\"token-a\"}"), Mono.just("{\"token\":\"token-b\"}"));
+
+        StepVerifier.create(jwtWebClientService.getToken("1"))
+                .expectNext("token-a")
+                .verifyComplete();
+        StepVerifier.create(jwtWebClientService.getToken("2"))
+                .expectNext("token-b")
+                .verifyComplete();
+
+        assertEquals("token-a", jwtWebClientService.getCachedToken("1"));
+        assertEquals("token-b", jwtWebClientService.getCachedToken("2"));
+    }
+
+    @Test
+    void testGetToken_ReadsExpirationFromExpClaim() {
+        long exp = Instant.now().plusSeconds(600).getEpochSecond();
+        String jwt = jwt("{\"sub\":\"1\",\"exp\":" + exp + "}");
+        stubLogin(Mono.just("{\"token\":\"" + jwt + "\"}"));
+
+        StepVerifier.create(jwtWebClientService.getToken("1"))
+                .expectNext(jwt)
+                .verifyComplete();
+
+        assertEquals(Instant.ofEpochSecond(exp), jwtWebClientService.getExpiresAt("1"));
+    }
+
+    @Test
+    void testGetToken_RefreshesExpiredTokenOnce() {
+        String expired = jwt("{\"exp\":" + Instant.now().minusSeconds(5).getEpochSecond() + "}");
+        stubLogin(Mono.just("{\"token\":\"" + expired + "\"}"),
+                Mono.just("{\"token\":\"fresh\"}").delayElement(Duration.ofMillis(100)));
+
+        StepVerifier.create(jwtWebClientService.getToken("1"))
+                .expectNext(expired)
+                .verifyComplete();
+
+        List<String> tokens = Flux.range(0, 20)
+                .flatMap(i -> jwtWebClientService.getToken("1"))
+                .collectList()
+                .block();
+
+        assertEquals(20, tokens.size());
+        assertTrue(tokens.stream().allMatch("fresh"::equals));
+        verify(webClient, times(2)).post();
+    }
+
+    @Test
+    void testGetToken_DoesNotKeepExpiredTokens() {
+        String expired = jwt("{\"exp\":" + Instant.now().minusSeconds(5).getEpochSecond() + "}");
+        stubLogin(Mono.just("{\"token\":\"" + expired + "\"}"));
+
+        StepVerifier.create(jwtWebClientService.getToken("1"))
+                .expectNext(expired)
+                .verifyComplete();
+
+        assertNull(jwtWebClientService.getCachedToken("1"));
+        assertEquals(Instant.EPOCH, jwtWebClientService.getExpiresAt("1"));
+    }
+
+    @Test
+    void testGetToken_RefreshesInBackgroundNearExpiry() {
+        // 10s token: at 80% of its lifetime the cached value is still served while a refresh runs
+        long exp = Instant.now().plusSeconds(10).getEpochSecond();
+        String aging = jwt("{\"exp\":" + exp + "}");
+        String shortLived = jwt("{\"exp\":" + Instant.now().plusSeconds(1).getEpochSecond() + "}");
+        stubLogin(Mono.just("{\"token\":\"" + shortLived + "\"}"), Mono.just("{\"token\":\"" + aging + "\"}"));
+
+        StepVerifier.create(jwtWebClientService.getToken("1"))
+                .expectNext(shortLived)
+                .verifyComplete();
+
+        // the one-second token is past its refresh point almost immediately
+        Mono.delay(Duration.ofMillis(900)).block();
+        StepVerifier.create(jwtWebClientService.getToken("1"))
+                .expectNextMatches(token -> token.equals(shortLived) || token.equals(aging))
+                .verifyComplete();
+
+        Mono.delay(Duration.ofMillis(200)).block();
+        assertEquals(aging, jwtWebClientService.getCachedToken("1"));
+        verify(webClient, times(2)).post();
+    }
+
+    @SafeVarargs
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void stubLogin(Mono<String> first, Mono<String>... next) {
+        WebClient.RequestHeadersUriSpec getSpec = mock(WebClient.RequestHeadersUriSpec.class);
+        WebClient.RequestHeadersSpec getHeadersSpec = mock(WebClient.RequestHeadersSpec.class);
+        WebClient.ResponseSpec getResponseSpec = mock(WebClient.ResponseSpec.class);
+
+        when(webClient.get()).thenReturn(getSpec);
+        when(getSpec.uri(anyString(), any(Object[].class))).thenReturn(getHeadersSpec);
+        when(getHeadersSpec.retrieve()).thenReturn(getResponseSpec);
+        when(getResponseSpec.bodyToMono(User.class)).thenReturn(Mono.just(new User("user", "123", "ADMIN", "pass")));
+
+        WebClient.RequestBodyUriSpec postSpec = mock(WebClient.RequestBodyUriSpec.class);
+        WebClient.RequestHeadersSpec<?> postHeadersSpec = mock(WebClient.RequestHeadersSpec.class);
+        WebClient.ResponseSpec postResponseSpec = mock(WebClient.ResponseSpec.class);
+
+        when(webClient.post()).thenReturn(postSpec);
+        when(postSpec.uri(anyString())).thenReturn(postSpec);
+        when(postSpec.header(eq(HttpHeaders.CONTENT_TYPE), eq(MediaType.APPLICATION_JSON_VALUE))).thenReturn(postSpec);
+        when(postSpec.bodyValue(any(Map.class))).thenReturn((WebClient.RequestHeadersSpec) postHeadersSpec);
+        when(postHeadersSpec.retrieve()).thenReturn(postResponseSpec);
+        when(postResponseSpec.bodyToMono(String.class)).thenReturn(first, next);
+    }
+
+    private static String jwt(String payload) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8))
+                + "." + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+                + ".sig";
     }
 
     @Test
@@ -57,7 +185,7 @@ public class JwtWebClientServiceTest {
         WebClient.ResponseSpec getResponseSpec = mock(WebClient.ResponseSpec.class);
 
         when(webClient.get()).thenReturn(getSpec);
-        when(getSpec.uri(anyString())).thenReturn(getHeadersSpec);
+        when(getSpec.uri(anyString(), any(Object[].class))).thenReturn(getHeadersSpec);
         when(getHeadersSpec.retrieve()).thenReturn(getResponseSpec);
         when(getResponseSpec.bodyToMono(User.class)).thenReturn(Mono.just(new User("user", "123", "ADMIN", "pass")));
         // Adjusted for record constructor: userName, numberId, role, password
@@ -89,7 +217,7 @@ public class JwtWebClientServiceTest {
         WebClient.ResponseSpec getResponseSpec = mock(WebClient.ResponseSpec.class);
 
         when(webClient.get()).thenReturn(getSpec);
-        when(getSpec.uri(anyString())).thenReturn(getHeadersSpec);
+        when(getSpec.uri(anyString(), any(Object[].class))).thenReturn(getHeadersSpec);
         when(getHeadersSpec.retrieve()).thenReturn(getResponseSpec);
         when(getResponseSpec.bodyToMono(User.class)).thenReturn(Mono.just(new User(null, null, null, null)));
 
@@ -0,0 +1,141 @@
+package com.shiftmanagement.app_core;
+
+import com.shiftmanagement.app_core.Config.NettyConfig;
+import com.shiftmanagement.app_core.Config.NettyProperties;
+import com.shiftmanagement.app_core.Config.WebClientConfig;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.internal.shaded.reactor.pool.PoolAcquirePendingLimitException;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+class NettyConfigTest {
+
+    private final LoopResources loops = LoopResources.create("netty-config-test", 2, true);
+    private ConnectionProvider pool;
+    private DisposableServer server;
+    private SimpleMeterRegistry registry;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.dispose();
+        }
+        if (server != null) {
+            server.disposeNow();
+        }
+        if (registry != null) {
+            Metrics.globalRegistry.remove(registry);
+        }
+        loops.dispose();
+    }
+
+    @Test
+    void properties_shouldBindProtocolsAndDurations() {
+        NettyProperties properties = bind(Map.of(
+            "app.netty.server.protocols", "H2C,HTTP11",
+            "app.netty.client.protocols", "H2C",
+            "app.netty.client.response-timeout", "800ms",
+            "app.netty.client.pool.max-connections", "20",
+            "app.netty.client.pool.max-life-time", "2m"));
+
+        assertEquals(List.of(HttpProtocol.H2C, HttpProtocol.HTTP11), properties.getServer().getProtocols());
+        assertEquals(List.of(HttpProtocol.H2C), properties.getClient().getProtocols());
+        assertEquals(Duration.ofMillis(800), properties.getClient().getResponseTimeout());
+        assertEquals(20, properties.getClient().getPool().getMaxConnections());
+        assertEquals(Duration.ofMinutes(2), properties.getClient().getPool().getMaxLifeTime());
+        assertEquals("user-service", properties.getClient().getPool().getName());
+    }
+
+    @Test
+    void client_shouldSpeakH2cWithAnH2cServer() {
+        server = HttpServer.create().port(0).protocol(HttpProtocol.H2C)
+            .handle((request, response) -> response.sendString(Mono.just(request.protocol())))
+            .bindNow();
+        NettyProperties properties = bind(Map.of("app.netty.client.protocols", "H2C"));
+
+        String protocol = client(properties).get().uri(url("/")).responseContent().aggregate().asString()
+            .block(Duration.ofSeconds(5));
+
+        assertEquals("HTTP/2.0", protocol);
+    }
+
+    @Test
+    void pool_shouldRejectCallersBeyondThePendingLimit() {
+        server = HttpServer.create().port(0)
+            .handle((request, response) -> response.sendString(Mono.just("ok").delayElement(Duration.ofMillis(500))))
+            .bindNow();
+        NettyProperties properties = bind(Map.of(
+            "app.netty.client.pool.max-connections", "1",
+            "app.netty.client.pool.pending-acquire-max-count", "1"));
+        HttpClient client = client(properties);
+
+        List<Object> results = Flux.range(0, 3)
+            .flatMap(i -> client.get().uri(url("/")).responseContent().aggregate().asString()
+                .<Object>map(body -> body)
+                .onErrorResume(error -> Mono.just(error)))
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertEquals(2, results.stream().filter("ok"::equals).count());
+        assertInstanceOf(PoolAcquirePendingLimitException.class,
+            results.stream().filter(Throwable.class::isInstance).findFirst().orElse(null));
+    }
+
+    @Test
+    void pool_shouldPublishItsMetersUnderItsName() {
+        registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        server = HttpServer.create().port(0)
+            .handle((request, response) -> response.sendString(Mono.just("ok")))
+            .bindNow();
+        NettyProperties properties = bind(Map.of("app.netty.client.pool.max-connections", "7"));
+
+        client(properties).get().uri(url("/user-service/users/42?fields=name")).responseContent().aggregate()
+            .asString().block(Duration.ofSeconds(5));
+
+        assertEquals(7.0, registry.get("reactor.netty.connection.provider.max.connections")
+            .tag("name", "user-service").gauge().value());
+    }
+
+    @Test
+    void uriTag_shouldKeepTheFirstTwoSegments() {
+        assertEquals("/api/shifts", NettyConfig.uriTag("/api/shifts/specialty/Psicologia"));
+        assertEquals("/user-service/users", NettyConfig.uriTag("http://users:8080/user-service/users/42?x=1"));
+        assertEquals("/api", NettyConfig.uriTag("/api?page=2"));
+        assertEquals("/", NettyConfig.uriTag("http://users:8080"));
+    }
+
+    private HttpClient client(NettyProperties properties) {
+        pool = new NettyConfig().userServiceConnectionProvider(properties);
+        return WebClientConfig.httpClient(properties, pool, loops);
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + server.port() + path;
+    }
+
+    private static NettyProperties bind(Map<String, String> values) {
+        return new Binder(new MapConfigurationPropertySource(values))
+            .bindOrCreate("app.netty", NettyProperties.class);
+    }
+}
@@ -0,0 +1,378 @@
+package com.shiftmanagement.app_core;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.shiftmanagement.app_core.Config.AdaptiveConcurrencyFilter;
+import com.shiftmanagement.app_core.Config.CachingJwtDecoder;
+import com.shiftmanagement.app_core.Config.JwtProperties;
+import com.shiftmanagement.app_core.Config.SecurityConfig;
+import com.shiftmanagement.app_core.controllers.ShiftController;
+import com.shiftmanagement.app_core.controllers.ShiftHistoryController;
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+import com.shiftmanagement.app_core.model.User;
+import com.shiftmanagement.app_core.services.ServiceDayProvider;
+import com.shiftmanagement.app_core.services.ShiftArchiveService;
+import com.shiftmanagement.app_core.services.ShiftListCache;
+import com.shiftmanagement.app_core.services.ShiftService;
+import com.shiftmanagement.app_core.services.ShiftViewVersions;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.web.reactive.result.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.security.web.server.WebFilterChainProxy;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SecurityConfigTest {
+
+    private static KeyPair issuerKeys;
+    private static KeyPair otherKeys;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void generateKeys() throws NoSuchAlgorithmException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        issuerKeys = generator.generateKeyPair();
+        otherKeys = generator.generateKeyPair();
+    }
+
+    @Test
+    void publicKey_shouldVerifyTokensAndExposeTheCaller() throws Exception {
+        CachingJwtDecoder decoder = new SecurityConfig().verifiedTokenDecoder(publicKeyProperties(), Clock.systemUTC());
+
+        Jwt jwt = decoder.decode(token(issuerKeys, "1000123", Instant.now().plusSeconds(600))).block();
+
+        assertEquals(new User("Ana", "1000123", "STUDENT", null), SecurityConfig.identity(jwt));
+    }
+
+    @Test
+    void jwkSet_shouldVerifyTokensSignedWithAnyOfItsKeys() throws Exception {
+        Path jwks = dir.resolve("jwks.json");
+        Files.writeString(jwks, new JWKSet(new RSAKey.Builder((RSAPublicKey) issuerKeys.getPublic()).keyID("k1").build())
+            .toString());
+        JwtProperties properties = new JwtProperties();
+        properties.setJwkSetLocation(new FileSystemResource(jwks));
+        CachingJwtDecoder decoder = new SecurityConfig().verifiedTokenDecoder(properties, Clock.systemUTC());
+
+        StepVerifier.create(decoder.decode(token(issuerKeys, "1000123", Instant.now().plusSeconds(600))))
+            .expectNextMatches(jwt -> jwt.getClaimAsString("numberId").equals("1000123"))
+            .verifyComplete();
+        StepVerifier.create(decoder.decode(token(otherKeys, "1000123", Instant.now().plusSeconds(600))))
+            .expectError(JwtException.class)
+            .verify();
+    }
+
+    @Test
+    void tokens_shouldBeRejectedWhenForgedExpiredOrWithoutNumberId() throws Exception {
+        CachingJwtDecoder decoder = new SecurityConfig().verifiedTokenDecoder(publicKeyProperties(), Clock.systemUTC());
+
+        StepVerifier.create(decoder.decode(token(otherKeys, "1000123", Instant.now().plusSeconds(600))))
+            .expectError(JwtException.class)
+            .verify();
+        StepVerifier.create(decoder.decode(token(issuerKeys, "1000123", Instant.now().minusSeconds(600))))
+            .expectError(JwtException.class)
+            .verify();
+        StepVerifier.create(decoder.decode(token(issuerKeys, null, Instant.now().plusSeconds(600))))
+            .expectError(JwtException.class)
+            .verify();
+    }
+
+    @Test
+    void cache_shouldVerifyEachTokenOnceAndMeasureHits() {
+        AtomicInteger verifications = new AtomicInteger();
+        CachingJwtDecoder decoder = new CachingJwtDecoder(counting(verifications, Instant.now().plusSeconds(600)),
+            100, Duration.ofMinutes(5), Clock.systemUTC());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        decoder.bindTo(registry);
+
+        for (int i = 0; i < 10; i++) {
+            decoder.decode("token-a").block();
+        }
+        decoder.decode("token-b").block();
+
+        assertEquals(2, verifications.get());
+        assertEquals(9.0, registry.get("cache.gets").tag("cache", CachingJwtDecoder.CACHE_NAME).tag("result", "hit")
+            .functionCounter().count());
+    }
+
+    @Test
+    void cache_shouldNotOutliveTheTokenNorKeepFailures() {
+        MutableClock clock = new MutableClock(Instant.now(), ZoneId.of("America/Bogota"));
+        AtomicInteger verifications = new AtomicInteger();
+        CachingJwtDecoder expiring = new CachingJwtDecoder(counting(verifications, clock.instant().minusSeconds(1)),
+            100, Duration.ofMinutes(5), clock);
+
+        expiring.decode("token-a").block();
+        expiring.decode("token-a").block();
+        assertEquals(2, verifications.get());
+
+        AtomicInteger failures = new AtomicInteger();
+        CachingJwtDecoder failing = new CachingJwtDecoder(token -> {
+            failures.incrementAndGet();
+            return Mono.error(new JwtException("bad signature"));
+        }, 100, Duration.ofMinutes(5), clock);
+
+        StepVerifier.create(failing.decode("token-a")).expectError(JwtException.class).verify();
+        StepVerifier.create(failing.decode("token-a")).expectError(JwtException.class).verify();
+        assertEquals(2, failures.get());
+    }
+
+    @Test
+    void api_shouldRequireATokenAndCreateShiftsForItsHolder() throws Exception {
+        ShiftService shiftService = mock(ShiftService.class);
+        when(shiftService.generateShift(any(Shift.class), any(User.class)))
+            .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        WebTestClient client = securedClient(shiftService);
+        Shift request = new Shift("999", "Psicologia", false);
+
+        client.post().uri("/api/shifts").bodyValue(request)
+            .exchange()
+            .expectStatus().isUnauthorized();
+        client.post().uri("/api/shifts").bodyValue(request)
+            .headers(headers -> headers.setBearerAuth(token(otherKeys, "1000123", Instant.now().plusSeconds(600))))
+            .exchange()
+            .expectStatus().isUnauthorized();
+        client.post().uri("/api/shifts").bodyValue(request)
+            .headers(headers -> headers.setBearerAuth(token(issuerKeys, "1000123", Instant.now().plusSeconds(600))))
+            .exchange()
+            .expectStatus().isCreated();
+
+        verify(shiftService).generateShift(any(Shift.class), eq(new User("Ana", "1000123", "STUDENT", null)));
+        verify(shiftService, never()).generateShift(any(Shift.class));
+    }
+
+    @Test
+    void staffOperations_shouldNeedAStaffRole() throws Exception {
+        ShiftService shiftService = mock(ShiftService.class);
+        when(shiftService.changeShiftStatus(anyString(), any(ShiftStatus.class))).thenReturn(Mono.just(new Shift("1", "Psicologia", false)));
+        when(shiftService.callNextShift(any())).thenReturn(Mono.just(new Shift("1", "Psicologia", false)));
+        when(shiftService.deleteShift(any())).thenReturn(Mono.empty());
+        WebTestClient client = securedClient(shiftService);
+        String student = token(issuerKeys, "1000123", "STUDENT", Instant.now().plusSeconds(600));
+        String doctor = token(issuerKeys, "2000456", "DOCTOR", Instant.now().plusSeconds(600));
+
+        for (String token : new String[] { student, doctor }) {
+            HttpStatus expected = token.equals(doctor) ? HttpStatus.OK : HttpStatus.FORBIDDEN;
+            client.put().uri("/api/shifts/PS-1").contentType(MediaType.APPLICATION_JSON).bodyValue("\"IN_PROGRESS\"")
+                .headers(headers -> headers.setBearerAuth(token))
+                .exchange()
+                .expectStatus().isEqualTo(expected);
+            client.post().uri("/api/shifts/specialty/Psicologia/next")
+                .headers(headers -> headers.setBearerAuth(token))
+                .exchange()
+                .expectStatus().isEqualTo(expected);
+            client.delete().uri("/api/shifts/abc")
+                .headers(headers -> headers.setBearerAuth(token))
+                .exchange()
+                .expectStatus().isEqualTo(expected);
+        }
+        client.get().uri("/api/shifts/specialty/Psicologia/next")
+            .headers(headers -> headers.setBearerAuth(student))
+            .exchange()
+            .expectStatus().value(status -> assertNotEquals(HttpStatus.FORBIDDEN.value(), status));
+
+        verify(shiftService).changeShiftStatus("PS-1", ShiftStatus.IN_PROGRESS);
+        verify(shiftService).callNextShift("Psicologia");
+        verify(shiftService).deleteShift("abc");
+    }
+
+    @Test
+    void bulkCreationAndOtherPeoplesShifts_shouldNeedAStaffRole() throws Exception {
+        ShiftService shiftService = mock(ShiftService.class);
+        when(shiftService.generateShifts(any())).thenReturn(Mono.just(List.of()));
+        when(shiftService.getShifts(any(), anyInt())).thenReturn(Flux.empty());
+        when(shiftService.streamShifts(any())).thenReturn(Flux.empty());
+        when(shiftService.getShiftsByRole(any())).thenReturn(Flux.empty());
+        when(shiftService.getShiftsByUserId(any())).thenReturn(Flux.empty());
+        ShiftArchiveService archive = mock(ShiftArchiveService.class);
+        when(archive.getHistory(any(), any(), any())).thenReturn(Flux.empty());
+        WebTestClient client = securedClient(shiftService, archive);
+        String student = token(issuerKeys, "1000123", "STUDENT", Instant.now().plusSeconds(600));
+        String doctor = token(issuerKeys, "2000456", "DOCTOR", Instant.now().plusSeconds(600));
+
+        for (String token : new String[] { student, doctor }) {
+            HttpStatus expected = token.equals(doctor) ? HttpStatus.CREATED : HttpStatus.FORBIDDEN;
+            client.post().uri("/api/shifts/batch").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[{\"userId\":\"999\",\"specialty\":\"Psicologia\"}]")
+                .headers(headers -> headers.setBearerAuth(token))
+                .exchange()
+                .expectStatus().isEqualTo(expected);
+            client.post().uri("/api/shifts/batch").contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"userId\":\"999\",\"specialty\":\"Psicologia\"}\n")
+                .headers(headers -> headers.setBearerAuth(token))
+                .exchange()
+                .expectStatus().isEqualTo(expected);
+            expected = token.equals(doctor) ? HttpStatus.OK : HttpStatus.FORBIDDEN;
+            for (String uri : new String[] { "/api/shifts", "/api/shifts/role/STUDENT", "/api/shifts/user/999",
+                "/api/shifts/history?from=2025-01-01&to=2025-01-02" }) {
+                client.get().uri(uri)
+                    .headers(headers -> headers.setBearerAuth(token))
+                    .exchange()
+                    .expectStatus().isEqualTo(expected);
+            }
+            client.get().uri("/api/shifts").accept(MediaType.APPLICATION_NDJSON)
+                .headers(headers -> headers.setBearerAuth(token))
+                .exchange()
+                .expectStatus().isEqualTo(expected);
+        }
+        client.get().uri("/api/shifts/user/1000123")
+            .headers(headers -> headers.setBearerAuth(student))
+            .exchange()
+            .expectStatus().isOk();
+
+        verify(shiftService, times(2)).generateShifts(any());
+        verify(shiftService).getShiftsByRole("STUDENT");
+        verify(shiftService).getShiftsByUserId("999");
+        verify(shiftService).getShiftsByUserId("1000123");
+        verify(archive).getHistory(any(), any(), any());
+    }
+
+    @Test
+    void concurrencyFilter_shouldRunAfterTheSecurityChain() throws Exception {
+        Field order = Class.forName("org.springframework.security.config.annotation.web.reactive.WebFluxSecurityConfiguration")
+            .getDeclaredField("WEB_FILTER_CHAIN_FILTER_ORDER");
+        order.setAccessible(true);
+
+        assertTrue(AdaptiveConcurrencyFilter.ORDER > order.getInt(null));
+    }
+
+    private WebTestClient securedClient(ShiftService shiftService) throws Exception {
+        return securedClient(shiftService, mock(ShiftArchiveService.class));
+    }
+
+    private WebTestClient securedClient(ShiftService shiftService, ShiftArchiveService archive) throws Exception {
+        CachingJwtDecoder decoder = new SecurityConfig().verifiedTokenDecoder(publicKeyProperties(), Clock.systemUTC());
+        return WebTestClient
+            .bindToController(new ShiftController(shiftService,
+                new ShiftViewVersions(new ServiceDayProvider(Clock.systemDefaultZone()), null),
+                new ShiftListCache(Duration.ZERO, 0, DataSize.ofBytes(0))),
+                new ShiftHistoryController(archive))
+            .webFilter(new WebFilterChainProxy(new SecurityConfig().securityWebFilterChain(ServerHttpSecurity.http(),
+                new SingletonProvider<>(decoder), publicKeyProperties())))
+            .argumentResolvers(resolvers -> resolvers.addCustomResolver(
+                new AuthenticationPrincipalArgumentResolver(ReactiveAdapterRegistry.getSharedInstance())))
+            .build();
+    }
+
+    private JwtProperties publicKeyProperties() throws Exception {
+        Path pem = dir.resolve("issuer.pem");
+        Files.writeString(pem, "-----BEGIN PUBLIC KEY-----\n"
+            + Base64.getMimeEncoder().encodeToString(issuerKeys.getPublic().getEncoded())
+            + "\n-----END PUBLIC KEY-----\n");
+        JwtProperties properties = new JwtProperties();
+        properties.setEnabled(true);
+        properties.setPublicKeyLocation(new FileSystemResource(pem));
+        return properties;
+    }
+
+    private static String token(KeyPair keys, String numberId, Instant expiresAt) {
+        return token(keys, numberId, "STUDENT", expiresAt);
+    }
+
+    private static String token(KeyPair keys, String numberId, String role, Instant expiresAt) {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+            .subject("ana")
+            .claim("numberId", numberId)
+            .claim("userName", "Ana")
+            .claim("role", role)
+            .issueTime(Date.from(expiresAt.minusSeconds(3600)))
+            .expirationTime(Date.from(expiresAt))
+            .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID("k1").build(), claims);
+        try {
+            jwt.sign(new RSASSASigner((RSAPrivateKey) keys.getPrivate()));
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+        return jwt.serialize();
+    }
+
+    private static ReactiveJwtDecoder counting(AtomicInteger verifications, Instant expiresAt) {
+        return token -> {
+            verifications.incrementAndGet();
+            return Mono.just(Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .claim("numberId", "1000123")
+                .issuedAt(expiresAt.minusSeconds(3600))
+                .expiresAt(expiresAt)
+                .build());
+        };
+    }
+
+    private record SingletonProvider<T>(T value) implements org.springframework.beans.factory.ObjectProvider<T> {
+
+        @Override
+        public T getObject() {
+            return value;
+        }
+
+        @Override
+        public T getObject(Object... args) {
+            return value;
+        }
+
+        @Override
+        public T getIfAvailable() {
+            return value;
+        }
+
+        @Override
+        public T getIfUnique() {
+            return value;
+        }
+    }
+}
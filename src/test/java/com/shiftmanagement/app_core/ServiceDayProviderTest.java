@@ -0,0 +1,41 @@
+package com.shiftmanagement.app_core;
+
+import com.shiftmanagement.app_core.services.ServiceDayProvider;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ServiceDayProviderTest {
+
+    private static final ZoneId BOGOTA = ZoneId.of("America/Bogota");
+
+    @Test
+    void today_shouldRollOverAtCampusMidnight() {
+        MutableClock clock = new MutableClock(
+            ZonedDateTime.of(2025, 5, 12, 23, 59, 0, 0, BOGOTA).toInstant(), BOGOTA);
+        ServiceDayProvider provider = new ServiceDayProvider(clock);
+
+        assertEquals(LocalDate.of(2025, 5, 12), provider.today());
+
+        clock.advance(Duration.ofMinutes(2));
+
+        assertEquals(LocalDate.of(2025, 5, 13), provider.today());
+        assertEquals(LocalDateTime.of(2025, 5, 13, 0, 1), provider.now());
+    }
+
+    @Test
+    void today_shouldFollowCampusZoneNotUtc() {
+        // 02:00 UTC on the 13th is still the evening of the 12th in Bogota (UTC-5)
+        MutableClock clock = new MutableClock(
+            ZonedDateTime.of(2025, 5, 13, 2, 0, 0, 0, ZoneId.of("UTC")).toInstant(), BOGOTA);
+
+        assertEquals(LocalDate.of(2025, 5, 12), new ServiceDayProvider(clock).today());
+    }
+}
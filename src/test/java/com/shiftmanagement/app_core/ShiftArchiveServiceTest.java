@@ -0,0 +1,165 @@
+package com.shiftmanagement.app_core;
+
+import com.shiftmanagement.app_core.controllers.ShiftHistoryController;
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.repository.ShiftRepository;
+import com.shiftmanagement.app_core.services.ServiceDayProvider;
+import com.shiftmanagement.app_core.services.ShiftArchiveService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ShiftArchiveServiceTest {
+
+    private static final ZoneId BOGOTA = ZoneId.of("America/Bogota");
+    private static final LocalDate HOT_START = LocalDate.of(2025, 5, 6);
+
+    private ShiftRepository shiftRepository;
+    private ShiftArchiveService archiveService;
+
+    @BeforeEach
+    void setUp() {
+        shiftRepository = Mockito.mock(ShiftRepository.class);
+        MutableClock clock = new MutableClock(ZonedDateTime.of(2025, 5, 12, 9, 0, 0, 0, BOGOTA).toInstant(), BOGOTA);
+        archiveService = new ShiftArchiveService(shiftRepository, new ServiceDayProvider(clock), true, 7, 3, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void archive_shouldMoveBatchesWithAPauseUntilOneComesBackShort() {
+        when(shiftRepository.archiveBatch(HOT_START, 3))
+            .thenReturn(Mono.just(3), Mono.just(3), Mono.just(1));
+
+        StepVerifier.withVirtualTime(() -> archiveService.archive())
+            .expectSubscription()
+            .expectNoEvent(Duration.ofSeconds(2))
+            .thenAwait(Duration.ofSeconds(1))
+            .expectNext(7L)
+            .verifyComplete();
+
+        verify(shiftRepository, times(3)).archiveBatch(HOT_START, 3);
+    }
+
+    @Test
+    void getHistory_shouldOnlyReadTheHotCollectionInsideTheHotWindow() {
+        Shift recent = shift("a", HOT_START);
+        when(shiftRepository.findServedBetween(HOT_START, HOT_START.plusDays(2), null)).thenReturn(Flux.just(recent));
+
+        StepVerifier.create(archiveService.getHistory(HOT_START, HOT_START.plusDays(2), null))
+            .expectNext(recent)
+            .verifyComplete();
+
+        verify(shiftRepository, never()).findArchivedBetween(any(), any(), any());
+    }
+
+    @Test
+    void getHistory_shouldAddTheArchiveAndReturnEachShiftOnce() {
+        LocalDate from = HOT_START.minusDays(30);
+        LocalDate lastArchivable = HOT_START.minusDays(1);
+        Shift archived = shift("a", from);
+        Shift movingNow = shift("b", lastArchivable);
+        Shift recent = shift("c", HOT_START);
+        when(shiftRepository.findServedBetween(from, lastArchivable, "Psicologia")).thenReturn(Flux.just(movingNow));
+        when(shiftRepository.findArchivedBetween(from, lastArchivable, "Psicologia")).thenReturn(Flux.just(archived, movingNow));
+        when(shiftRepository.findServedBetween(HOT_START, HOT_START, "Psicologia")).thenReturn(Flux.just(recent));
+
+        StepVerifier.create(archiveService.getHistory(from, HOT_START, "Psicologia"))
+            .expectNext(archived, movingNow, recent)
+            .verifyComplete();
+    }
+
+    @Test
+    void getHistory_shouldKeepShiftsNotArchivedYetInServiceDayOrder() {
+        LocalDate from = HOT_START.minusDays(30);
+        LocalDate lastArchivable = HOT_START.minusDays(1);
+        Shift first = shift("a", from);
+        Shift pending = shift("b", from.plusDays(1));
+        Shift sameDayArchived = shift("c", from.plusDays(1));
+        Shift last = shift("d", lastArchivable);
+        when(shiftRepository.findServedBetween(from, lastArchivable, null)).thenReturn(Flux.just(pending));
+        when(shiftRepository.findArchivedBetween(from, lastArchivable, null)).thenReturn(Flux.just(first, sameDayArchived, last));
+        when(shiftRepository.findServedBetween(HOT_START, HOT_START, null)).thenReturn(Flux.empty());
+
+        StepVerifier.create(archiveService.getHistory(from, HOT_START, null))
+            .expectNext(first, pending, sameDayArchived, last)
+            .verifyComplete();
+    }
+
+    @Test
+    void getHistory_shouldNotReadTheHotWindowForAnOlderRange() {
+        LocalDate from = HOT_START.minusDays(30);
+        LocalDate to = HOT_START.minusDays(10);
+        Shift archived = shift("a", from);
+        when(shiftRepository.findServedBetween(from, to, null)).thenReturn(Flux.empty());
+        when(shiftRepository.findArchivedBetween(from, to, null)).thenReturn(Flux.just(archived));
+
+        StepVerifier.create(archiveService.getHistory(from, to, null))
+            .expectNext(archived)
+            .verifyComplete();
+
+        verify(shiftRepository, never()).findServedBetween(HOT_START, to, null);
+    }
+
+    @Test
+    void disabledArchiving_shouldMoveNothingAndHistoryShouldReadBothCollections() {
+        MutableClock clock = new MutableClock(ZonedDateTime.of(2025, 5, 12, 9, 0, 0, 0, BOGOTA).toInstant(), BOGOTA);
+        ShiftArchiveService disabled = new ShiftArchiveService(shiftRepository, new ServiceDayProvider(clock), false, 7, 3,
+            Duration.ofSeconds(1));
+        LocalDate from = HOT_START.minusDays(30);
+        Shift archived = shift("a", from);
+        Shift old = shift("b", HOT_START.minusDays(3));
+        Shift archivedLater = shift("c", HOT_START.minusDays(2));
+        when(shiftRepository.findArchivedBetween(from, HOT_START, null)).thenReturn(Flux.just(archived, archivedLater));
+        when(shiftRepository.findServedBetween(from, HOT_START, null)).thenReturn(Flux.just(old));
+
+        disabled.scheduledArchive();
+        StepVerifier.create(disabled.getHistory(from, HOT_START, null))
+            .expectNext(archived, old, archivedLater)
+            .verifyComplete();
+
+        verify(shiftRepository, never()).archiveBatch(any(), Mockito.anyInt());
+    }
+
+    @Test
+    void getHistory_shouldRejectInvalidRangesWithABadRequest() {
+        StepVerifier.create(archiveService.getHistory(HOT_START, HOT_START.minusDays(1), null))
+            .expectError(IllegalArgumentException.class)
+            .verify();
+
+        WebTestClient client = WebTestClient.bindToController(new ShiftHistoryController(archiveService)).build();
+        client.get().uri("/api/shifts/history?from=2024-01-01&to=2025-05-01")
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody()
+            .jsonPath("$.error").isEqualTo("A history range cannot span more than 366 days");
+    }
+
+    @Test
+    void hotWindowStart_shouldKeepTheConfiguredNumberOfDays() {
+        assertEquals(HOT_START, archiveService.hotWindowStart());
+    }
+
+    private Shift shift(String id, LocalDate serviceDate) {
+        Shift shift = new Shift("1", "Psicologia", false);
+        shift.setId(id);
+        shift.setServiceDate(serviceDate);
+        return shift;
+    }
+}
@@ -0,0 +1,74 @@
+package com.shiftmanagement.app_core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftBoardView;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the payload size and serialization time of a board of full shifts against the board view.
+ */
+class ShiftBoardViewTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ShiftBoardViewTest.class);
+    private static final int BOARD_SIZE = 500;
+    private static final int ROUNDS = 200;
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void boardView_shouldBeSmallerAndCarryNoUserData() throws Exception {
+        List<Shift> shifts = new ArrayList<>();
+        List<ShiftBoardView> views = new ArrayList<>();
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            Shift shift = new Shift("10" + i, "Psicologia", i % 10 == 0);
+            shift.setId(String.format("%024x", i));
+            shift.setTurnCode("PS-" + i);
+            shift.setStatus(ShiftStatus.ASSIGNED);
+            shift.setUsername("Estudiante Numero " + i);
+            shift.setUserRole("STUDENT");
+            shift.setServiceDate(LocalDate.of(2025, 5, 12));
+            shift.setCreatedAt(LocalDate.of(2025, 5, 12).atTime(8, i % 60));
+            shifts.add(shift);
+            views.add(new ShiftBoardView(shift.getTurnCode(), shift.getSpecialty(), shift.getStatus(), shift.isSpecialPriority()));
+        }
+
+        byte[] full = mapper.writeValueAsBytes(shifts);
+        byte[] board = mapper.writeValueAsBytes(views);
+        long fullNanos = serializationTime(shifts);
+        long boardNanos = serializationTime(views);
+        log.info("{} shifts: full {} bytes in {} us, board {} bytes in {} us",
+            BOARD_SIZE, full.length, fullNanos / 1000, board.length, boardNanos / 1000);
+
+        String boardJson = new String(board);
+        assertFalse(boardJson.contains("userId") || boardJson.contains("username") || boardJson.contains("userRole"));
+        assertTrue(board.length * 2 < full.length, "board " + board.length + " bytes, full " + full.length + " bytes");
+    }
+
+    /** Median time of serializing the whole board, after a warm-up. */
+    private long serializationTime(Object board) throws Exception {
+        long[] samples = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            mapper.writeValueAsBytes(board);
+        }
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            mapper.writeValueAsBytes(board);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[ROUNDS / 2];
+    }
+}
@@ -1,14 +1,52 @@
 package com.shiftmanagement.app_core;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.shiftmanagement.app_core.Config.CodecConfig;
 import com.shiftmanagement.app_core.controllers.ShiftController;
+import com.shiftmanagement.app_core.exceptions.ShiftTransitionConflictException;
+import com.shiftmanagement.app_core.model.BatchItemResult;
 import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftBoardView;
 import com.shiftmanagement.app_core.model.ShiftStatus;
+import com.shiftmanagement.app_core.model.StatusTransition;
+import com.shiftmanagement.app_core.model.TransitionResult;
+import com.shiftmanagement.app_core.model.User;
+import com.shiftmanagement.app_core.repository.ShiftRepository;
+import com.shiftmanagement.app_core.repository.TurnSequenceRepository;
+import com.shiftmanagement.app_core.services.DispatchQueueService;
+import com.shiftmanagement.app_core.services.ServiceDayProvider;
+import com.shiftmanagement.app_core.services.ShiftListCache;
+import com.shiftmanagement.app_core.services.ShiftMetrics;
 import com.shiftmanagement.app_core.services.ShiftService;
+import com.shiftmanagement.app_core.services.ShiftViewVersions;
+import com.shiftmanagement.app_core.services.UserService;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.unit.DataSize;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
+import java.net.InetSocketAddress;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -25,33 +63,123 @@ public class ShiftControllerTest {
     @BeforeEach
     void setUp() {
         shiftService = mock(ShiftService.class);
-        shiftController = new ShiftController(shiftService);
+        shiftController = new ShiftController(shiftService,
+            new ShiftViewVersions(new ServiceDayProvider(Clock.systemDefaultZone()), null),
+            new ShiftListCache(Duration.ZERO, 0, DataSize.ofBytes(0)));
     }
 
     @Test
     void testGetAllShifts_ReturnsShifts() {
         Shift shift = new Shift();
-        when(shiftService.getShifts()).thenReturn(Flux.just(shift));
+        when(shiftService.getShifts(null, 100)).thenReturn(Flux.just(shift));
 
-        StepVerifier.create(shiftController.getAllShifts())
+        StepVerifier.create(shiftController.getAllShifts(null, 100))
                 .expectNext(shift)
                 .verifyComplete();
     }
 
     @Test
     void testGetAllShifts_Empty() {
-        when(shiftService.getShifts()).thenReturn(Flux.empty());
+        when(shiftService.getShifts("last", 100)).thenReturn(Flux.empty());
 
-        StepVerifier.create(shiftController.getAllShifts())
+        StepVerifier.create(shiftController.getAllShifts("last", 100))
                 .verifyComplete(); // Espera que termine sin error y sin elementos
     }
 
+    @Test
+    void testGetAllShifts_InvalidLimitOrCursorIsABadRequest() {
+        when(shiftService.getShifts(null, 5000)).thenReturn(Flux.error(new IllegalArgumentException("The limit must be between 1 and 1000")));
+        when(shiftService.getShifts("last", 100)).thenReturn(Flux.error(new IllegalArgumentException("after must be the id of a shift")));
+        when(shiftService.streamShifts("last")).thenReturn(Flux.error(new IllegalArgumentException("after must be the id of a shift")));
+        WebTestClient client = WebTestClient.bindToController(shiftController).build();
+
+        client.get().uri("/api/shifts?limit=5000")
+                .exchange()
+                .expectStatus().isBadRequest();
+        client.get().uri("/api/shifts?after=last")
+                .exchange()
+                .expectStatus().isBadRequest();
+        client.get().uri("/api/shifts?after=last")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testGetAllShifts_NegotiatesJsonPageOrNdjsonStream() {
+        Shift shift = new Shift();
+        shift.setTurnCode("PS-1");
+        when(shiftService.getShifts(null, 100)).thenReturn(Flux.just(shift));
+        when(shiftService.streamShifts(null)).thenReturn(Flux.just(shift, shift));
+        WebTestClient client = WebTestClient.bindToController(shiftController).build();
+
+        client.get().uri("/api/shifts")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBodyList(Shift.class).hasSize(1);
+
+        client.get().uri("/api/shifts")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .value(body -> assertEquals(2, body.lines().count()));
+    }
+
+    @Test
+    void parallelPosts_shouldNeverHandOutDuplicateTurnCodes() {
+        int requests = 2000;
+        MongoServer server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        try (MongoClient client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort())) {
+            TurnSequenceRepository turnSequenceRepository =
+                new TurnSequenceRepository(new ReactiveMongoTemplate(client, "ShiftControllerTest"));
+            ShiftRepository shiftRepository = mock(ShiftRepository.class);
+            UserService userService = mock(UserService.class);
+            when(userService.getUserbyId(anyString()))
+                .thenAnswer(invocation -> Mono.just(new User("John Doe", invocation.getArgument(0), "STUDENT", null)));
+            when(shiftRepository.insert(any(Shift.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+            ServiceDayProvider serviceDayProvider = new ServiceDayProvider(Clock.systemDefaultZone());
+            DispatchQueueService dispatchQueueService = new DispatchQueueService(shiftRepository, serviceDayProvider);
+            ShiftService realService = new ShiftService(shiftRepository, userService, turnSequenceRepository,
+                serviceDayProvider, dispatchQueueService, List.of(dispatchQueueService), new ShiftMetrics(new SimpleMeterRegistry()));
+            WebTestClient webClient = WebTestClient.bindToController(new ShiftController(realService,
+                new ShiftViewVersions(serviceDayProvider, null), new ShiftListCache(Duration.ZERO, 0, DataSize.ofBytes(0)))).build();
+
+            List<String> codes = Flux.range(0, requests)
+                .flatMap(i -> Mono.fromCallable(() -> webClient.post()
+                        .uri("/api/shifts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(new Shift(String.valueOf(i), "Psicologia", false))
+                        .exchange()
+                        .expectStatus().isCreated()
+                        .expectBody(Shift.class)
+                        .returnResult()
+                        .getResponseBody()
+                        .getTurnCode())
+                    .subscribeOn(Schedulers.boundedElastic()), 64)
+                .collectList()
+                .block();
+
+            Set<String> unique = new HashSet<>(codes);
+            assertEquals(requests, codes.size());
+            assertEquals(requests, unique.size(), "duplicate turn codes were handed out");
+            assertTrue(unique.contains("PS-1"));
+            assertTrue(unique.contains("PS-" + requests));
+        } finally {
+            server.shutdownNow();
+        }
+    }
+
     @Test
     void testPostShift_Success() {
         Shift shift = new Shift();
         when(shiftService.generateShift(shift)).thenReturn(Mono.just(shift));
 
-        StepVerifier.create(shiftController.postShift(shift))
+        StepVerifier.create(shiftController.postShift(shift, null))
                 .assertNext(response -> {
                     assertEquals(201, response.getStatusCodeValue());
                     assertEquals(shift, response.getBody());
@@ -64,7 +192,7 @@ public class ShiftControllerTest {
         Shift shift = new Shift();
         when(shiftService.generateShift(shift)).thenReturn(Mono.error(new RuntimeException("Error")));
 
-        StepVerifier.create(shiftController.postShift(shift))
+        StepVerifier.create(shiftController.postShift(shift, null))
                 .assertNext(response -> {
                     assertEquals(500, response.getStatusCodeValue());
                     assertNull(response.getBody());
@@ -193,9 +321,8 @@ public class ShiftControllerTest {
     @Test
     void testChangeShiftStatus_Success() {
         Shift shift = new Shift();
-        ShiftStatus status = ShiftStatus.ASSIGNED;
-        when(shiftService.getShiftByTurnCode("code1")).thenReturn(Mono.just(shift));
-        when(shiftService.changeShiftStatus(shift, status)).thenReturn(Mono.just(shift));
+        ShiftStatus status = ShiftStatus.IN_PROGRESS;
+        when(shiftService.changeShiftStatus("code1", status)).thenReturn(Mono.just(shift));
 
         StepVerifier.create(shiftController.changeShiftStatus("code1", status))
                 .assertNext(response -> {
@@ -207,8 +334,8 @@ public class ShiftControllerTest {
 
     @Test
     void testChangeShiftStatus_Error() {
-        ShiftStatus status = ShiftStatus.ASSIGNED;
-        when(shiftService.getShiftByTurnCode("code1")).thenReturn(Mono.error(new RuntimeException("Error")));
+        ShiftStatus status = ShiftStatus.IN_PROGRESS;
+        when(shiftService.changeShiftStatus("code1", status)).thenReturn(Mono.error(new RuntimeException("Error")));
 
         StepVerifier.create(shiftController.changeShiftStatus("code1", status))
                 .assertNext(response -> {
@@ -218,12 +345,58 @@ public class ShiftControllerTest {
                 .verifyComplete();
     }
 
+    @Test
+    void testChangeShiftStatus_ConflictWhenCurrentStatusDoesNotAllowIt() {
+        ShiftStatus status = ShiftStatus.IN_PROGRESS;
+        when(shiftService.changeShiftStatus("code1", status)).thenReturn(
+            Mono.error(new ShiftTransitionConflictException("code1", ShiftStatus.CANCELED, status)));
+
+        StepVerifier.create(shiftController.changeShiftStatus("code1", status))
+                .assertNext(response -> assertEquals(409, response.getStatusCode().value()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testChangeShiftStatuses_MultiStatusWhenSomeItemsFail() {
+        when(shiftService.changeShiftStatuses(List.of(
+                new StatusTransition("PS-1", ShiftStatus.CANCELED),
+                new StatusTransition("PS-2", ShiftStatus.CANCELED))))
+            .thenReturn(Mono.just(List.of(
+                TransitionResult.applied(0, "PS-1", ShiftStatus.ASSIGNED),
+                TransitionResult.failed(1, "PS-2", ShiftStatus.ATTENDED, "Transition not allowed"))));
+        WebTestClient client = WebTestClient.bindToController(shiftController).build();
+
+        client.patch().uri("/api/shifts/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[{\"turnCode\":\"PS-1\",\"status\":\"CANCELED\"},{\"turnCode\":\"PS-2\",\"status\":\"CANCELED\"}]")
+                .exchange()
+                .expectStatus().isEqualTo(207)
+                .expectBody()
+                .jsonPath("$[0].applied").isEqualTo(true)
+                .jsonPath("$[1].previousStatus").isEqualTo("ATTENDED");
+    }
+
+    @Test
+    void testGetBoardBySpecialty_ReturnsOnlyBoardFields() {
+        when(shiftService.getBoardBySpecialty("Psicologia"))
+            .thenReturn(Flux.just(new ShiftBoardView("PS-1", "Psicologia", ShiftStatus.ASSIGNED, true)));
+        WebTestClient client = WebTestClient.bindToController(shiftController).build();
+
+        client.get().uri("/api/shifts/board/specialty/Psicologia")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].turnCode").isEqualTo("PS-1")
+                .jsonPath("$[0].specialPriority").isEqualTo(true)
+                .jsonPath("$[0].userId").doesNotExist();
+    }
+
     @Test
     void testGetShiftsBySpecialty() {
         Shift shift = new Shift();
         when(shiftService.getShiftsBySpecialty("cardiology")).thenReturn(Flux.just(shift));
 
-        StepVerifier.create(shiftController.getShiftsBySpecialty("cardiology"))
+        StepVerifier.create(shiftController.getShiftsBySpecialty("cardiology", get("/api/shifts/specialty/cardiology")))
                 .expectNext(shift)
                 .verifyComplete();
     }
@@ -233,11 +406,60 @@ public class ShiftControllerTest {
         Shift shift = new Shift();
         when(shiftService.getShiftsByStatus(ShiftStatus.ASSIGNED)).thenReturn(Flux.just(shift));
 
-        StepVerifier.create(shiftController.getShiftsByStatus(ShiftStatus.ASSIGNED))
+        StepVerifier.create(shiftController.getShiftsByStatus(ShiftStatus.ASSIGNED, get("/api/shifts/status/ASSIGNED")))
                 .expectNext(shift)
                 .verifyComplete();
     }
 
+    @Test
+    void testGetShiftsBySpecialty_AnswersMatchingETagWithNotModified() {
+        when(shiftService.getShiftsBySpecialty("cardiology")).thenReturn(Flux.just(new Shift()));
+        WebTestClient client = WebTestClient.bindToController(shiftController).build();
+
+        String etag = client.get().uri("/api/shifts/specialty/cardiology")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueMatches("ETag", "W/\".+\"")
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+
+        client.get().uri("/api/shifts/specialty/cardiology")
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+        verify(shiftService, times(1)).getShiftsBySpecialty("cardiology");
+    }
+
+    @Test
+    void testGetAllShifts_NegotiatesCborAndSmile() throws Exception {
+        Shift shift = new Shift("123", "Psicologia", true);
+        shift.setTurnCode("PS-1");
+        when(shiftService.getShifts(null, 100)).thenReturn(Flux.just(shift, shift));
+        WebTestClient client = WebTestClient.bindToController(shiftController)
+                .httpMessageCodecs(new CodecConfig().binaryCodecs(Jackson2ObjectMapperBuilder.json())::customize)
+                .build();
+
+        byte[] json = client.get().uri("/api/shifts").accept(MediaType.APPLICATION_JSON)
+                .exchange().expectBody().returnResult().getResponseBody();
+        byte[] cbor = client.get().uri("/api/shifts").accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody().returnResult().getResponseBody();
+        byte[] smile = client.get().uri("/api/shifts").accept(CodecConfig.APPLICATION_SMILE)
+                .exchange()
+                .expectHeader().contentType(CodecConfig.APPLICATION_SMILE)
+                .expectBody().returnResult().getResponseBody();
+
+        TypeReference<List<Shift>> shifts = new TypeReference<>() { };
+        ObjectMapper cborMapper = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+        ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+        assertEquals("PS-1", cborMapper.readValue(cbor, shifts).get(1).getTurnCode());
+        assertEquals("PS-1", smileMapper.readValue(smile, shifts).get(1).getTurnCode());
+        assertTrue(cbor.length < json.length);
+        assertTrue(smile.length < json.length);
+    }
+
     @Test
     void testGetShiftsBySpecialPriority() {
         Shift shift = new Shift();
@@ -247,4 +469,100 @@ public class ShiftControllerTest {
                 .expectNext(shift)
                 .verifyComplete();
     }
+
+    @Test
+    void testCallNextShift_Success() {
+        Shift shift = new Shift();
+        when(shiftService.callNextShift("Psicologia")).thenReturn(Mono.just(shift));
+
+        StepVerifier.create(shiftController.callNextShift("Psicologia"))
+                .assertNext(response -> {
+                    assertEquals(200, response.getStatusCode().value());
+                    assertEquals(shift, response.getBody());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testCallNextShift_EmptyQueue() {
+        when(shiftService.callNextShift("Psicologia"))
+                .thenReturn(Mono.error(new java.util.NoSuchElementException("No shifts waiting")));
+
+        StepVerifier.create(shiftController.callNextShift("Psicologia"))
+                .assertNext(response -> {
+                    assertEquals(404, response.getStatusCode().value());
+                    assertEquals(Collections.singletonMap("error", "No shifts waiting"), response.getBody());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testPeekNextShift() {
+        Shift shift = new Shift();
+        when(shiftService.peekNextShift("Psicologia")).thenReturn(Mono.just(shift));
+
+        StepVerifier.create(shiftController.peekNextShift("Psicologia"))
+                .assertNext(response -> assertEquals(shift, response.getBody()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testPostShifts_AllCreated() {
+        Shift shift = new Shift();
+        when(shiftService.generateShifts(any())).thenReturn(Mono.just(List.of(BatchItemResult.created(0, shift))));
+
+        StepVerifier.create(shiftController.postShifts(Flux.just(shift)))
+                .assertNext(response -> assertEquals(201, response.getStatusCode().value()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testPostShifts_PartialFailure() {
+        Shift shift = new Shift();
+        when(shiftService.generateShifts(any())).thenReturn(Mono.just(List.of(
+                BatchItemResult.created(0, shift), BatchItemResult.failed(1, "User not found: 2"))));
+
+        StepVerifier.create(shiftController.postShifts(Flux.just(shift, shift)))
+                .assertNext(response -> {
+                    assertEquals(207, response.getStatusCode().value());
+                    assertEquals("User not found: 2", response.getBody().get(1).error());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testPostShiftStream_AcceptsNdjson() {
+        when(shiftService.generateShifts(any())).thenAnswer(invocation -> {
+            Flux<Shift> shifts = invocation.getArgument(0);
+            return shifts.index().map(indexed -> BatchItemResult.created(indexed.getT1().intValue(), indexed.getT2())).collectList();
+        });
+
+        WebTestClient.bindToController(shiftController).build()
+                .post().uri("/api/shifts/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"userId\":\"1\",\"specialty\":\"Psicologia\"}\n{\"userId\":\"2\",\"specialty\":\"Psicologia\"}\n")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBodyList(BatchItemResult.class).hasSize(2);
+    }
+
+    @Test
+    void testPostShifts_DecodesTheJsonArrayAsAStream() {
+        when(shiftService.generateShifts(any())).thenAnswer(invocation -> {
+            Flux<Shift> shifts = invocation.getArgument(0);
+            return shifts.index().map(indexed -> BatchItemResult.created(indexed.getT1().intValue(), indexed.getT2())).collectList();
+        });
+
+        WebTestClient.bindToController(shiftController).build()
+                .post().uri("/api/shifts/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[{\"userId\":\"1\",\"specialty\":\"Psicologia\"},{\"userId\":\"2\",\"specialty\":\"Psicologia\"}]")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBodyList(BatchItemResult.class).hasSize(2);
+    }
+
+    private static MockServerWebExchange get(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
 }
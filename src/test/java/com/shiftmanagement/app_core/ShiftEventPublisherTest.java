@@ -0,0 +1,208 @@
+package com.shiftmanagement.app_core;
+
+import com.shiftmanagement.app_core.controllers.ShiftEventController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftBoardEvent;
+import com.shiftmanagement.app_core.model.ShiftBoardView;
+import com.shiftmanagement.app_core.model.ShiftEventType;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+import com.shiftmanagement.app_core.services.ShiftEventPublisher;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.client.model.changestream.UpdateDescription;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ShiftEventPublisherTest {
+
+    private ShiftEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new ShiftEventPublisher(mock(ReactiveMongoTemplate.class), false, 4);
+    }
+
+    @Test
+    void events_shouldFilterBySpecialtyAndStatus() {
+        Shift psychology = shift("PS-1", "Psicologia", ShiftStatus.ASSIGNED);
+        Shift dentistry = shift("OD-1", "Odontologia", ShiftStatus.ASSIGNED);
+        Shift called = shift("PS-2", "Psicologia", ShiftStatus.IN_PROGRESS);
+
+        StepVerifier.create(publisher.events("Psicologia", ShiftStatus.ASSIGNED).take(2))
+            .then(() -> {
+                publisher.onShiftCreated(dentistry);
+                publisher.onShiftCreated(psychology);
+                // leaving ASSIGNED is still relevant to an ASSIGNED view
+                publisher.onShiftStatusChanged(called, ShiftStatus.ASSIGNED);
+            })
+            .assertNext(event -> {
+                assertEquals(ShiftEventType.CREATED, event.type());
+                assertEquals("PS-1", event.shift().getTurnCode());
+            })
+            .assertNext(event -> {
+                assertEquals(ShiftEventType.STATUS_CHANGED, event.type());
+                assertEquals(ShiftStatus.ASSIGNED, event.previousStatus());
+            })
+            .verifyComplete();
+    }
+
+    @Test
+    void events_shouldDropOldestAndSendGapMarkerToSlowSubscriber() {
+        StepVerifier.create(publisher.events(null, null), 0)
+            .then(() -> {
+                for (int i = 1; i <= 10; i++) {
+                    publisher.onShiftCreated(shift("PS-" + i, "Psicologia", ShiftStatus.ASSIGNED));
+                }
+            })
+            .thenRequest(6)
+            // PS-1 was already taken off the buffer; PS-2..PS-6 were dropped to make room for the newest
+            .assertNext(event -> assertEquals("PS-1", event.shift().getTurnCode()))
+            .assertNext(event -> {
+                assertEquals(ShiftEventType.GAP, event.type());
+                assertEquals(5, event.missed());
+            })
+            .assertNext(event -> assertEquals("PS-7", event.shift().getTurnCode()))
+            .expectNextCount(3)
+            .thenCancel()
+            .verify();
+    }
+
+    @Test
+    void publish_shouldNotBlockOnStalledSubscriber() {
+        StepVerifier.create(publisher.events(null, null), 0)
+            .then(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    publisher.onShiftCreated(shift("PS-" + i, "Psicologia", ShiftStatus.ASSIGNED));
+                }
+            })
+            .thenCancel()
+            .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void changeStream_shouldTellWhichStatusAShiftLeft() {
+        Shift canceledAfterCall = shift("PS-1", "Psicologia", ShiftStatus.CANCELED);
+        canceledAfterCall.setCalledAt(LocalDateTime.of(2025, 5, 12, 9, 0));
+        Shift canceledWhileWaiting = shift("PS-2", "Psicologia", ShiftStatus.CANCELED);
+        Shift called = shift("PS-3", "Psicologia", ShiftStatus.IN_PROGRESS);
+        Flux<ChangeStreamEvent<Shift>> changes = Flux.just(updated(canceledAfterCall), updated(canceledWhileWaiting),
+            updated(called));
+        ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class, RETURNS_DEEP_STUBS);
+        when(mongoTemplate.changeStream(Shift.class).withOptions(any()).watchCollection(Shift.class).listen())
+            .thenReturn(changes);
+        ShiftEventPublisher changeStreamPublisher = new ShiftEventPublisher(mongoTemplate, true, 4);
+
+        StepVerifier.create(changeStreamPublisher.events("Psicologia", ShiftStatus.ASSIGNED).take(2))
+            .then(changeStreamPublisher::startChangeStream)
+            .assertNext(event -> {
+                assertEquals("PS-2", event.shift().getTurnCode());
+                assertEquals(ShiftStatus.ASSIGNED, event.previousStatus());
+            })
+            .assertNext(event -> {
+                assertEquals("PS-3", event.shift().getTurnCode());
+                assertEquals(ShiftStatus.ASSIGNED, event.previousStatus());
+            })
+            .verifyComplete();
+        changeStreamPublisher.stopChangeStream();
+    }
+
+    @Test
+    void publish_shouldNotFailWhenCalledFromManyThreads() throws InterruptedException {
+        int threads = 8;
+        int perThread = 1_000;
+        AtomicInteger received = new AtomicInteger();
+        Disposable subscription = publisher.events(null, null).subscribe(event -> received.incrementAndGet());
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    publisher.onShiftCreated(shift("PS-" + i, "Psicologia", ShiftStatus.ASSIGNED));
+                }
+                done.countDown();
+            }).start();
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        subscription.dispose();
+        assertEquals(threads * perThread, received.get());
+    }
+
+    @Test
+    void stream_shouldSendHeartbeatsWhileIdle() {
+        ShiftEventController controller = new ShiftEventController(publisher, Duration.ofSeconds(15));
+
+        StepVerifier.withVirtualTime(() -> controller.streamShiftEvents(null, null).take(2))
+            .thenAwait(Duration.ofSeconds(30))
+            .assertNext(sse -> assertEquals("heartbeat", sse.comment()))
+            .assertNext(sse -> assertEquals("heartbeat", sse.comment()))
+            .verifyComplete();
+    }
+
+    @Test
+    void stream_shouldSendTheBoardViewWithoutUserData() throws Exception {
+        ShiftEventController controller = new ShiftEventController(publisher, Duration.ofSeconds(15));
+        Shift shift = shift("PS-1", "Psicologia", ShiftStatus.ASSIGNED);
+        shift.setId("abc");
+        shift.setUsername("Ana");
+        shift.setUserRole("STUDENT");
+
+        AtomicReference<ShiftBoardEvent> sent = new AtomicReference<>();
+
+        StepVerifier.create(controller.streamShiftEvents(null, null).take(1))
+            .then(() -> publisher.onShiftCreated(shift))
+            .assertNext(sse -> {
+                assertEquals("CREATED", sse.event());
+                sent.set(sse.data());
+            })
+            .verifyComplete();
+
+        assertEquals("abc", sent.get().id());
+        assertEquals(new ShiftBoardView("PS-1", "Psicologia", ShiftStatus.ASSIGNED, false), sent.get().shift());
+        String json = new ObjectMapper().findAndRegisterModules().writeValueAsString(sent.get());
+        assertFalse(json.contains("userId") || json.contains("username") || json.contains("userRole") || json.contains("Ana"), json);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ChangeStreamEvent<Shift> updated(Shift shift) {
+        ChangeStreamEvent<Shift> event = mock(ChangeStreamEvent.class);
+        ChangeStreamDocument<Document> raw = mock(ChangeStreamDocument.class);
+        when(event.getOperationType()).thenReturn(OperationType.UPDATE);
+        when(event.getBody()).thenReturn(shift);
+        when(event.getRaw()).thenReturn(raw);
+        when(raw.getUpdateDescription())
+            .thenReturn(new UpdateDescription(null, new BsonDocument("status", new BsonString(shift.getStatus().name()))));
+        return event;
+    }
+
+    private Shift shift(String turnCode, String specialty, ShiftStatus status) {
+        Shift shift = new Shift("1", specialty, false);
+        shift.setTurnCode(turnCode);
+        shift.setStatus(status);
+        return shift;
+    }
+}
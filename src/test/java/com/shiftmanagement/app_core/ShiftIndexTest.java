@@ -0,0 +1,229 @@
+package com.shiftmanagement.app_core;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.shiftmanagement.app_core.Config.MongoIndexConfig;
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+import com.shiftmanagement.app_core.repository.ShiftRepository;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.reactivestreams.Publisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that every derived finder of {@link ShiftRepository} is backed by an index.
+ * The explain() variant needs a reachable MongoDB and only runs when MONGODB_TEST_URI is set.
+ */
+class ShiftIndexTest {
+
+    private static final Set<Part.Type> RANGE_TYPES = Set.of(
+        Part.Type.BETWEEN, Part.Type.GREATER_THAN, Part.Type.GREATER_THAN_EQUAL,
+        Part.Type.LESS_THAN, Part.Type.LESS_THAN_EQUAL, Part.Type.AFTER, Part.Type.BEFORE);
+
+    private final MongoMappingContext mappingContext = mappingContext();
+
+    @Test
+    void everyFinder_shouldHaveAnIndexWithMatchingPrefix() {
+        List<List<String>> indexes = new ArrayList<>();
+        for (IndexDefinition index : IndexResolver.create(mappingContext).resolveIndexFor(Shift.class)) {
+            indexes.add(new ArrayList<>(index.getIndexKeys().keySet()));
+        }
+
+        for (Method finder : finders()) {
+            PartTree tree = new PartTree(finder.getName(), Shift.class);
+            List<Part> parts = tree.getParts().toList();
+            Set<String> equality = parts.stream()
+                .filter(part -> !RANGE_TYPES.contains(part.getType()))
+                .map(part -> fieldName(part.getProperty().toDotPath()))
+                .collect(Collectors.toSet());
+            Set<String> range = parts.stream()
+                .filter(part -> RANGE_TYPES.contains(part.getType()))
+                .map(part -> fieldName(part.getProperty().toDotPath()))
+                .collect(Collectors.toSet());
+
+            boolean covered = equality.isEmpty() && range.equals(Set.of("_id")) || indexes.stream().anyMatch(keys ->
+                keys.size() >= equality.size() + range.size()
+                    && new HashSet<>(keys.subList(0, equality.size())).equals(equality)
+                    && new HashSet<>(keys.subList(equality.size(), equality.size() + range.size())).equals(range));
+
+            assertTrue(covered, finder.getName() + " has no index with keys " + equality + " followed by " + range);
+        }
+    }
+
+    @Test
+    void duplicateTurnCode_onTheSameDayAndSpecialty_shouldBeRejected() {
+        MongoServer server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        try (MongoClient client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort())) {
+            ReactiveMongoTemplate template = new ReactiveMongoTemplate(client, "ShiftIndexTest");
+            new MongoIndexConfig(template, mappingContext).ensureIndexes("Shifts").blockLast();
+
+            template.insert(shift("PS-1", LocalDate.of(2025, 5, 12))).block();
+            template.insert(shift("PS-1", LocalDate.of(2025, 5, 13))).block();
+
+            assertThrows(DuplicateKeyException.class,
+                () -> template.insert(shift("PS-1", LocalDate.of(2025, 5, 12))).block());
+        } finally {
+            server.shutdownNow();
+        }
+    }
+
+    @Test
+    void uniqueIndex_shouldOnlyCoverShiftsWithAServiceDay() {
+        // shifts stored before serviceDate existed repeat their turn codes every day
+        IndexDefinition unique = Flux.fromIterable(IndexResolver.create(mappingContext).resolveIndexFor(Shift.class))
+            .filter(index -> "specialty_serviceDate_turnCode".equals(index.getIndexOptions().get("name")))
+            .blockFirst();
+
+        assertEquals(Boolean.TRUE, unique.getIndexOptions().get("unique"));
+        assertEquals(new Document("serviceDate", new Document("$exists", true)),
+            unique.getIndexOptions().get("partialFilterExpression"));
+    }
+
+    @Test
+    void failedIndex_shouldNotKeepTheOthersFromBeingCreated() {
+        MongoServer server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        try (MongoClient client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort())) {
+            ReactiveMongoTemplate template = new ReactiveMongoTemplate(client, "ShiftIndexTest");
+            template.insert(shift("PS-1", LocalDate.of(2025, 5, 12))).block();
+            template.insert(shift("PS-1", LocalDate.of(2025, 5, 12))).block();
+
+            List<String> created = new MongoIndexConfig(template, mappingContext).ensureIndexes("Shifts").collectList().block();
+
+            Set<String> existing = template.indexOps("Shifts").getIndexInfo()
+                .map(info -> info.getName()).collect(Collectors.toSet()).block();
+            assertFalse(created.contains("specialty_serviceDate_turnCode"));
+            assertFalse(existing.contains("specialty_serviceDate_turnCode"));
+            assertTrue(existing.containsAll(List.of("turnCode_serviceDate", "status_serviceDate",
+                "specialPriority_serviceDate", "serviceDate_specialty_status_specialPriority", "userId", "userRole")),
+                existing.toString());
+        } finally {
+            server.shutdownNow();
+        }
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "MONGODB_TEST_URI", matches = ".+")
+    void everyFinder_shouldUseAnIndexScan() throws Exception {
+        Map<String, Document> commands = new ConcurrentHashMap<>();
+        CommandListener listener = new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                String name = event.getCommandName();
+                if (name.equals("find") || name.equals("count") || name.equals("aggregate")) {
+                    Document command = Document.parse(event.getCommand().toJson());
+                    command.keySet().removeIf(key -> key.startsWith("$") || key.equals("lsid"));
+                    commands.put(Thread.currentThread().getName() + System.nanoTime(), command);
+                }
+            }
+        };
+
+        MongoClientSettings settings = MongoClientSettings.builder()
+            .applyConnectionString(new ConnectionString(System.getenv("MONGODB_TEST_URI")))
+            .addCommandListener(listener)
+            .build();
+
+        try (MongoClient client = MongoClients.create(settings)) {
+            ReactiveMongoTemplate template = new ReactiveMongoTemplate(client, "ShiftIndexTest");
+            Flux.fromIterable(IndexResolver.create(mappingContext).resolveIndexFor(Shift.class))
+                .concatMap(index -> template.indexOps(Shift.class).ensureIndex(index))
+                .blockLast();
+            template.insert(new Shift("1", "Psicologia", false)).block();
+
+            ShiftRepository repository = new ReactiveMongoRepositoryFactory(template).getRepository(ShiftRepository.class);
+            for (Method finder : finders()) {
+                commands.clear();
+                Object result = finder.invoke(repository, sampleArguments(finder));
+                Flux.from((Publisher<?>) result).then().block();
+
+                for (Document command : commands.values()) {
+                    Document explain = Mono.from(client.getDatabase("ShiftIndexTest")
+                            .runCommand(new Document("explain", command)))
+                        .block();
+                    String plan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class).toJson();
+                    assertFalse(plan.contains("COLLSCAN"), finder.getName() + " runs a collection scan: " + plan);
+                }
+            }
+
+            template.getMongoDatabase().flatMap(db -> Mono.from(db.drop())).block();
+        }
+    }
+
+    private static Shift shift(String turnCode, LocalDate serviceDate) {
+        Shift shift = new Shift("1", "Psicologia", false);
+        shift.setTurnCode(turnCode);
+        shift.setServiceDate(serviceDate);
+        return shift;
+    }
+
+    private static MongoMappingContext mappingContext() {
+        MongoMappingContext context = new MongoMappingContext();
+        context.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        return context;
+    }
+
+    private static List<Method> finders() {
+        return Arrays.stream(ShiftRepository.class.getDeclaredMethods())
+            .filter(method -> method.getName().startsWith("find") || method.getName().startsWith("count"))
+            .filter(method -> !method.isDefault())
+            .toList();
+    }
+
+    private static String fieldName(String property) {
+        return property.equals("id") ? "_id" : property;
+    }
+
+    private static Object[] sampleArguments(Method finder) {
+        return Arrays.stream(finder.getParameterTypes()).map(type -> {
+            if (type == String.class) return "000000000000000000000000";
+            if (type == boolean.class || type == Boolean.class) return Boolean.TRUE;
+            if (type == LocalDateTime.class) return LocalDateTime.now();
+            if (type == LocalDate.class) return LocalDate.now();
+            if (type == ShiftStatus.class) return ShiftStatus.ASSIGNED;
+            if (type == Limit.class) return Limit.of(10);
+            if (type == Pageable.class) return Pageable.ofSize(10);
+            if (type == Class.class) return Shift.class;
+            if (type.isAssignableFrom(List.class)) return List.of("000000000000000000000000");
+            throw new IllegalArgumentException("No sample value for " + type);
+        }).toArray();
+    }
+}
@@ -0,0 +1,122 @@
+package com.shiftmanagement.app_core;
+
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.services.ShiftListCache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShiftListCacheTest {
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @Test
+    void concurrentReads_shouldShareOneQuery() {
+        ShiftListCache cache = new ShiftListCache(Duration.ofSeconds(1), 100, DataSize.ofMegabytes(1));
+
+        List<Integer> sizes = Flux.range(0, 20)
+            .flatMap(i -> cache.get("specialty:Psicologia", "v1", this::slowQuery).collectList())
+            .map(List::size)
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertEquals(20, sizes.size());
+        assertTrue(sizes.stream().allMatch(size -> size == 2));
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void newVersion_shouldMissAtOnceAndHitsShouldBeMeasured() {
+        ShiftListCache cache = new ShiftListCache(Duration.ofSeconds(10), 100, DataSize.ofMegabytes(1));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        read(cache, "v1");
+        read(cache, "v1");
+        read(cache, "v2");
+        read(cache, "v2");
+
+        assertEquals(2, queries.get());
+        assertEquals(0.5, registry.get(ShiftListCache.HIT_RATIO_GAUGE).gauge().value());
+        assertEquals(2.0, registry.get("cache.gets").tag("cache", ShiftListCache.CACHE_NAME).tag("result", "hit")
+            .functionCounter().count());
+    }
+
+    @Test
+    void entries_shouldExpireAfterTheTtl() {
+        ShiftListCache cache = new ShiftListCache(Duration.ofMillis(50), 100, DataSize.ofMegabytes(1));
+
+        read(cache, "v1");
+        StepVerifier.create(Flux.defer(() -> cache.get("specialty:Psicologia", "v1", this::slowQuery))
+                .delaySubscription(Duration.ofMillis(150)))
+            .expectNextCount(2)
+            .verifyComplete();
+
+        assertEquals(2, queries.get());
+    }
+
+    @Test
+    void failedQueries_shouldNotBeCached() {
+        ShiftListCache cache = new ShiftListCache(Duration.ofSeconds(10), 100, DataSize.ofMegabytes(1));
+
+        StepVerifier.create(cache.get("specialty:Psicologia", "v1", () -> Flux.<Shift>error(new IllegalStateException("down"))))
+            .expectError(IllegalStateException.class)
+            .verify();
+        read(cache, "v1");
+
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void entries_shouldBeBoundedByCountWithinTheByteBudget() throws InterruptedException {
+        ShiftListCache cache = new ShiftListCache(Duration.ofSeconds(10), 2, DataSize.ofMegabytes(1));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        for (int i = 0; i < 5; i++) {
+            read(cache, "v" + i);
+        }
+
+        // eviction runs in the background right after the writes
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (registry.get("cache.size").gauge().value() > 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(registry.get("cache.size").gauge().value() <= 2);
+    }
+
+    @Test
+    void disabled_shouldAlwaysQuery() {
+        ShiftListCache cache = new ShiftListCache(Duration.ZERO, 1000, DataSize.ofMegabytes(16));
+
+        read(cache, "v1");
+        read(cache, "v1");
+
+        assertEquals(2, queries.get());
+    }
+
+    private void read(ShiftListCache cache, String version) {
+        StepVerifier.create(cache.get("specialty:Psicologia", version, this::slowQuery))
+            .expectNextCount(2)
+            .verifyComplete();
+    }
+
+    private Flux<Shift> slowQuery() {
+        return Flux.defer(() -> {
+            queries.incrementAndGet();
+            return Flux.just(new Shift("1", "Psicologia", false), new Shift("2", "Psicologia", false))
+                .delayElements(Duration.ofMillis(20));
+        });
+    }
+}
@@ -0,0 +1,66 @@
+package com.shiftmanagement.app_core;
+
+import com.shiftmanagement.app_core.services.ShiftMetrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShiftMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private ShiftMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new ShiftMetrics(registry);
+    }
+
+    @Test
+    void timed_shouldRecordOnePerSubscriptionTaggedWithOutcome() {
+        Mono<String> ok = metrics.timed("getShiftById", Mono.just("A-1"));
+
+        StepVerifier.create(ok).expectNext("A-1").verifyComplete();
+        StepVerifier.create(ok).expectNext("A-1").verifyComplete();
+        StepVerifier.create(metrics.timed("getShiftById", Mono.error(new IllegalArgumentException("missing"))))
+            .verifyError(IllegalArgumentException.class);
+
+        assertEquals(2, timer("getShiftById", "success").count());
+        assertEquals(1, timer("getShiftById", "error").count());
+    }
+
+    @Test
+    void timed_shouldRecordCanceledStreams() {
+        StepVerifier.create(metrics.timed("streamShifts", Flux.range(0, 100)), 1)
+            .expectNext(0)
+            .thenCancel()
+            .verify();
+
+        assertEquals(1, timer("streamShifts", "canceled").count());
+    }
+
+    @Test
+    void timed_shouldPublishPercentiles() {
+        StepVerifier.create(metrics.timed("callNextShift", Mono.just(1))).expectNext(1).verifyComplete();
+
+        double[] percentiles = Arrays.stream(timer("callNextShift", "success").takeSnapshot().percentileValues())
+            .mapToDouble(value -> value.percentile())
+            .toArray();
+        assertArrayEquals(new double[] { 0.5, 0.95, 0.99 }, percentiles);
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return registry.get(ShiftMetrics.OPERATION_TIMER).tag("operation", operation).tag("outcome", outcome).timer();
+    }
+}
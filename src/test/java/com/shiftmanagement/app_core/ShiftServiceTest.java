@@ -1,7 +1,14 @@
 package com.shiftmanagement.app_core;
 
+import com.shiftmanagement.app_core.exceptions.ShiftTransitionConflictException;
 import com.shiftmanagement.app_core.model.*;
 import com.shiftmanagement.app_core.repository.ShiftRepository;
+import com.shiftmanagement.app_core.repository.ShiftRepositoryCustom.StatusUpdate;
+import com.shiftmanagement.app_core.repository.ShiftRepositoryCustom.TransitionOutcome;
+import com.shiftmanagement.app_core.repository.TurnSequenceRepository;
+import com.shiftmanagement.app_core.services.DispatchQueueService;
+import com.shiftmanagement.app_core.services.ServiceDayProvider;
+import com.shiftmanagement.app_core.services.ShiftMetrics;
 import com.shiftmanagement.app_core.services.ShiftService;
 import com.shiftmanagement.app_core.services.UserService;
 
@@ -10,11 +17,30 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
@@ -22,15 +48,26 @@ import static org.mockito.Mockito.when;
 
 class ShiftServiceTest {
 
+    private static final ZoneId BOGOTA = ZoneId.of("America/Bogota");
+    private static final String CURSOR = "6650f0c2a1b2c3d4e5f60718";
+
     private ShiftRepository shiftRepository;
     private UserService userService;
+    private TurnSequenceRepository turnSequenceRepository;
+    private MutableClock clock;
+    private DispatchQueueService dispatchQueueService;
     private ShiftService shiftService;
 
     @BeforeEach
     void setUp() {
         shiftRepository = Mockito.mock(ShiftRepository.class);
         userService = Mockito.mock(UserService.class);
-        shiftService = new ShiftService(shiftRepository, userService);
+        turnSequenceRepository = Mockito.mock(TurnSequenceRepository.class);
+        clock = new MutableClock(ZonedDateTime.of(2025, 5, 12, 9, 0, 0, 0, BOGOTA).toInstant(), BOGOTA);
+        ServiceDayProvider serviceDayProvider = new ServiceDayProvider(clock);
+        dispatchQueueService = new DispatchQueueService(shiftRepository, serviceDayProvider);
+        shiftService = new ShiftService(shiftRepository, userService, turnSequenceRepository, serviceDayProvider,
+            dispatchQueueService, List.of(dispatchQueueService), new ShiftMetrics(new SimpleMeterRegistry()));
     }
 
     @Test
@@ -39,7 +76,7 @@ class ShiftServiceTest {
         Shift mockShift = new Shift("123", "Psicologia", false);
         mockShift.setTurnCode(turnCode);
 
-        when(shiftRepository.findByTurnCodeAndCreatedAtBetween(eq(turnCode), any(), any()))
+        when(shiftRepository.findByTurnCodeAndServiceDate(eq(turnCode), any()))
             .thenReturn(Mono.just(mockShift));
         when(shiftRepository.delete(mockShift)).thenReturn(Mono.empty());
 
@@ -93,7 +130,7 @@ class ShiftServiceTest {
         Shift s1 = new Shift("1", "Medicina General", false);
         s1.setStatus(ShiftStatus.ASSIGNED);
 
-        when(shiftRepository.findByStatusAndCreatedAtBetween(eq(ShiftStatus.ASSIGNED), any(), any()))
+        when(shiftRepository.findByStatusAndServiceDate(eq(ShiftStatus.ASSIGNED), any()))
             .thenReturn(Flux.just(s1));
 
         StepVerifier.create(shiftService.getShiftsByStatus(ShiftStatus.ASSIGNED))
@@ -107,7 +144,7 @@ class ShiftServiceTest {
         Shift s = new Shift("123", "Medicina General", false);
         s.setTurnCode(code);
 
-        when(shiftRepository.findByTurnCodeAndCreatedAtBetween(eq(code), any(), any()))
+        when(shiftRepository.findByTurnCodeAndServiceDate(eq(code), any()))
             .thenReturn(Mono.just(s));
 
         StepVerifier.create(shiftService.getShiftByTurnCode(code))
@@ -121,7 +158,7 @@ class ShiftServiceTest {
         boolean priority = true;
         Shift s = new Shift("123", "Psicologia", priority);
 
-        when(shiftRepository.findBySpecialPriorityAndCreatedAtBetween(eq(priority), any(), any()))
+        when(shiftRepository.findBySpecialPriorityAndServiceDate(eq(priority), any()))
             .thenReturn(Flux.just(s));
 
         StepVerifier.create(shiftService.getShiftsBySpecialPriority(priority))
@@ -135,7 +172,7 @@ class ShiftServiceTest {
         User mockUser = new User("John Doe", "123", "DOCTOR", null);
 
         when(userService.getUserbyId(anyString())).thenReturn(Mono.just(mockUser));
-        when(shiftRepository.countBySpecialtyAndCreatedAtBetween(anyString(), any(), any())).thenReturn(Mono.just(0L));
+        when(turnSequenceRepository.next("Psicologia", LocalDate.of(2025, 5, 12))).thenReturn(Mono.just(1L));
         when(shiftRepository.insert(any(Shift.class))).thenReturn(Mono.just(shift));
 
         // Act
@@ -154,9 +191,61 @@ class ShiftServiceTest {
         assertEquals("John Doe", inserted.getUsername());
         assertEquals("DOCTOR", inserted.getUserRole());
         assertEquals("Psicologia", inserted.getSpecialty());
-        assertTrue(inserted.getTurnCode().startsWith("PS-"));
+        assertEquals("PS-1", inserted.getTurnCode());
         assertEquals(ShiftStatus.ASSIGNED, inserted.getStatus());
         assertNotNull(inserted.getCreatedAt());
+        assertEquals(LocalDate.of(2025, 5, 12), inserted.getServiceDate());
+    }
+
+    @Test
+    void generateShift_withAKnownCaller_shouldNotCallTheUserService() {
+        User caller = new User("Ana", "1000123", "STUDENT", null);
+        when(turnSequenceRepository.next("Psicologia", LocalDate.of(2025, 5, 12))).thenReturn(Mono.just(4L));
+        when(shiftRepository.insert(any(Shift.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(shiftService.generateShift(new Shift("999", "Psicologia", false), caller))
+            .expectNextMatches(shift -> shift.getUserId().equals("1000123")
+                && shift.getUsername().equals("Ana")
+                && shift.getUserRole().equals("STUDENT")
+                && shift.getTurnCode().equals("PS-4"))
+            .verifyComplete();
+        Mockito.verifyNoInteractions(userService);
+    }
+
+    @Test
+    void todayQueries_shouldFollowTheClockAcrossMidnight() {
+        LocalDate monday = LocalDate.of(2025, 5, 12);
+        LocalDate tuesday = monday.plusDays(1);
+        Shift mondayShift = new Shift("1", "Psicologia", false);
+        Shift tuesdayShift = new Shift("2", "Psicologia", false);
+
+        when(shiftRepository.findBySpecialtyAndServiceDate("Psicologia", monday)).thenReturn(Flux.just(mondayShift));
+        when(shiftRepository.findBySpecialtyAndServiceDate("Psicologia", tuesday)).thenReturn(Flux.just(tuesdayShift));
+
+        StepVerifier.create(shiftService.getShiftsBySpecialty("Psicologia"))
+            .expectNext(mondayShift)
+            .verifyComplete();
+
+        clock.advance(Duration.ofHours(16));
+
+        StepVerifier.create(shiftService.getShiftsBySpecialty("Psicologia"))
+            .expectNext(tuesdayShift)
+            .verifyComplete();
+    }
+
+    @Test
+    void generateShift_shouldRestartTheSequenceOnANewServiceDay() {
+        User mockUser = new User("John Doe", "123", "DOCTOR", null);
+        when(userService.getUserbyId(anyString())).thenReturn(Mono.just(mockUser));
+        when(turnSequenceRepository.next(eq("Psicologia"), any())).thenReturn(Mono.just(1L));
+        when(shiftRepository.insert(any(Shift.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        clock.advance(Duration.ofHours(16));
+
+        StepVerifier.create(shiftService.generateShift(new Shift("123", "Psicologia", false)))
+            .expectNextMatches(shift -> shift.getServiceDate().equals(LocalDate.of(2025, 5, 13)))
+            .verifyComplete();
+        Mockito.verify(turnSequenceRepository).next("Psicologia", LocalDate.of(2025, 5, 13));
     }
 
     @Test
@@ -164,7 +253,7 @@ class ShiftServiceTest {
         String specialty = "Psicologia";
         Shift s = new Shift("123", specialty, false);
 
-        when(shiftRepository.findBySpecialtyAndCreatedAtBetween(eq(specialty), any(), any()))
+        when(shiftRepository.findBySpecialtyAndServiceDate(eq(specialty), any()))
             .thenReturn(Flux.just(s));
 
         StepVerifier.create(shiftService.getShiftsBySpecialty(specialty))
@@ -173,18 +262,69 @@ class ShiftServiceTest {
     }
 
     @Test
-    void getShifts_shouldReturnAllShifts() {
+    void getShifts_shouldReturnFirstPage() {
         Shift shift1 = new Shift(); shift1.setTurnCode("PS-1");
         Shift shift2 = new Shift(); shift2.setTurnCode("MG-2");
 
-        Mockito.when(shiftRepository.findAll()).thenReturn(Flux.just(shift1, shift2));
+        Mockito.when(shiftRepository.findAllByOrderByIdAsc(Limit.of(2))).thenReturn(Flux.just(shift1, shift2));
 
-        StepVerifier.create(shiftService.getShifts())
+        StepVerifier.create(shiftService.getShifts(null, 2))
             .expectNext(shift1)
             .expectNext(shift2)
             .verifyComplete();
     }
 
+    @Test
+    void getShifts_shouldContinueAfterCursor() {
+        Shift shift = new Shift(); shift.setTurnCode("PS-3");
+
+        Mockito.when(shiftRepository.findByIdGreaterThanOrderByIdAsc(CURSOR, Limit.of(50))).thenReturn(Flux.just(shift));
+
+        StepVerifier.create(shiftService.getShifts(CURSOR, 50))
+            .expectNext(shift)
+            .verifyComplete();
+    }
+
+    @Test
+    void getShifts_shouldReturnEmptyPageWithoutError() {
+        Mockito.when(shiftRepository.findByIdGreaterThanOrderByIdAsc(CURSOR, Limit.of(100))).thenReturn(Flux.empty());
+
+        StepVerifier.create(shiftService.getShifts(CURSOR, 100))
+            .verifyComplete();
+    }
+
+    @Test
+    void getShifts_shouldRejectACursorThatIsNotAShiftId() {
+        StepVerifier.create(shiftService.getShifts("last", 100))
+            .expectError(IllegalArgumentException.class)
+            .verify();
+        StepVerifier.create(shiftService.streamShifts("last"))
+            .expectError(IllegalArgumentException.class)
+            .verify();
+
+        Mockito.verifyNoInteractions(shiftRepository);
+    }
+
+    @Test
+    void getShifts_shouldRejectLimitOutOfRange() {
+        StepVerifier.create(shiftService.getShifts(null, ShiftService.MAX_PAGE_SIZE + 1))
+            .expectError(IllegalArgumentException.class)
+            .verify();
+    }
+
+    @Test
+    void streamShifts_shouldRequestInBoundedBatches() {
+        List<Long> requests = new java.util.concurrent.CopyOnWriteArrayList<>();
+        Mockito.when(shiftRepository.findAll(Sort.by("id")))
+            .thenReturn(Flux.range(0, 1000).map(i -> new Shift()).doOnRequest(requests::add));
+
+        StepVerifier.create(shiftService.streamShifts(null))
+            .expectNextCount(1000)
+            .verifyComplete();
+
+        assertTrue(requests.stream().allMatch(n -> n <= 256), "unbounded request: " + requests);
+    }
+
     @Test
     void deleteShift_shouldDeleteIfExists() {
         Shift shift = new Shift(); shift.setId("shift123");
@@ -209,24 +349,373 @@ class ShiftServiceTest {
 
     @Test
     void changeShiftStatus_shouldUpdateStatusIfValid() {
-        Shift shift = new Shift();
-        shift.setStatus(ShiftStatus.ASSIGNED);
-
-        Mockito.when(shiftRepository.save(any(Shift.class)))
-            .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        Shift stored = queued("a", "PS-1", false, 0);
+        storeForTransitions(stored);
 
-        StepVerifier.create(shiftService.changeShiftStatus(shift, ShiftStatus.IN_PROGRESS))
-            .expectNextMatches(updated -> updated.getStatus() == ShiftStatus.IN_PROGRESS)
+        StepVerifier.create(shiftService.changeShiftStatus("PS-1", ShiftStatus.IN_PROGRESS))
+            .expectNextMatches(updated -> updated.getStatus() == ShiftStatus.IN_PROGRESS
+                && updated.getStatusChangedAt().equals(LocalDateTime.of(2025, 5, 12, 9, 0))
+                && updated.getCalledAt().equals(LocalDateTime.of(2025, 5, 12, 9, 0)))
             .verifyComplete();
+        assertEquals(ShiftStatus.IN_PROGRESS, stored.getStatus());
     }
 
     @Test
     void changeShiftStatus_shouldErrorIfTransitionInvalid() {
-        Shift shift = new Shift();
-        shift.setStatus(ShiftStatus.ATTENDED);
+        Shift stored = queued("a", "PS-1", false, 0);
+        stored.setStatus(ShiftStatus.ATTENDED);
+        storeForTransitions(stored);
 
-        StepVerifier.create(shiftService.changeShiftStatus(shift, ShiftStatus.IN_PROGRESS))
-            .expectErrorMatches(e -> e instanceof IllegalStateException)
+        StepVerifier.create(shiftService.changeShiftStatus("PS-1", ShiftStatus.IN_PROGRESS))
+            .expectErrorMatches(e -> e instanceof ShiftTransitionConflictException conflict
+                && conflict.getCurrentStatus() == ShiftStatus.ATTENDED)
             .verify();
+        assertEquals(ShiftStatus.ATTENDED, stored.getStatus());
+    }
+
+    @Test
+    void changeShiftStatus_shouldErrorIfShiftDoesNotExist() {
+        when(shiftRepository.transitionStatus(eq("PS-9"), any(), any(), any())).thenReturn(Mono.empty());
+        when(shiftRepository.findByTurnCodeAndServiceDate(eq("PS-9"), any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(shiftService.changeShiftStatus("PS-9", ShiftStatus.IN_PROGRESS))
+            .expectErrorMatches(e -> e instanceof IllegalArgumentException
+                && e.getMessage().equals("No shift found with code: PS-9"))
+            .verify();
+    }
+
+    @Test
+    void changeShiftStatus_shouldLetExactlyOneConcurrentTransitionWin() {
+        Shift stored = queued("a", "PS-1", false, 0);
+        storeForTransitions(stored);
+        int contenders = 64;
+
+        List<Boolean> outcomes = Flux.range(0, contenders)
+            .parallel(contenders)
+            .runOn(Schedulers.boundedElastic())
+            .flatMap(i -> shiftService.changeShiftStatus("PS-1", ShiftStatus.IN_PROGRESS)
+                .map(updated -> true)
+                .onErrorResume(ShiftTransitionConflictException.class, e -> Mono.just(false)))
+            .sequential()
+            .collectList()
+            .block(Duration.ofSeconds(10));
+
+        assertNotNull(outcomes);
+        assertEquals(contenders, outcomes.size());
+        assertEquals(1, outcomes.stream().filter(won -> won).count());
+        assertEquals(ShiftStatus.IN_PROGRESS, stored.getStatus());
+    }
+
+    @Test
+    void changeShiftStatuses_shouldApplyValidTransitionsInOneBulkAndReportEachItem() {
+        Shift waiting = queued("a", "PS-1", false, 0);
+        Shift attended = queued("b", "PS-2", false, 1);
+        attended.setStatus(ShiftStatus.ATTENDED);
+        dispatchQueueService.offer(waiting);
+        when(shiftRepository.findByTurnCodeInAndServiceDate(anyCollection(), eq(LocalDate.of(2025, 5, 12))))
+            .thenReturn(Flux.just(copyOf(waiting), copyOf(attended)));
+        when(shiftRepository.bulkTransition(anyList(), any())).thenReturn(Mono.just(new TransitionOutcome(Set.of("a"), Map.of())));
+
+        List<StatusTransition> batch = Arrays.asList(
+            new StatusTransition("PS-1", ShiftStatus.CANCELED),
+            new StatusTransition("PS-2", ShiftStatus.IN_PROGRESS),
+            new StatusTransition("PS-9", ShiftStatus.CANCELED),
+            new StatusTransition("PS-1", ShiftStatus.IN_PROGRESS),
+            new StatusTransition(null, ShiftStatus.CANCELED));
+
+        StepVerifier.create(shiftService.changeShiftStatuses(batch))
+            .assertNext(results -> {
+                assertEquals(5, results.size());
+                assertEquals(TransitionResult.applied(0, "PS-1", ShiftStatus.ASSIGNED), results.get(0));
+                assertFalse(results.get(1).applied());
+                assertEquals(ShiftStatus.ATTENDED, results.get(1).previousStatus());
+                assertEquals("No shift found with code: PS-9", results.get(2).error());
+                assertEquals("Duplicate turn code in batch: PS-1", results.get(3).error());
+                assertEquals("turnCode and status are required", results.get(4).error());
+            })
+            .verifyComplete();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StatusUpdate>> updates = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(shiftRepository).bulkTransition(updates.capture(), eq(LocalDateTime.of(2025, 5, 12, 9, 0)));
+        assertEquals(List.of(new StatusUpdate("a", ShiftStatus.ASSIGNED, ShiftStatus.CANCELED)), updates.getValue());
+        Mockito.verify(shiftRepository, Mockito.never()).findAllById(any(Iterable.class));
+        assertEquals(0, dispatchQueueService.size("Psicologia"));
+    }
+
+    @Test
+    void changeShiftStatuses_shouldReportUpdatesThatLostARace() {
+        Shift first = queued("a", "PS-1", false, 0);
+        Shift second = queued("b", "PS-2", false, 1);
+        when(shiftRepository.findByTurnCodeInAndServiceDate(anyCollection(), any()))
+            .thenReturn(Flux.just(copyOf(first), copyOf(second)));
+        when(shiftRepository.bulkTransition(anyList(), any())).thenReturn(Mono.just(new TransitionOutcome(Set.of("a"), Map.of())));
+
+        StepVerifier.create(shiftService.changeShiftStatuses(List.of(
+                new StatusTransition("PS-1", ShiftStatus.CANCELED),
+                new StatusTransition("PS-2", ShiftStatus.CANCELED))))
+            .assertNext(results -> {
+                assertTrue(results.get(0).applied());
+                assertFalse(results.get(1).applied());
+                assertEquals("The status of shift PS-2 changed concurrently", results.get(1).error());
+            })
+            .verifyComplete();
+    }
+
+    @Test
+    void changeShiftStatuses_whenTheBulkFailsPartway_shouldStillNotifyListenersOfTheAppliedItems() {
+        Shift first = queued("a", "PS-1", false, 0);
+        Shift second = queued("b", "PS-2", false, 1);
+        dispatchQueueService.offer(first);
+        dispatchQueueService.offer(second);
+        when(shiftRepository.findByTurnCodeInAndServiceDate(anyCollection(), any()))
+            .thenReturn(Flux.just(copyOf(first), copyOf(second)));
+        when(shiftRepository.bulkTransition(anyList(), any()))
+            .thenReturn(Mono.just(new TransitionOutcome(Set.of("a"), Map.of("b", "WriteConflict"))));
+
+        StepVerifier.create(shiftService.changeShiftStatuses(List.of(
+                new StatusTransition("PS-1", ShiftStatus.CANCELED),
+                new StatusTransition("PS-2", ShiftStatus.CANCELED))))
+            .assertNext(results -> {
+                assertEquals(TransitionResult.applied(0, "PS-1", ShiftStatus.ASSIGNED), results.get(0));
+                assertEquals("WriteConflict", results.get(1).error());
+            })
+            .verifyComplete();
+
+        assertEquals(1, dispatchQueueService.size("Psicologia"));
+        assertEquals("PS-2", dispatchQueueService.peek("Psicologia").map(Shift::getTurnCode).orElse(null));
+    }
+
+    @Test
+    void changeShiftStatuses_shouldRejectOversizedBatches() {
+        List<StatusTransition> batch = Collections.nCopies(ShiftService.MAX_BATCH_SIZE + 1,
+            new StatusTransition("PS-1", ShiftStatus.CANCELED));
+
+        StepVerifier.create(shiftService.changeShiftStatuses(batch))
+            .expectError(IllegalArgumentException.class)
+            .verify();
+    }
+
+    @Test
+    void getBoardBySpecialty_shouldQueryTheBoardProjectionOfToday() {
+        ShiftBoardView view = new ShiftBoardView("PS-1", "Psicologia", ShiftStatus.ASSIGNED, false);
+        when(shiftRepository.findBySpecialtyAndServiceDate("Psicologia", LocalDate.of(2025, 5, 12), ShiftBoardView.class))
+            .thenReturn(Flux.just(view));
+
+        StepVerifier.create(shiftService.getBoardBySpecialty("Psicologia"))
+            .expectNext(view)
+            .verifyComplete();
+    }
+
+    @Test
+    void generateShift_shouldEnqueueTheNewShift() {
+        User mockUser = new User("John Doe", "123", "DOCTOR", null);
+        when(userService.getUserbyId(anyString())).thenReturn(Mono.just(mockUser));
+        when(turnSequenceRepository.next(eq("Psicologia"), any())).thenReturn(Mono.just(1L));
+        when(shiftRepository.insert(any(Shift.class))).thenAnswer(invocation -> {
+            Shift inserted = invocation.getArgument(0);
+            inserted.setId("id-1");
+            return Mono.just(inserted);
+        });
+
+        StepVerifier.create(shiftService.generateShift(new Shift("123", "Psicologia", false)))
+            .expectNextCount(1)
+            .verifyComplete();
+
+        assertEquals(1, dispatchQueueService.size("Psicologia"));
+    }
+
+    @Test
+    void callNextShift_shouldPopPriorityFirstAndMoveToInProgress() {
+        Shift regular = queued("a", "PS-1", false, 0);
+        Shift priority = queued("b", "PS-2", true, 1);
+        dispatchQueueService.offer(regular);
+        dispatchQueueService.offer(priority);
+        storeForTransitions(regular, priority);
+
+        StepVerifier.create(shiftService.callNextShift("Psicologia"))
+            .expectNextMatches(called -> called.getTurnCode().equals("PS-2") && called.getStatus() == ShiftStatus.IN_PROGRESS)
+            .verifyComplete();
+        StepVerifier.create(shiftService.callNextShift("Psicologia"))
+            .expectNextMatches(called -> called.getTurnCode().equals("PS-1"))
+            .verifyComplete();
+        StepVerifier.create(shiftService.callNextShift("Psicologia"))
+            .expectError(NoSuchElementException.class)
+            .verify();
+    }
+
+    @Test
+    void callNextShift_shouldSkipShiftsThatWereCanceledMeanwhile() {
+        Shift canceled = queued("a", "PS-1", true, 0);
+        Shift waiting = queued("b", "PS-2", false, 1);
+        dispatchQueueService.offer(canceled);
+        dispatchQueueService.offer(waiting);
+        Shift storedCanceled = copyOf(canceled);
+        storedCanceled.setStatus(ShiftStatus.CANCELED);
+        storeForTransitions(storedCanceled, waiting);
+
+        StepVerifier.create(shiftService.callNextShift("Psicologia"))
+            .expectNextMatches(called -> called.getTurnCode().equals("PS-2"))
+            .verifyComplete();
+    }
+
+    @Test
+    void callNextShift_shouldRequeueWhenTheWriteFails() {
+        dispatchQueueService.offer(queued("a", "PS-1", false, 0));
+        when(shiftRepository.transitionStatusById(eq("a"), any(), any())).thenReturn(Mono.error(new RuntimeException("db down")));
+
+        StepVerifier.create(shiftService.callNextShift("Psicologia"))
+            .expectErrorMessage("db down")
+            .verify();
+
+        assertEquals(1, dispatchQueueService.size("Psicologia"));
+    }
+
+    @Test
+    void changeShiftStatus_shouldRemoveCanceledShiftFromQueue() {
+        Shift shift = queued("a", "PS-1", false, 0);
+        dispatchQueueService.offer(shift);
+        storeForTransitions(shift);
+
+        StepVerifier.create(shiftService.changeShiftStatus(shift, ShiftStatus.CANCELED))
+            .expectNextCount(1)
+            .verifyComplete();
+
+        assertEquals(0, dispatchQueueService.size("Psicologia"));
+    }
+
+    @Test
+    void generateShifts_shouldLookUpEachUserOnceAndReserveOneBlockPerSpecialty() {
+        when(userService.getUserbyId("1")).thenReturn(Mono.just(new User("Ana", "1", "STUDENT", null)));
+        when(userService.getUserbyId("2")).thenReturn(Mono.just(new User("Luis", "2", "STUDENT", null)));
+        when(turnSequenceRepository.nextBlock("Psicologia", LocalDate.of(2025, 5, 12), 3)).thenReturn(Mono.just(7L));
+        when(turnSequenceRepository.nextBlock("Medicina General", LocalDate.of(2025, 5, 12), 1)).thenReturn(Mono.just(1L));
+        when(shiftRepository.bulkInsert(any())).thenReturn(Mono.just(Map.of()));
+
+        Flux<Shift> requests = Flux.just(
+            new Shift("1", "Psicologia", false),
+            new Shift("2", "Psicologia", true),
+            new Shift("1", "Medicina General", false),
+            new Shift("2", "Psicologia", false));
+
+        StepVerifier.create(shiftService.generateShifts(requests))
+            .assertNext(results -> {
+                assertEquals(4, results.size());
+                assertTrue(results.stream().allMatch(BatchItemResult::created));
+                assertEquals(List.of("PS-5", "PS-6", "MG-1", "PS-7"),
+                    results.stream().map(result -> result.shift().getTurnCode()).toList());
+                assertEquals("Luis", results.get(1).shift().getUsername());
+                assertNotNull(results.get(0).shift().getId());
+            })
+            .verifyComplete();
+
+        Mockito.verify(userService, Mockito.times(1)).getUserbyId("1");
+        Mockito.verify(userService, Mockito.times(1)).getUserbyId("2");
+        Mockito.verify(shiftRepository, Mockito.times(1)).bulkInsert(any());
+        assertEquals(3, dispatchQueueService.size("Psicologia"));
+    }
+
+    @Test
+    void generateShifts_shouldReportPartialFailuresPerItem() {
+        when(userService.getUserbyId("1")).thenReturn(Mono.just(new User("Ana", "1", "STUDENT", null)));
+        when(userService.getUserbyId("404")).thenReturn(Mono.error(new RuntimeException("not found")));
+        when(userService.getUserbyId("2")).thenReturn(Mono.just(new User("Luis", "2", "STUDENT", null)));
+        when(turnSequenceRepository.nextBlock(eq("Psicologia"), any(), Mockito.anyInt())).thenReturn(Mono.just(2L));
+        // the second document of the bulk insert fails
+        when(shiftRepository.bulkInsert(any())).thenReturn(Mono.just(Map.of(1, "duplicate key")));
+
+        Flux<Shift> requests = Flux.just(
+            new Shift("1", "Psicologia", false),
+            new Shift("404", "Psicologia", false),
+            new Shift(null, "Psicologia", false),
+            new Shift("2", "Psicologia", false));
+
+        StepVerifier.create(shiftService.generateShifts(requests))
+            .assertNext(results -> {
+                assertTrue(results.get(0).created());
+                assertFalse(results.get(1).created());
+                assertTrue(results.get(1).error().contains("not found"));
+                assertFalse(results.get(2).created());
+                assertFalse(results.get(3).created());
+                assertEquals("duplicate key", results.get(3).error());
+            })
+            .verifyComplete();
+    }
+
+    @Test
+    void generateShifts_shouldRejectOversizedBatch() {
+        Flux<Shift> requests = Flux.range(0, ShiftService.MAX_BATCH_SIZE + 1).map(i -> new Shift("1", "Psicologia", false));
+
+        StepVerifier.create(shiftService.generateShifts(requests))
+            .expectError(IllegalArgumentException.class)
+            .verify();
+    }
+
+    @Test
+    void generateShifts_shouldStopReadingAnOversizedBodyAtTheFirstItemOverTheLimit() {
+        AtomicInteger read = new AtomicInteger();
+        Flux<Shift> endless = Flux.generate(sink -> sink.next(new Shift("1", "Psicologia", false)))
+            .cast(Shift.class)
+            .doOnNext(shift -> read.incrementAndGet());
+
+        StepVerifier.create(shiftService.generateShifts(endless))
+            .expectError(IllegalArgumentException.class)
+            .verify(Duration.ofSeconds(5));
+
+        assertEquals(ShiftService.MAX_BATCH_SIZE + 1, read.get());
+    }
+
+    private Shift queued(String id, String turnCode, boolean priority, int minute) {
+        Shift shift = new Shift("1", "Psicologia", priority);
+        shift.setId(id);
+        shift.setTurnCode(turnCode);
+        shift.setStatus(ShiftStatus.ASSIGNED);
+        shift.setServiceDate(LocalDate.of(2025, 5, 12));
+        shift.setCreatedAt(LocalDate.of(2025, 5, 12).atTime(8, minute));
+        return shift;
+    }
+
+    /**
+     * Backs the conditional transition queries with the given in-memory documents.
+     * Like findAndModify, each update checks and sets the status atomically and returns the previous document.
+     */
+    private void storeForTransitions(Shift... shifts) {
+        for (Shift stored : shifts) {
+            when(shiftRepository.transitionStatus(eq(stored.getTurnCode()), eq(stored.getServiceDate()), any(), any()))
+                .thenAnswer(invocation -> Mono.fromCallable(() -> compareAndSet(stored, invocation.getArgument(2), invocation.getArgument(3))));
+            when(shiftRepository.transitionStatusById(eq(stored.getId()), any(), any()))
+                .thenAnswer(invocation -> Mono.fromCallable(() -> compareAndSet(stored, invocation.getArgument(1), invocation.getArgument(2))));
+            when(shiftRepository.findByTurnCodeAndServiceDate(stored.getTurnCode(), stored.getServiceDate()))
+                .thenAnswer(invocation -> Mono.fromCallable(() -> copyOf(stored)));
+            when(shiftRepository.findById(stored.getId()))
+                .thenAnswer(invocation -> Mono.fromCallable(() -> copyOf(stored)));
+        }
+    }
+
+    private static Shift compareAndSet(Shift stored, ShiftStatus newStatus, LocalDateTime changedAt) {
+        synchronized (stored) {
+            if (!newStatus.predecessors().contains(stored.getStatus())) {
+                return null;
+            }
+            Shift previous = copyOf(stored);
+            stored.recordTransition(newStatus, changedAt);
+            return previous;
+        }
+    }
+
+    private static Shift copyOf(Shift shift) {
+        synchronized (shift) {
+            Shift copy = new Shift(shift.getUserId(), shift.getSpecialty(), shift.isSpecialPriority());
+            copy.setId(shift.getId());
+            copy.setTurnCode(shift.getTurnCode());
+            copy.setStatus(shift.getStatus());
+            copy.setServiceDate(shift.getServiceDate());
+            copy.setCreatedAt(shift.getCreatedAt());
+            copy.setStatusChangedAt(shift.getStatusChangedAt());
+            copy.setCalledAt(shift.getCalledAt());
+            copy.setAttendedAt(shift.getAttendedAt());
+            copy.setCanceledAt(shift.getCanceledAt());
+            return copy;
+        }
     }
 }
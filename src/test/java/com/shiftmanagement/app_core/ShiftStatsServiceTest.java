@@ -0,0 +1,162 @@
+package com.shiftmanagement.app_core;
+
+import com.shiftmanagement.app_core.model.DailyStats;
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+import com.shiftmanagement.app_core.model.SpecialtyStats;
+import com.shiftmanagement.app_core.repository.ShiftRepository;
+import com.shiftmanagement.app_core.repository.ShiftRepositoryCustom.StatusCount;
+import com.shiftmanagement.app_core.services.ServiceDayProvider;
+import com.shiftmanagement.app_core.services.ShiftStatsService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+class ShiftStatsServiceTest {
+
+    private static final ZoneId BOGOTA = ZoneId.of("America/Bogota");
+    private static final LocalDate TODAY = LocalDate.of(2025, 5, 12);
+
+    private ShiftRepository shiftRepository;
+    private MutableClock clock;
+    private ShiftStatsService statsService;
+
+    @BeforeEach
+    void setUp() {
+        shiftRepository = Mockito.mock(ShiftRepository.class);
+        clock = new MutableClock(ZonedDateTime.of(2025, 5, 12, 9, 0, 0, 0, BOGOTA).toInstant(), BOGOTA);
+        statsService = new ShiftStatsService(shiftRepository, new ServiceDayProvider(clock));
+    }
+
+    @Test
+    void counters_shouldFollowCreatesTransitionsAndDeletes() {
+        Shift first = shift("a", "Psicologia", true);
+        Shift second = shift("b", "Psicologia", false);
+        Shift third = shift("c", "Odontologia", false);
+        statsService.onShiftCreated(first);
+        statsService.onShiftCreated(second);
+        statsService.onShiftCreated(third);
+
+        first.setStatus(ShiftStatus.IN_PROGRESS);
+        statsService.onShiftStatusChanged(first, ShiftStatus.ASSIGNED);
+        first.setStatus(ShiftStatus.ATTENDED);
+        statsService.onShiftStatusChanged(first, ShiftStatus.IN_PROGRESS);
+        statsService.onShiftDeleted(third);
+
+        DailyStats stats = statsService.today();
+        assertEquals(TODAY, stats.serviceDate());
+        assertEquals(1, stats.specialties().size());
+        SpecialtyStats psicologia = stats.specialties().get(0);
+        assertEquals("Psicologia", psicologia.specialty());
+        assertEquals(1L, psicologia.byStatus().get(ShiftStatus.ASSIGNED));
+        assertEquals(0L, psicologia.byStatus().get(ShiftStatus.IN_PROGRESS));
+        assertEquals(1L, psicologia.byStatus().get(ShiftStatus.ATTENDED));
+        assertEquals(1, psicologia.specialPriority());
+        assertEquals(2, psicologia.total());
+    }
+
+    @Test
+    void rebuild_shouldLoadTodayFromOneAggregation() {
+        when(shiftRepository.countByStatus(TODAY)).thenReturn(Flux.just(
+            new StatusCount("Psicologia", ShiftStatus.ASSIGNED, false, 4),
+            new StatusCount("Psicologia", ShiftStatus.ASSIGNED, true, 2),
+            new StatusCount("Psicologia", ShiftStatus.CANCELED, false, 1)));
+
+        statsService.rebuild();
+
+        SpecialtyStats psicologia = statsService.today().specialties().get(0);
+        assertEquals(6L, psicologia.byStatus().get(ShiftStatus.ASSIGNED));
+        assertEquals(1L, psicologia.byStatus().get(ShiftStatus.CANCELED));
+        assertEquals(2, psicologia.specialPriority());
+        assertEquals(7, psicologia.total());
+    }
+
+    @Test
+    void verify_shouldReportADriftWithoutChangingTheCounters() {
+        statsService.onShiftCreated(shift("a", "Psicologia", false));
+        when(shiftRepository.countByStatus(TODAY))
+            .thenReturn(Flux.just(new StatusCount("Psicologia", ShiftStatus.ASSIGNED, false, 1)))
+            .thenReturn(Flux.just(new StatusCount("Psicologia", ShiftStatus.ASSIGNED, false, 3)));
+
+        StepVerifier.create(statsService.verify()).expectNext(true).verifyComplete();
+        StepVerifier.create(statsService.verify()).expectNext(false).verifyComplete();
+
+        assertEquals(1, statsService.today().specialties().get(0).total());
+        StepVerifier.create(statsService.verify()).expectNext(false).verifyComplete();
+    }
+
+    @Test
+    void rebuild_shouldKeepChangesMadeWhileTheAggregationRuns() {
+        when(shiftRepository.countByStatus(TODAY)).thenReturn(Flux.defer(() -> {
+            statsService.onShiftCreated(shift("late", "Psicologia", false));
+            return Flux.just(new StatusCount("Psicologia", ShiftStatus.ASSIGNED, false, 4));
+        }));
+
+        statsService.rebuild();
+
+        assertEquals(5, statsService.today().specialties().get(0).total());
+    }
+
+    @Test
+    void verify_shouldNotReportADriftForChangesMadeWhileTheAggregationRuns() {
+        statsService.onShiftCreated(shift("a", "Psicologia", false));
+        when(shiftRepository.countByStatus(TODAY)).thenReturn(Flux.defer(() -> {
+            statsService.onShiftCreated(shift("b", "Psicologia", false));
+            return Flux.just(new StatusCount("Psicologia", ShiftStatus.ASSIGNED, false, 1));
+        }));
+
+        StepVerifier.create(statsService.verify()).expectNext(true).verifyComplete();
+
+        assertEquals(2, statsService.today().specialties().get(0).total());
+    }
+
+    @Test
+    void counters_shouldStartFromZeroOnANewDayAndIgnoreOtherDays() {
+        statsService.onShiftCreated(shift("a", "Psicologia", false));
+        clock.advance(Duration.ofDays(1));
+
+        assertTrue(statsService.today().specialties().isEmpty());
+        statsService.onShiftCreated(shift("b", "Psicologia", false));
+        assertTrue(statsService.today().specialties().isEmpty());
+    }
+
+    @Test
+    void today_shouldNotDependOnTheNumberOfShifts() {
+        for (int i = 0; i < 200_000; i++) {
+            statsService.onShiftCreated(shift("id-" + i, i % 2 == 0 ? "Psicologia" : "Odontologia", i % 7 == 0));
+        }
+
+        long[] samples = new long[1000];
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            statsService.today();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+
+        assertEquals(200_000, statsService.today().specialties().stream().mapToLong(SpecialtyStats::total).sum());
+        assertTrue(samples[samples.length / 2] < 1_000_000, "median read took " + samples[samples.length / 2] + " ns");
+    }
+
+    private Shift shift(String id, String specialty, boolean priority) {
+        Shift shift = new Shift("1", specialty, priority);
+        shift.setId(id);
+        shift.setStatus(ShiftStatus.ASSIGNED);
+        shift.setServiceDate(TODAY);
+        return shift;
+    }
+}
@@ -0,0 +1,33 @@
+package com.shiftmanagement.app_core;
+
+import com.shiftmanagement.app_core.model.ShiftStatus;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShiftStatusTest {
+
+    @Test
+    void predecessorsShouldMirrorTheAllowedTransitions() {
+        for (ShiftStatus to : ShiftStatus.values()) {
+            for (ShiftStatus from : ShiftStatus.values()) {
+                assertEquals(from.canTransitionTo(to), to.predecessors().contains(from), from + " -> " + to);
+            }
+        }
+    }
+
+    @Test
+    void shouldFollowTheShiftLifecycle() {
+        assertEquals(EnumSet.noneOf(ShiftStatus.class), ShiftStatus.ASSIGNED.predecessors());
+        assertEquals(EnumSet.of(ShiftStatus.ASSIGNED), ShiftStatus.IN_PROGRESS.predecessors());
+        assertEquals(EnumSet.of(ShiftStatus.IN_PROGRESS), ShiftStatus.ATTENDED.predecessors());
+        assertEquals(EnumSet.of(ShiftStatus.ASSIGNED, ShiftStatus.IN_PROGRESS), ShiftStatus.CANCELED.predecessors());
+        assertTrue(ShiftStatus.ASSIGNED.canTransitionTo(ShiftStatus.CANCELED));
+        assertFalse(ShiftStatus.ATTENDED.canTransitionTo(ShiftStatus.CANCELED));
+    }
+}
@@ -0,0 +1,192 @@
+package com.shiftmanagement.app_core;
+
+import com.shiftmanagement.app_core.controllers.ShiftController;
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftEvent;
+import com.shiftmanagement.app_core.model.ShiftEventType;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+import com.shiftmanagement.app_core.model.User;
+import com.shiftmanagement.app_core.repository.ShiftRepository;
+import com.shiftmanagement.app_core.repository.TurnSequenceRepository;
+import com.shiftmanagement.app_core.services.ServiceDayProvider;
+import com.shiftmanagement.app_core.services.ShiftEventPublisher;
+import com.shiftmanagement.app_core.services.ShiftListCache;
+import com.shiftmanagement.app_core.services.ShiftMetrics;
+import com.shiftmanagement.app_core.services.ShiftService;
+import com.shiftmanagement.app_core.services.ShiftViewVersions;
+import com.shiftmanagement.app_core.services.UserService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+class ShiftViewVersionsTest {
+
+    private static final ZoneId BOGOTA = ZoneId.of("America/Bogota");
+    private static final LocalDate TODAY = LocalDate.of(2025, 5, 12);
+
+    private MutableClock clock;
+    private ServiceDayProvider serviceDayProvider;
+    private ShiftViewVersions viewVersions;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(ZonedDateTime.of(2025, 5, 12, 9, 0, 0, 0, BOGOTA).toInstant(), BOGOTA);
+        serviceDayProvider = new ServiceDayProvider(clock);
+        viewVersions = new ShiftViewVersions(serviceDayProvider, null);
+    }
+
+    @Test
+    void writes_shouldOnlyChangeTheTagsOfTheViewsTheyTouch() {
+        String psicologia = viewVersions.specialtyTag("Psicologia");
+        String odontologia = viewVersions.specialtyTag("Odontologia");
+        String assigned = viewVersions.statusTag(ShiftStatus.ASSIGNED);
+        String inProgress = viewVersions.statusTag(ShiftStatus.IN_PROGRESS);
+
+        Shift shift = shift("Psicologia", ShiftStatus.ASSIGNED);
+        viewVersions.onShiftCreated(shift);
+
+        assertNotEquals(psicologia, psicologia = viewVersions.specialtyTag("Psicologia"));
+        assertNotEquals(assigned, assigned = viewVersions.statusTag(ShiftStatus.ASSIGNED));
+        assertEquals(odontologia, viewVersions.specialtyTag("Odontologia"));
+        assertEquals(inProgress, viewVersions.statusTag(ShiftStatus.IN_PROGRESS));
+
+        shift.setStatus(ShiftStatus.IN_PROGRESS);
+        viewVersions.onShiftStatusChanged(shift, ShiftStatus.ASSIGNED);
+
+        assertNotEquals(psicologia, viewVersions.specialtyTag("Psicologia"));
+        assertNotEquals(assigned, viewVersions.statusTag(ShiftStatus.ASSIGNED));
+        assertNotEquals(inProgress, viewVersions.statusTag(ShiftStatus.IN_PROGRESS));
+        assertEquals(odontologia, viewVersions.specialtyTag("Odontologia"));
+    }
+
+    @Test
+    void tags_shouldChangeAtMidnightAndIgnoreOtherDays() {
+        String today = viewVersions.specialtyTag("Psicologia");
+        Shift yesterday = shift("Psicologia", ShiftStatus.ASSIGNED);
+        yesterday.setServiceDate(TODAY.minusDays(1));
+        viewVersions.onShiftCreated(yesterday);
+        assertEquals(today, viewVersions.specialtyTag("Psicologia"));
+
+        clock.advance(Duration.ofDays(1));
+
+        assertNotEquals(today, viewVersions.specialtyTag("Psicologia"));
+    }
+
+    @Test
+    void changeStreamEvents_shouldInvalidateWhatTheyCannotAttribute() {
+        Sinks.Many<ShiftEvent> events = Sinks.many().multicast().directBestEffort();
+        ShiftEventPublisher publisher = Mockito.mock(ShiftEventPublisher.class);
+        when(publisher.isChangeStreamEnabled()).thenReturn(true);
+        when(publisher.events(null, null)).thenReturn(events.asFlux());
+        viewVersions = new ShiftViewVersions(serviceDayProvider, publisher);
+        viewVersions.followChangeStream();
+
+        String odontologia = viewVersions.specialtyTag("Odontologia");
+        String attended = viewVersions.statusTag(ShiftStatus.ATTENDED);
+        events.tryEmitNext(ShiftEvent.of(ShiftEventType.STATUS_CHANGED, shift("Psicologia", ShiftStatus.IN_PROGRESS), null));
+        assertEquals(odontologia, viewVersions.specialtyTag("Odontologia"));
+        assertNotEquals(attended, attended = viewVersions.statusTag(ShiftStatus.ATTENDED));
+
+        Shift deleted = new Shift();
+        deleted.setId("a");
+        events.tryEmitNext(ShiftEvent.of(ShiftEventType.DELETED, deleted, null));
+        assertNotEquals(odontologia, viewVersions.specialtyTag("Odontologia"));
+        assertNotEquals(attended, viewVersions.statusTag(ShiftStatus.ATTENDED));
+        viewVersions.stop();
+    }
+
+    /**
+     * Display screens poll one specialty while the desk creates a shift every few rounds.
+     * Without ETags every poll is a query; with them only the first poll of each screen
+     * and the first poll after each write reach the repository.
+     */
+    @Test
+    void polling_shouldOnlyQueryTheDatabaseAfterAWrite() {
+        int screens = 20;
+        int rounds = 60;
+        int roundsBetweenWrites = 10;
+
+        ShiftRepository shiftRepository = Mockito.mock(ShiftRepository.class);
+        UserService userService = Mockito.mock(UserService.class);
+        TurnSequenceRepository turnSequenceRepository = Mockito.mock(TurnSequenceRepository.class);
+        AtomicInteger queries = new AtomicInteger();
+        AtomicLong turns = new AtomicLong();
+        when(shiftRepository.findBySpecialtyAndServiceDate(eq("Psicologia"), eq(TODAY)))
+            .thenAnswer(invocation -> {
+                queries.incrementAndGet();
+                return Flux.just(shift("Psicologia", ShiftStatus.ASSIGNED));
+            });
+        when(shiftRepository.insert(any(Shift.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(userService.getUserbyId(anyString()))
+            .thenAnswer(invocation -> Mono.just(new User("John Doe", invocation.getArgument(0), "STUDENT", null)));
+        when(turnSequenceRepository.next(anyString(), any())).thenAnswer(invocation -> Mono.just(turns.incrementAndGet()));
+
+        ShiftService shiftService = new ShiftService(shiftRepository, userService, turnSequenceRepository,
+            serviceDayProvider, null, List.of(viewVersions), new ShiftMetrics(new SimpleMeterRegistry()));
+        WebTestClient client = WebTestClient.bindToController(new ShiftController(shiftService, viewVersions,
+            new ShiftListCache(Duration.ZERO, 0, DataSize.ofBytes(0)))).build();
+
+        List<String> etags = new ArrayList<>(Arrays.asList(new String[screens]));
+        int notModified = 0;
+        int writes = 0;
+        for (int round = 0; round < rounds; round++) {
+            if (round > 0 && round % roundsBetweenWrites == 0) {
+                shiftService.generateShift(new Shift(String.valueOf(round), "Psicologia", false)).block();
+                writes++;
+            }
+            for (int screen = 0; screen < screens; screen++) {
+                WebTestClient.RequestHeadersSpec<?> poll = client.get().uri("/api/shifts/specialty/Psicologia");
+                if (etags.get(screen) != null) {
+                    poll = poll.ifNoneMatch(etags.get(screen));
+                }
+                EntityExchangeResult<byte[]> result = poll.exchange().expectBody().returnResult();
+                if (result.getStatus() == HttpStatus.NOT_MODIFIED) {
+                    notModified++;
+                } else {
+                    etags.set(screen, result.getResponseHeaders().getETag());
+                }
+            }
+        }
+
+        int polls = screens * rounds;
+        assertEquals(5, writes);
+        assertEquals(screens * (1 + writes), queries.get());
+        assertEquals(polls - queries.get(), notModified);
+        // 1200 polls cost 120 queries instead of 1200
+        assertEquals(1080, polls - queries.get());
+    }
+
+    private static Shift shift(String specialty, ShiftStatus status) {
+        Shift shift = new Shift("1", specialty, false);
+        shift.setStatus(status);
+        shift.setServiceDate(TODAY);
+        return shift;
+    }
+}
@@ -0,0 +1,133 @@
+package com.shiftmanagement.app_core;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.shiftmanagement.app_core.model.ShiftCounter;
+import com.shiftmanagement.app_core.repository.TurnSequenceRepository;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.net.InetSocketAddress;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the sequences against an in-memory MongoDB, so the $inc upsert and the returned document are the real ones.
+ */
+class TurnSequenceRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 12);
+
+    private MongoServer server;
+    private MongoClient client;
+    private ReactiveMongoTemplate mongoTemplate;
+    private TurnSequenceRepository turnSequenceRepository;
+
+    @BeforeEach
+    void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        mongoTemplate = new ReactiveMongoTemplate(client, "TurnSequenceRepositoryTest");
+        turnSequenceRepository = new TurnSequenceRepository(mongoTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void next_shouldUpsertCounterKeyedBySpecialtyAndDay() {
+        StepVerifier.create(turnSequenceRepository.next("Psicologia", DAY))
+            .expectNext(1L)
+            .verifyComplete();
+
+        ShiftCounter counter = mongoTemplate.findById("Psicologia:2025-05-12", ShiftCounter.class).block();
+        assertEquals("Psicologia", counter.getSpecialty());
+        assertEquals(DAY, counter.getServiceDate());
+        assertEquals(1L, counter.getSeq());
+    }
+
+    @Test
+    void next_shouldKeepSeparateSequencesPerSpecialtyAndDay() {
+        StepVerifier.create(Flux.concat(
+                turnSequenceRepository.next("Psicologia", DAY),
+                turnSequenceRepository.next("Psicologia", DAY),
+                turnSequenceRepository.next("Odontologia", DAY),
+                turnSequenceRepository.next("Psicologia", DAY.plusDays(1))))
+            .expectNext(1L, 2L, 1L, 1L)
+            .verifyComplete();
+    }
+
+    @Test
+    void nextBlock_shouldReturnLastNumberOfTheBlock() {
+        StepVerifier.create(turnSequenceRepository.nextBlock("Psicologia", DAY, 5)
+                .then(turnSequenceRepository.nextBlock("Psicologia", DAY, 3)))
+            .expectNext(8L)
+            .verifyComplete();
+    }
+
+    @Test
+    void nextBlock_shouldRejectNonPositiveSize() {
+        StepVerifier.create(turnSequenceRepository.nextBlock("Psicologia", DAY, 0))
+            .expectError(IllegalArgumentException.class)
+            .verify();
+    }
+
+    @Test
+    void concurrentCalls_shouldHandOutEveryNumberExactlyOnce() {
+        int calls = 2000;
+
+        List<Long> numbers = Flux.range(0, calls)
+            .flatMap(i -> turnSequenceRepository.next("Psicologia", DAY).subscribeOn(Schedulers.parallel()), 64)
+            .sort()
+            .collectList()
+            .block();
+
+        assertEquals(LongStream.rangeClosed(1, calls).boxed().toList(), numbers);
+    }
+
+    @Test
+    void racingFirstUpsert_shouldBeRetriedAsAnUpdate() {
+        ReactiveMongoTemplate racing = spy(mongoTemplate);
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            Mono<ShiftCounter> real = (Mono<ShiftCounter>) invocation.callRealMethod();
+            // another instance inserts the day's counter between our lookup and our insert
+            return Mono.defer(() -> attempts.getAndIncrement() == 0
+                ? mongoTemplate.insert(new Document("_id", "Psicologia:2025-05-12").append("seq", 1L), "ShiftCounters")
+                    .then(Mono.error(new DuplicateKeyException("E11000 duplicate key error")))
+                : real);
+        }).when(racing).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(ShiftCounter.class));
+
+        StepVerifier.create(new TurnSequenceRepository(racing).next("Psicologia", DAY))
+            .expectNext(2L)
+            .verifyComplete();
+        assertEquals(2, attempts.get());
+    }
+}
@@ -0,0 +1,240 @@
+package com.shiftmanagement.app_core;
+
+import com.shiftmanagement.app_core.services.JwtWebClientService;
+import com.shiftmanagement.app_core.services.UserService;
+import com.shiftmanagement.app_core.services.UserServiceResilience;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.test.StepVerifier;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the user service clients against a local stub that can answer normally, slowly,
+ * with a 5xx, with a 404 or not at all.
+ */
+class UserServiceResilienceTest {
+
+    private enum Mode { OK, SLOW, HANG, ERROR, NOT_FOUND }
+
+    private static final Duration CACHE_TTL = Duration.ofMillis(50);
+
+    private final AtomicReference<Mode> lookupMode = new AtomicReference<>(Mode.OK);
+    private final AtomicReference<Mode> loginMode = new AtomicReference<>(Mode.OK);
+    private final AtomicInteger lookupFailuresLeft = new AtomicInteger();
+    private final AtomicInteger lookupHits = new AtomicInteger();
+    private final AtomicInteger loginHits = new AtomicInteger();
+    private DisposableServer server;
+
+    @BeforeEach
+    void startStub() {
+        server = HttpServer.create()
+            .host("127.0.0.1")
+            .port(0)
+            .route(routes -> routes
+                .get("/user-service/users/by-number-id/{id}", (request, response) -> {
+                    lookupHits.incrementAndGet();
+                    Mode mode = lookupFailuresLeft.getAndDecrement() > 0 ? Mode.ERROR : lookupMode.get();
+                    String id = request.param("id");
+                    return answer(response, mode,
+                        "{\"userName\":\"user" + id + "\",\"numberId\":\"" + id + "\",\"role\":\"STUDENT\",\"password\":\"pass\"}");
+                })
+                .post("/user-service/login", (request, response) -> {
+                    loginHits.incrementAndGet();
+                    return request.receive().then().then(answer(response, loginMode.get(), "{\"token\":\"token\"}"));
+                }))
+            .bindNow();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.disposeNow();
+    }
+
+    @Test
+    void lookup_shouldRetryTransientErrors() {
+        lookupFailuresLeft.set(2);
+        JwtWebClientService jwt = jwtService(resilience(2, 20, 64));
+
+        StepVerifier.create(jwt.getToken("1"))
+            .expectNext("token")
+            .verifyComplete();
+
+        assertEquals(3, lookupHits.get());
+        assertEquals(1, loginHits.get());
+    }
+
+    @Test
+    void login_shouldNotBeRetried() {
+        loginMode.set(Mode.ERROR);
+        JwtWebClientService jwt = jwtService(resilience(2, 20, 64));
+
+        StepVerifier.create(jwt.getToken("1"))
+            .expectErrorMatches(e -> e instanceof WebClientResponseException response
+                && response.getStatusCode().is5xxServerError())
+            .verify(Duration.ofSeconds(5));
+
+        assertEquals(1, loginHits.get());
+    }
+
+    @Test
+    void lookup_shouldTimeOutWhenTheServiceHangs() {
+        lookupMode.set(Mode.HANG);
+        JwtWebClientService jwt = jwtService(resilience(1, 20, 64));
+
+        StepVerifier.create(jwt.getToken("1"))
+            .expectError(TimeoutException.class)
+            .verify(Duration.ofSeconds(5));
+
+        assertEquals(2, lookupHits.get());
+    }
+
+    @Test
+    void circuitBreaker_shouldOpenAndStopCallingTheService() {
+        lookupMode.set(Mode.ERROR);
+        UserServiceResilience resilience = resilience(0, 4, 64);
+        JwtWebClientService jwt = jwtService(resilience);
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(jwt.getToken("1"))
+                .expectError(WebClientResponseException.class)
+                .verify(Duration.ofSeconds(5));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, resilience.getCircuitBreaker().getState());
+
+        StepVerifier.create(jwt.getToken("1"))
+            .expectError(CallNotPermittedException.class)
+            .verify(Duration.ofSeconds(5));
+        assertEquals(2, lookupHits.get());
+    }
+
+    @Test
+    void bulkhead_shouldRejectCallsOverTheLimit() {
+        lookupMode.set(Mode.SLOW);
+        JwtWebClientService jwt = jwtService(resilience(0, 20, 2));
+
+        List<String> outcomes = Flux.range(0, 5)
+            .flatMap(i -> jwt.getToken(String.valueOf(i))
+                .onErrorResume(e -> Mono.just(e.getClass().getSimpleName())))
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertEquals(2, outcomes.stream().filter("token"::equals).count());
+        assertEquals(3, outcomes.stream().filter(BulkheadFullException.class.getSimpleName()::equals).count());
+        assertEquals(2, lookupHits.get());
+    }
+
+    @Test
+    void getUserbyId_shouldServeTheLastKnownUserWhenTheServiceFails() throws Exception {
+        UserServiceResilience resilience = resilience(0, 20, 64);
+        UserService userService = userService(resilience, true);
+
+        StepVerifier.create(userService.getUserbyId("1"))
+            .expectNextMatches(user -> user.userName().equals("user1"))
+            .verifyComplete();
+
+        lookupMode.set(Mode.HANG);
+        StepVerifier.create(afterCacheExpiry(userService.getUserbyId("1")))
+            .expectNextMatches(user -> user.userName().equals("user1"))
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+        assertEquals(3, lookupHits.get());
+    }
+
+    @Test
+    void getUserbyId_shouldFailWhenStaleUsersAreDisabled() throws Exception {
+        UserService userService = userService(resilience(0, 20, 64), false);
+
+        StepVerifier.create(userService.getUserbyId("1"))
+            .expectNextCount(1)
+            .verifyComplete();
+
+        lookupMode.set(Mode.ERROR);
+        StepVerifier.create(afterCacheExpiry(userService.getUserbyId("1")))
+            .expectError(WebClientResponseException.class)
+            .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void getUserbyId_shouldNotServeAStaleUserTheServiceNoLongerKnows() throws Exception {
+        UserService userService = userService(resilience(0, 20, 64), true);
+
+        StepVerifier.create(userService.getUserbyId("1"))
+            .expectNextCount(1)
+            .verifyComplete();
+
+        lookupMode.set(Mode.NOT_FOUND);
+        StepVerifier.create(afterCacheExpiry(userService.getUserbyId("1")))
+            .expectError(WebClientResponseException.NotFound.class)
+            .verify(Duration.ofSeconds(5));
+    }
+
+    private static <T> Mono<T> afterCacheExpiry(Mono<T> lookup) {
+        return Mono.delay(CACHE_TTL.multipliedBy(2)).then(lookup);
+    }
+
+    private static Mono<Void> answer(HttpServerResponse response, Mode mode, String body) {
+        return switch (mode) {
+            case OK -> json(response, body);
+            case SLOW -> Mono.delay(Duration.ofMillis(150)).then(json(response, body));
+            case HANG -> Mono.never();
+            case ERROR -> response.status(503).sendString(Mono.just("unavailable")).then();
+            case NOT_FOUND -> response.status(404).sendString(Mono.just("not found")).then();
+        };
+    }
+
+    private static Mono<Void> json(HttpServerResponse response, String body) {
+        return response.header("Content-Type", "application/json").sendString(Mono.just(body)).then();
+    }
+
+    private static UserServiceResilience resilience(int maxRetries, int slidingWindowSize, int maxConcurrentCalls) {
+        return new UserServiceResilience(Duration.ofSeconds(2), Duration.ofSeconds(2), maxRetries, Duration.ofMillis(10),
+            50, slidingWindowSize, Duration.ofMinutes(1), maxConcurrentCalls);
+    }
+
+    private JwtWebClientService jwtService(UserServiceResilience resilience) {
+        JwtWebClientService jwt = new JwtWebClientService(WebClient.create(), new SimpleMeterRegistry(), resilience,
+            new ObjectMapper(), 10_000);
+        try {
+            Field url = JwtWebClientService.class.getDeclaredField("Url");
+            url.setAccessible(true);
+            url.set(jwt, "http://127.0.0.1:" + server.port());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        return jwt;
+    }
+
+    private UserService userService(UserServiceResilience resilience, boolean staleEnabled) throws Exception {
+        UserService userService = new UserService(WebClient.create(), jwtService(resilience), 100, CACHE_TTL,
+            resilience, staleEnabled, Duration.ofHours(1), new ObjectMapper());
+        Field uri = UserService.class.getDeclaredField("uri");
+        uri.setAccessible(true);
+        uri.set(userService, "http://127.0.0.1:" + server.port());
+        return userService;
+    }
+}
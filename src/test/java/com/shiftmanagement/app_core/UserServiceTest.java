@@ -4,16 +4,22 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.shiftmanagement.app_core.model.User;
 import com.shiftmanagement.app_core.services.JwtWebClientService;
 import com.shiftmanagement.app_core.services.UserService;
+import com.shiftmanagement.app_core.services.UserServiceResilience;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.reactive.function.client.*;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -33,7 +39,10 @@ class UserServiceTest {
     void setUp() throws Exception {
         webClient = mock(WebClient.class);
         jwtWebClientService = mock(JwtWebClientService.class);
-        userService = new UserService(webClient, jwtWebClientService);
+        userService = new UserService(webClient, jwtWebClientService, 10_000, Duration.ofMinutes(10),
+            new UserServiceResilience(Duration.ofSeconds(2), Duration.ofSeconds(3), 2,
+                Duration.ofMillis(100), 50, 20, Duration.ofSeconds(30), 64),
+            true, Duration.ofHours(24), new ObjectMapper());
 
         // set uri privada
         Field uriField = UserService.class.getDeclaredField("uri");
@@ -46,7 +55,7 @@ class UserServiceTest {
 
         // chain WebClient with safe casts
         when(webClient.get()).thenReturn((WebClient.RequestHeadersUriSpec) headersUriSpec);
-        when(((WebClient.RequestHeadersUriSpec) headersUriSpec).uri(anyString()))
+        when(((WebClient.RequestHeadersUriSpec) headersUriSpec).uri(anyString(), any(Object[].class)))
             .thenReturn((WebClient.RequestHeadersSpec) headersSpec);
         when(((WebClient.RequestHeadersSpec) headersSpec)
             .header(eq(HttpHeaders.AUTHORIZATION), anyString()))
@@ -71,6 +80,78 @@ class UserServiceTest {
             .verifyComplete();
     }
 
+    @Test
+    void getUserbyId_shouldServeRepeatedLookupsFromCache() throws Exception {
+        byte[] responseJson = new ObjectMapper().writeValueAsBytes(new User("John Doe", "123", "DOCTOR", null));
+
+        when(jwtWebClientService.getToken("123")).thenReturn(Mono.just("fake-token"));
+        when(responseSpec.bodyToMono(byte[].class)).thenReturn(Mono.just(responseJson));
+
+        StepVerifier.create(userService.getUserbyId("123").then(userService.getUserbyId("123")))
+            .expectNextMatches(user -> user.numberId().equals("123"))
+            .verifyComplete();
+
+        verify(webClient, times(1)).get();
+        assertEquals(1, userService.getCacheStats().hitCount());
+        assertEquals(1, userService.getCacheStats().missCount());
+    }
+
+    @Test
+    void getUserbyId_shouldCoalesceConcurrentLookupsIntoOneRemoteCall() throws Exception {
+        byte[] responseJson = new ObjectMapper().writeValueAsBytes(new User("John Doe", "123", "DOCTOR", null));
+
+        when(jwtWebClientService.getToken("123")).thenReturn(Mono.just("fake-token"));
+        when(responseSpec.bodyToMono(byte[].class))
+            .thenReturn(Mono.just(responseJson).delayElement(Duration.ofMillis(100)));
+
+        List<User> users = Flux.range(0, 50)
+            .flatMap(i -> userService.getUserbyId("123"))
+            .collectList()
+            .block();
+
+        assertEquals(50, users.size());
+        verify(jwtWebClientService, times(1)).getToken("123");
+        verify(webClient, times(1)).get();
+    }
+
+    @Test
+    void getUserbyId_shouldKeepTheSharedLookupWhenOneSubscriberCancels() throws Exception {
+        byte[] responseJson = new ObjectMapper().writeValueAsBytes(new User("John Doe", "123", "DOCTOR", null));
+
+        when(jwtWebClientService.getToken("123")).thenReturn(Mono.just("fake-token"));
+        when(responseSpec.bodyToMono(byte[].class))
+            .thenReturn(Mono.just(responseJson).delayElement(Duration.ofMillis(200)));
+
+        Disposable canceled = userService.getUserbyId("123").subscribe();
+        Mono<User> waiting = userService.getUserbyId("123");
+        canceled.dispose();
+
+        StepVerifier.create(waiting)
+            .expectNextMatches(user -> user.numberId().equals("123"))
+            .verifyComplete();
+        StepVerifier.create(userService.getUserbyId("123"))
+            .expectNextMatches(user -> user.numberId().equals("123"))
+            .verifyComplete();
+        verify(webClient, times(1)).get();
+    }
+
+    @Test
+    void getUserbyId_shouldNotCacheFailures() throws Exception {
+        byte[] responseJson = new ObjectMapper().writeValueAsBytes(new User("John Doe", "123", "DOCTOR", null));
+
+        when(jwtWebClientService.getToken("123"))
+            .thenReturn(Mono.error(new IllegalStateException("down")))
+            .thenReturn(Mono.just("fake-token"));
+        when(responseSpec.bodyToMono(byte[].class)).thenReturn(Mono.just(responseJson));
+
+        StepVerifier.create(userService.getUserbyId("123"))
+            .expectError(IllegalStateException.class)
+            .verify();
+        StepVerifier.create(userService.getUserbyId("123"))
+            .expectNextMatches(user -> user.numberId().equals("123"))
+            .verifyComplete();
+    }
+
     @Test
 void getUsers_shouldReturnListOfUsers() {
     // Arrange
@@ -0,0 +1,156 @@
+package com.shiftmanagement.app_core;
+
+import com.shiftmanagement.app_core.controllers.WaitTimeController;
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+import com.shiftmanagement.app_core.model.WaitEstimate;
+import com.shiftmanagement.app_core.repository.ShiftRepository;
+import com.shiftmanagement.app_core.services.DispatchQueueService;
+import com.shiftmanagement.app_core.services.ServiceDayProvider;
+import com.shiftmanagement.app_core.services.ShiftService;
+import com.shiftmanagement.app_core.services.WaitTimeEstimator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.ResponseEntity;
+
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WaitTimeEstimatorTest {
+
+    private static final ZoneId BOGOTA = ZoneId.of("America/Bogota");
+    private static final LocalDate TODAY = LocalDate.of(2025, 5, 12);
+
+    private MutableClock clock;
+    private DispatchQueueService dispatchQueueService;
+    private WaitTimeEstimator estimator;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(ZonedDateTime.of(2025, 5, 12, 9, 0, 0, 0, BOGOTA).toInstant(), BOGOTA);
+        ServiceDayProvider serviceDayProvider = new ServiceDayProvider(clock);
+        dispatchQueueService = new DispatchQueueService(Mockito.mock(ShiftRepository.class), serviceDayProvider);
+        estimator = new WaitTimeEstimator(dispatchQueueService, serviceDayProvider, Duration.ofMinutes(30), Duration.ofMinutes(10));
+    }
+
+    @Test
+    void estimate_shouldUseTheDefaultServiceTimeBeforeAnyData() {
+        Shift third = waitingQueue(3)[2];
+
+        WaitEstimate estimate = estimator.estimate(third);
+
+        assertEquals(2, estimate.ahead());
+        assertEquals(20.0, estimate.estimatedMinutes());
+    }
+
+    @Test
+    void estimate_shouldUseTheServiceDurationUntilTwoCallsWereSeen() {
+        Shift third = waitingQueue(3)[2];
+        Shift served = calledAt("s", at(8, 0));
+        served.recordTransition(ShiftStatus.ATTENDED, at(8, 8));
+        estimator.onShiftStatusChanged(served, ShiftStatus.IN_PROGRESS);
+
+        assertEquals(16.0, estimator.estimate(third).estimatedMinutes());
+    }
+
+    @Test
+    void estimate_shouldFollowTheCallPaceAndTheTimeSinceTheLastCall() {
+        Shift third = waitingQueue(3)[2];
+        for (int minute = 0; minute <= 40; minute += 5) {
+            estimator.onShiftStatusChanged(calledAt("c" + minute, at(8, 20).plusMinutes(minute)), ShiftStatus.ASSIGNED);
+        }
+        // last call at 09:00, the clock is at 09:01
+        clock.advance(Duration.ofMinutes(1));
+
+        assertEquals(2 * 5 + 4, estimator.estimate(third).estimatedMinutes());
+    }
+
+    @Test
+    void estimate_shouldForgetOldPaceThroughDecay() {
+        Shift first = waitingQueue(1)[0];
+        LocalDateTime call = at(7, 0);
+        for (int i = 0; i < 5; i++) {
+            estimator.onShiftStatusChanged(calledAt("slow" + i, call), ShiftStatus.ASSIGNED);
+            call = call.plusMinutes(20);
+        }
+        for (int i = 0; i < 30; i++) {
+            call = call.plusMinutes(2);
+            estimator.onShiftStatusChanged(calledAt("fast" + i, call), ShiftStatus.ASSIGNED);
+        }
+        clock.setInstant(call.atZone(BOGOTA).toInstant());
+
+        double minutes = estimator.estimate(first).estimatedMinutes();
+        assertTrue(minutes < 3, "estimate still dominated by the slow calls: " + minutes);
+    }
+
+    @Test
+    void estimate_shouldReportNoWaitForShiftsThatAreNotWaiting() {
+        Shift called = calledAt("x", at(8, 0));
+        assertEquals(0.0, estimator.estimate(called).estimatedMinutes());
+
+        Shift notQueued = shift("y");
+        WaitEstimate unknown = estimator.estimate(notQueued);
+        assertNull(unknown.ahead());
+        assertNull(unknown.estimatedMinutes());
+    }
+
+    @Test
+    void eta_shouldOnlyReadTheDatabaseForShiftsThatAreNotWaiting() {
+        ShiftService shiftService = Mockito.mock(ShiftService.class);
+        WaitTimeController controller = new WaitTimeController(shiftService, dispatchQueueService, estimator);
+        waitingQueue(3);
+        Shift called = calledAt("x", at(8, 0));
+        when(shiftService.getShiftByTurnCode("PS-x")).thenReturn(Mono.just(called));
+
+        ResponseEntity<?> waiting = controller.getWaitEstimate("PS-w2").block();
+        verify(shiftService, never()).getShiftByTurnCode("PS-w2");
+        assertEquals(2, ((WaitEstimate) waiting.getBody()).ahead());
+
+        ResponseEntity<?> notWaiting = controller.getWaitEstimate("PS-x").block();
+        verify(shiftService).getShiftByTurnCode("PS-x");
+        assertEquals(0, ((WaitEstimate) notWaiting.getBody()).ahead());
+    }
+
+    private Shift[] waitingQueue(int size) {
+        Shift[] queue = new Shift[size];
+        for (int i = 0; i < size; i++) {
+            queue[i] = shift("w" + i);
+            queue[i].setCreatedAt(at(8, i));
+            dispatchQueueService.offer(queue[i]);
+        }
+        return queue;
+    }
+
+    private Shift calledAt(String id, LocalDateTime calledAt) {
+        Shift shift = shift(id);
+        shift.recordTransition(ShiftStatus.IN_PROGRESS, calledAt);
+        return shift;
+    }
+
+    private Shift shift(String id) {
+        Shift shift = new Shift("1", "Psicologia", false);
+        shift.setId(id);
+        shift.setTurnCode("PS-" + id);
+        shift.setStatus(ShiftStatus.ASSIGNED);
+        shift.setServiceDate(TODAY);
+        return shift;
+    }
+
+    private static LocalDateTime at(int hour, int minute) {
+        return TODAY.atTime(hour, minute);
+    }
+}
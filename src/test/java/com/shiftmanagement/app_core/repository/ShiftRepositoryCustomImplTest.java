@@ -0,0 +1,335 @@
+package com.shiftmanagement.app_core.repository;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.shiftmanagement.app_core.model.Shift;
+import com.shiftmanagement.app_core.model.ShiftStatus;
+import com.shiftmanagement.app_core.repository.ShiftRepositoryCustom.ServiceDateBackfill;
+import com.shiftmanagement.app_core.repository.ShiftRepositoryCustom.StatusUpdate;
+import com.shiftmanagement.app_core.repository.ShiftRepositoryCustom.TransitionOutcome;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Checks the queries and updates sent to MongoDB: the conditions that make status changes atomic
+ * live in them, not in the service.
+ */
+class ShiftRepositoryCustomImplTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 5, 12);
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 5, 12, 9, 0);
+
+    private ReactiveMongoTemplate mongoTemplate;
+    private ReactiveBulkOperations bulk;
+    private ShiftRepositoryCustomImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        bulk = mock(ReactiveBulkOperations.class);
+        when(mongoTemplate.bulkOps(any(BulkMode.class), eq(Shift.class))).thenReturn(bulk);
+        when(bulk.insert(anyList())).thenReturn(bulk);
+        when(bulk.updateOne(any(Query.class), any(Update.class))).thenReturn(bulk);
+        when(mongoTemplate.getCollectionName(Shift.class)).thenReturn("Shifts");
+        repository = new ShiftRepositoryCustomImpl(mongoTemplate);
+    }
+
+    @Test
+    void transitionStatus_shouldOnlyMatchAllowedPredecessorsAndReturnThePreviousDocument() {
+        Shift previous = new Shift("1", "Psicologia", false);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Shift.class)))
+            .thenReturn(Mono.just(previous));
+
+        StepVerifier.create(repository.transitionStatus("PS-1", DAY, ShiftStatus.IN_PROGRESS, NOW))
+            .expectNext(previous)
+            .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(), eq(Shift.class));
+
+        Document criteria = query.getValue().getQueryObject();
+        assertEquals("PS-1", criteria.get("turnCode"));
+        assertEquals(DAY, criteria.get("serviceDate"));
+        assertEquals(Set.of(ShiftStatus.ASSIGNED), Set.copyOf(statusIn(criteria)));
+        assertEquals(Map.of("status", ShiftStatus.IN_PROGRESS, "statusChangedAt", NOW, "calledAt", NOW), set(update.getValue()));
+        assertFalse(options.getValue().isReturnNew());
+        assertFalse(options.getValue().isUpsert());
+    }
+
+    @Test
+    void transitionStatusById_shouldSetTheTimestampOfTheTargetStatus() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Shift.class)))
+            .thenReturn(Mono.empty());
+
+        StepVerifier.create(repository.transitionStatusById("a", ShiftStatus.CANCELED, NOW)).verifyComplete();
+        StepVerifier.create(repository.transitionStatusById("a", ShiftStatus.ATTENDED, NOW)).verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate, times(2)).findAndModify(query.capture(), update.capture(), options.capture(), eq(Shift.class));
+
+        assertEquals("a", query.getAllValues().get(0).getQueryObject().get("id"));
+        assertEquals(Set.of(ShiftStatus.ASSIGNED, ShiftStatus.IN_PROGRESS), Set.copyOf(statusIn(query.getAllValues().get(0).getQueryObject())));
+        assertEquals(NOW, set(update.getAllValues().get(0)).get("canceledAt"));
+        assertEquals(Set.of(ShiftStatus.IN_PROGRESS), Set.copyOf(statusIn(query.getAllValues().get(1).getQueryObject())));
+        assertEquals(NOW, set(update.getAllValues().get(1)).get("attendedAt"));
+        assertTrue(options.getAllValues().stream().noneMatch(FindAndModifyOptions::isReturnNew));
+    }
+
+    @Test
+    void transitionStatus_toAStatusWithoutPredecessors_shouldNotWrite() {
+        StepVerifier.create(repository.transitionStatus("PS-1", DAY, ShiftStatus.ASSIGNED, NOW)).verifyComplete();
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void bulkTransition_shouldSendOneUnorderedBulkOfConditionalUpdates() {
+        when(bulk.execute()).thenReturn(Mono.just(BulkWriteResult.acknowledged(0, 2, 0, 2, List.of(), List.of())));
+
+        StepVerifier.create(repository.bulkTransition(List.of(
+                new StatusUpdate("a", ShiftStatus.ASSIGNED, ShiftStatus.CANCELED),
+                new StatusUpdate("b", ShiftStatus.IN_PROGRESS, ShiftStatus.ATTENDED)), NOW))
+            .expectNext(new TransitionOutcome(Set.of("a", "b"), Map.of()))
+            .verifyComplete();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).bulkOps(BulkMode.UNORDERED, Shift.class);
+        verify(bulk, times(2)).updateOne(query.capture(), update.capture());
+        verify(bulk).execute();
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), anyString());
+
+        Map<String, Object> first = set(update.getAllValues().get(0));
+        Object batch = first.get("transitionBatches.CANCELED");
+        assertNotNull(batch);
+        assertEquals(new Document("id", "a").append("status", ShiftStatus.ASSIGNED), query.getAllValues().get(0).getQueryObject());
+        assertEquals(Map.of("status", ShiftStatus.CANCELED, "statusChangedAt", NOW, "canceledAt", NOW,
+            "transitionBatches.CANCELED", batch), first);
+        assertEquals(new Document("id", "b").append("status", ShiftStatus.IN_PROGRESS), query.getAllValues().get(1).getQueryObject());
+        assertEquals(Map.of("status", ShiftStatus.ATTENDED, "statusChangedAt", NOW, "attendedAt", NOW,
+            "transitionBatches.ATTENDED", batch), set(update.getAllValues().get(1)));
+    }
+
+    @Test
+    void bulkTransition_whenSomeUpdatesDidNotMatch_shouldReadBackTheShiftsStampedByThisBatch() {
+        List<Object> stamp = new ArrayList<>();
+        when(bulk.updateOne(any(Query.class), any(Update.class))).thenAnswer(invocation -> {
+            stamp.add(set(invocation.getArgument(1)).get("transitionBatches.CANCELED"));
+            return bulk;
+        });
+        when(bulk.execute()).thenReturn(Mono.just(BulkWriteResult.acknowledged(0, 2, 0, 1, List.of(), List.of())));
+        // "b" reached CANCELED through a concurrent single transition in the same millisecond: no stamp of ours
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("Shifts"))).thenAnswer(invocation -> Flux.just(
+            new Document("_id", "a").append("transitionBatches", new Document("CANCELED", stamp.get(0))),
+            new Document("_id", "b")));
+
+        StepVerifier.create(repository.bulkTransition(List.of(
+                new StatusUpdate("a", ShiftStatus.ASSIGNED, ShiftStatus.CANCELED),
+                new StatusUpdate("b", ShiftStatus.ASSIGNED, ShiftStatus.CANCELED)), NOW))
+            .expectNext(new TransitionOutcome(Set.of("a"), Map.of()))
+            .verifyComplete();
+    }
+
+    @Test
+    void bulkTransition_whenTheWriteFailsPartway_shouldReportTheAppliedUpdatesAndTheErrors() {
+        List<Object> stamp = new ArrayList<>();
+        when(bulk.updateOne(any(Query.class), any(Update.class))).thenAnswer(invocation -> {
+            stamp.add(set(invocation.getArgument(1)).get("transitionBatches.IN_PROGRESS"));
+            return bulk;
+        });
+        when(bulk.execute()).thenReturn(Mono.error(partialFailure(
+            new BulkWriteError(112, "WriteConflict", new BsonDocument(), 1))));
+        // "a" later moved on to ATTENDED: its IN_PROGRESS stamp still tells this batch applied it
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("Shifts"))).thenAnswer(invocation -> Flux.just(
+            new Document("_id", "a").append("transitionBatches", new Document("IN_PROGRESS", stamp.get(0))
+                .append("ATTENDED", "another-batch")),
+            new Document("_id", "b")));
+
+        StepVerifier.create(repository.bulkTransition(List.of(
+                new StatusUpdate("a", ShiftStatus.ASSIGNED, ShiftStatus.IN_PROGRESS),
+                new StatusUpdate("b", ShiftStatus.ASSIGNED, ShiftStatus.IN_PROGRESS)), NOW))
+            .expectNext(new TransitionOutcome(Set.of("a"), Map.of("b", "WriteConflict")))
+            .verifyComplete();
+
+        ArgumentCaptor<Query> readBack = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(readBack.capture(), eq(Document.class), eq("Shifts"));
+        assertEquals(List.of("a", "b"), inValues(readBack.getValue().getQueryObject(), "_id"));
+    }
+
+    @Test
+    void bulkTransition_againstAServer_shouldTellAppliedUpdatesFromStaleOnes() {
+        MongoServer server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        try (MongoClient client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort())) {
+            ReactiveMongoTemplate template = new ReactiveMongoTemplate(client, "ShiftRepositoryCustomImplTest");
+            Shift waiting = new Shift("1", "Psicologia", false);
+            waiting.setStatus(ShiftStatus.ASSIGNED);
+            Shift called = new Shift("2", "Psicologia", false);
+            called.setStatus(ShiftStatus.IN_PROGRESS);
+            template.insertAll(List.of(waiting, called)).blockLast();
+
+            StepVerifier.create(new ShiftRepositoryCustomImpl(template).bulkTransition(List.of(
+                    new StatusUpdate(waiting.getId(), ShiftStatus.ASSIGNED, ShiftStatus.CANCELED),
+                    new StatusUpdate(called.getId(), ShiftStatus.ASSIGNED, ShiftStatus.CANCELED)), NOW))
+                .expectNext(new TransitionOutcome(Set.of(waiting.getId()), Map.of()))
+                .verifyComplete();
+            assertEquals(ShiftStatus.CANCELED, template.findById(waiting.getId(), Shift.class).block().getStatus());
+        } finally {
+            server.shutdownNow();
+        }
+    }
+
+    @Test
+    void backfillServiceDates_shouldDateLegacyShiftsInTheCampusZoneOnce() {
+        MongoServer server = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = server.bind();
+        try (MongoClient client = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort())) {
+            ReactiveMongoTemplate template = new ReactiveMongoTemplate(client, "ShiftRepositoryCustomImplTest");
+            ZoneId bogota = ZoneId.of("America/Bogota");
+            // 02:00 UTC on the 13th is still the evening of the 12th in Bogota
+            Document lateEvening = legacy("PS-1", Instant.parse("2025-05-13T02:00:00Z"));
+            Document nextMorning = legacy("PS-1", Instant.parse("2025-05-13T14:00:00Z"));
+            Document sameDayTwin = legacy("PS-1", Instant.parse("2025-05-13T15:00:00Z"));
+            template.insert(List.of(lateEvening, nextMorning, sameDayTwin), "Shifts").blockLast();
+            ShiftRepositoryCustomImpl repository = new ShiftRepositoryCustomImpl(template);
+
+            StepVerifier.create(repository.backfillServiceDates(bogota))
+                .expectNext(new ServiceDateBackfill(2, List.of(sameDayTwin.get("_id").toString())))
+                .verifyComplete();
+            assertEquals(DAY, template.findById(lateEvening.get("_id"), Shift.class).block().getServiceDate());
+            assertEquals(DAY.plusDays(1), template.findById(nextMorning.get("_id"), Shift.class).block().getServiceDate());
+            assertNull(template.findById(sameDayTwin.get("_id"), Shift.class).block().getServiceDate());
+
+            StepVerifier.create(repository.backfillServiceDates(bogota))
+                .expectNext(new ServiceDateBackfill(0, List.of(sameDayTwin.get("_id").toString())))
+                .verifyComplete();
+        } finally {
+            server.shutdownNow();
+        }
+    }
+
+    private static Document legacy(String turnCode, Instant createdAt) {
+        return new Document("_id", new ObjectId())
+            .append("userId", "1")
+            .append("specialty", "Psicologia")
+            .append("turnCode", turnCode)
+            .append("status", "ATTENDED")
+            .append("createdAt", Date.from(createdAt));
+    }
+
+    @Test
+    void bulkInsert_shouldBeUnorderedAndReportFailedDocumentsByPosition() {
+        BulkWriteError duplicate = new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1);
+        when(bulk.execute()).thenReturn(Mono.error(partialFailure(duplicate)));
+        List<Shift> shifts = List.of(new Shift("1", "Psicologia", false), new Shift("2", "Psicologia", false),
+            new Shift("3", "Psicologia", false));
+
+        StepVerifier.create(repository.bulkInsert(shifts))
+            .expectNext(Map.of(1, "E11000 duplicate key"))
+            .verifyComplete();
+
+        verify(mongoTemplate).bulkOps(BulkMode.UNORDERED, Shift.class);
+        verify(bulk).insert(shifts);
+    }
+
+    @Test
+    void archiveBatch_shouldCopyTheBatchBeforeDeletingIt() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("Shifts")))
+            .thenReturn(Flux.just(new Document("_id", "a"), new Document("_id", "b")));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("Shifts"), eq(Document.class))).thenReturn(Flux.empty());
+        when(mongoTemplate.remove(any(Query.class), eq(Shift.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(repository.archiveBatch(DAY, 500))
+            .expectNext(2)
+            .verifyComplete();
+
+        ArgumentCaptor<Query> batch = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Aggregation> copy = ArgumentCaptor.forClass(Aggregation.class);
+        ArgumentCaptor<Query> delete = ArgumentCaptor.forClass(Query.class);
+        InOrder order = inOrder(mongoTemplate);
+        order.verify(mongoTemplate).find(batch.capture(), eq(Document.class), eq("Shifts"));
+        order.verify(mongoTemplate).aggregate(copy.capture(), eq("Shifts"), eq(Document.class));
+        order.verify(mongoTemplate).remove(delete.capture(), eq(Shift.class));
+
+        assertEquals(500, batch.getValue().getLimit());
+        assertEquals(new Document("$lt", DAY), batch.getValue().getQueryObject().get("serviceDate"));
+        String pipeline = copy.getValue().toString();
+        assertTrue(pipeline.contains("$merge") && pipeline.contains(ShiftRepositoryCustom.ARCHIVE_COLLECTION), pipeline);
+        assertEquals(List.of("a", "b"), inValues(delete.getValue().getQueryObject(), "_id"));
+    }
+
+    @Test
+    void archiveBatch_withNothingLeft_shouldNotCopyOrDelete() {
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("Shifts"))).thenReturn(Flux.empty());
+
+        StepVerifier.create(repository.archiveBatch(DAY, 500))
+            .expectNext(0)
+            .verifyComplete();
+
+        verify(mongoTemplate, never()).aggregate(any(Aggregation.class), anyString(), any());
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(Shift.class));
+    }
+
+    private static BulkOperationException partialFailure(BulkWriteError... errors) {
+        return new BulkOperationException("partial", new MongoBulkWriteException(
+            BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()), List.of(errors), null,
+            new ServerAddress(), Set.of()));
+    }
+
+    private static Collection<?> statusIn(Document criteria) {
+        return inValues(criteria, "status");
+    }
+
+    private static List<?> inValues(Document criteria, String field) {
+        return List.copyOf((Collection<?>) ((Document) criteria.get(field)).get("$in"));
+    }
+
+    private static Map<String, Object> set(Update update) {
+        return Map.copyOf((Document) update.getUpdateObject().get("$set"));
+    }
+}